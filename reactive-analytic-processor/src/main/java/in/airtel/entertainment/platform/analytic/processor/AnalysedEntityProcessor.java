@@ -0,0 +1,261 @@
+package in.airtel.entertainment.platform.analytic.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an {@code AnalyticEntityExtractor} for every class that is annotated with
+ * {@code @AnalysedEntity} or declares {@code @Analysed} members, so that
+ * {@code EntityExtractor} does not scan the class with reflection on first use.
+ *
+ * <p>The generated extractor follows the runtime rules: {@code @Analysed} fields of the class
+ * and its superclasses, then {@code @Analysed} zero-arg non-void methods declared by the class
+ * itself, named by the annotation or derived from {@code getX}/{@code isX}; with no
+ * {@code @Analysed} members, all public primitive, wrapper and {@code String} fields.
+ * Members the generated class cannot name, such as private fields, are read through method
+ * handles resolved once per class. Private classes and local classes are skipped and keep
+ * using reflection.
+ */
+@SupportedAnnotationTypes({
+        AnalysedEntityProcessor.ANALYSED_ENTITY,
+        AnalysedEntityProcessor.ANALYSED
+})
+public class AnalysedEntityProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_PACKAGE = "in.airtel.entertainment.platform.analytic.annotation";
+    static final String ANALYSED_ENTITY = ANNOTATION_PACKAGE + ".AnalysedEntity";
+    static final String ANALYSED = ANNOTATION_PACKAGE + ".Analysed";
+
+    private static final Set<String> PRIMITIVE_WRAPPERS = Set.of(
+            "java.lang.String", "java.lang.Boolean", "java.lang.Character", "java.lang.Byte",
+            "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float",
+            "java.lang.Double");
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type = element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD
+                        ? element.getEnclosingElement()
+                        : element;
+                if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM
+                        || type.getKind() == ElementKind.RECORD) {
+                    types.add((TypeElement) type);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            if (generated.add(type.getQualifiedName().toString())) {
+                generate(type);
+            }
+        }
+        // Other processors may also be interested in the framework's annotations
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (!isNameable(type)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No analytic extractor generated for a private or local class; reflection is used", type);
+            return;
+        }
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        List<AnalysedMember> members = collectMembers(type, pkg);
+        ExtractorSourceWriter writer = new ExtractorSourceWriter(processingEnv, type, pkg, members);
+        try {
+            writer.write();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write analytic extractor: " + e.getMessage(), type);
+        }
+    }
+
+    private List<AnalysedMember> collectMembers(TypeElement type, PackageElement pkg) {
+        List<AnalysedMember> members = new ArrayList<>();
+
+        // Fields of the class and its superclasses
+        int depth = 0;
+        for (TypeElement current = type; current != null && !isObject(current); current = superclassOf(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                AnnotationMirror analysed = findAnalysed(field);
+                if (analysed != null) {
+                    String name = nameOf(analysed, field.getSimpleName().toString());
+                    members.add(member(name, field, current, depth, pkg));
+                }
+            }
+            depth++;
+        }
+
+        // Zero-arg, non-void methods declared by the class itself
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            AnnotationMirror analysed = findAnalysed(method);
+            if (analysed != null && method.getParameters().isEmpty()
+                    && method.getReturnType().getKind() != TypeKind.VOID) {
+                String name = nameOf(analysed, deriveNameFromMethod(method.getSimpleName().toString()));
+                members.add(member(name, method, type, 0, pkg));
+            }
+        }
+
+        // If no @Analysed members, take all public primitive fields
+        if (members.isEmpty()) {
+            depth = 0;
+            for (TypeElement current = type; current != null && !isObject(current); current = superclassOf(current)) {
+                for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                    if (field.getModifiers().contains(Modifier.PUBLIC) && isPrimitive(field.asType())) {
+                        members.add(member(field.getSimpleName().toString(), field, current, depth, pkg));
+                    }
+                }
+                depth++;
+            }
+        }
+        return members;
+    }
+
+    private AnalysedMember member(String name, Element element, TypeElement declaring, int depth,
+                                  PackageElement pkg) {
+        boolean isMethod = element.getKind() == ElementKind.METHOD;
+        TypeMirror valueType = isMethod
+                ? ((ExecutableElement) element).getReturnType()
+                : element.asType();
+        boolean direct = isAccessibleFrom(element, declaring, pkg)
+                && !(isMethod && !((ExecutableElement) element).getThrownTypes().isEmpty());
+        return new AnalysedMember(name, element.getSimpleName().toString(), isMethod,
+                element.getModifiers().contains(Modifier.STATIC), kindOf(valueType), valueType,
+                declaring, depth, direct);
+    }
+
+    // ---- model helpers ------------------------------------------------------------------
+
+    private boolean isNameable(TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            TypeElement element = (TypeElement) current;
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            NestingKind nesting = element.getNestingKind();
+            if (nesting != NestingKind.TOP_LEVEL && nesting != NestingKind.MEMBER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether generated code in {@code pkg} can read the member directly.
+     */
+    private boolean isAccessibleFrom(Element member, TypeElement declaring, PackageElement pkg) {
+        if (member.getModifiers().contains(Modifier.PRIVATE) || !isNameable(declaring)) {
+            return false;
+        }
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(declaring).equals(pkg);
+        if (samePackage) {
+            return true;
+        }
+        if (!member.getModifiers().contains(Modifier.PUBLIC)) {
+            return false;
+        }
+        for (Element current = declaring; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AnnotationMirror findAnalysed(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANALYSED)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String nameOf(AnnotationMirror analysed, String fallback) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(analysed);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("name")) {
+                String name = (String) entry.getValue().getValue();
+                return name.isEmpty() ? fallback : name;
+            }
+        }
+        return fallback;
+    }
+
+    static String deriveNameFromMethod(String name) {
+        if (name.startsWith("get") && name.length() > 3) {
+            return Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        }
+        if (name.startsWith("is") && name.length() > 2) {
+            return Character.toLowerCase(name.charAt(2)) + name.substring(3);
+        }
+        return name;
+    }
+
+    private static boolean isPrimitive(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        return type.getKind() == TypeKind.DECLARED && PRIMITIVE_WRAPPERS.contains(
+                ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString());
+    }
+
+    private static AnalysedMember.Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case LONG:
+            case INT:
+            case SHORT:
+            case BYTE:
+                return AnalysedMember.Kind.LONG;
+            case DOUBLE:
+                return AnalysedMember.Kind.DOUBLE;
+            // FLOAT is boxed, as at runtime, so it renders as Float.toString does
+            default:
+                return AnalysedMember.Kind.OBJECT;
+        }
+    }
+
+    private static boolean isObject(TypeElement type) {
+        return type.getQualifiedName().contentEquals("java.lang.Object");
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement) ((DeclaredType) superclass).asElement()
+                : null;
+    }
+}
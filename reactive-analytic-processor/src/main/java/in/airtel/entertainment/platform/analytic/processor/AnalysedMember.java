@@ -0,0 +1,23 @@
+package in.airtel.entertainment.platform.analytic.processor;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * One attribute of a generated extractor.
+ *
+ * @param name        attribute name written to the transaction
+ * @param memberName  field or method name in the source
+ * @param depth       number of {@code getSuperclass()} steps from the entity to {@code declaring}
+ * @param direct      whether generated code can read the member without a method handle
+ */
+record AnalysedMember(String name, String memberName, boolean isMethod, boolean isStatic, Kind kind,
+                      TypeMirror valueType, TypeElement declaring, int depth, boolean direct) {
+
+    /**
+     * How the value is stored: unboxed through {@code putLong}/{@code putDouble}, or as an object.
+     */
+    enum Kind {
+        LONG, DOUBLE, OBJECT
+    }
+}
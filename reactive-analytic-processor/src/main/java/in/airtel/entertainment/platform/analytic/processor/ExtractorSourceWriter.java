@@ -0,0 +1,241 @@
+package in.airtel.entertainment.platform.analytic.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Writes the extractor source for one entity class, plus a GraalVM {@code reflect-config.json}
+ * listing the generated class and any members it reads through method handles.
+ */
+final class ExtractorSourceWriter {
+
+    static final String CLASS_NAME_SUFFIX = "_AnalyticExtractor";
+
+    private static final String CORE_PACKAGE = "in.airtel.entertainment.platform.analytic.core";
+    private static final String NATIVE_IMAGE_DIR = "META-INF/native-image/reactive-analytic/";
+
+    private final ProcessingEnvironment env;
+    private final TypeElement type;
+    private final List<AnalysedMember> members;
+    private final String packageName;
+    private final String simpleName;
+    private final String entityType;
+
+    ExtractorSourceWriter(ProcessingEnvironment env, TypeElement type, PackageElement pkg,
+                          List<AnalysedMember> members) {
+        this.env = env;
+        this.type = type;
+        this.members = members;
+        this.packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        this.simpleName = generatedSimpleName(env.getElementUtils().getBinaryName(type).toString(), packageName);
+        this.entityType = typeName(type);
+    }
+
+    /**
+     * {@code p.Outer$Inner} becomes {@code Outer_Inner_AnalyticExtractor}, matching
+     * {@code EntityExtractor}'s lookup.
+     */
+    static String generatedSimpleName(String binaryName, String packageName) {
+        String name = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return name.replace('$', '_') + CLASS_NAME_SUFFIX;
+    }
+
+    void write() throws IOException {
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject source = env.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer out = source.openWriter()) {
+            out.write(source());
+        }
+        FileObject config = env.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                NATIVE_IMAGE_DIR + qualifiedName + "/reflect-config.json", type);
+        try (Writer out = config.openWriter()) {
+            out.write(reflectConfig(qualifiedName));
+        }
+    }
+
+    String source() {
+        StringBuilder sb = new StringBuilder(2048);
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import ").append(CORE_PACKAGE).append(".AnalyticEntityExtractor;\n");
+        sb.append("import ").append(CORE_PACKAGE).append(".GeneratedExtractorSupport;\n");
+        sb.append("import ").append(CORE_PACKAGE).append(".TransactionData;\n\n");
+        sb.append("import java.lang.invoke.MethodHandle;\n");
+        sb.append("import java.lang.invoke.MethodHandles;\n");
+        sb.append("import java.util.Map;\n\n");
+
+        sb.append("@javax.annotation.processing.Generated(\"")
+                .append(AnalysedEntityProcessor.class.getName()).append("\")\n");
+        sb.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        sb.append("public final class ").append(simpleName)
+                .append(" implements AnalyticEntityExtractor<").append(entityType).append("> {\n");
+
+        writeHandles(sb);
+        writeExtractInto(sb);
+        writeExtract(sb);
+
+        sb.append("\n    private static void putIfPresent(Map<String, Object> target, String name, Object value) {\n");
+        sb.append("        if (value != null) {\n");
+        sb.append("            target.put(name, value);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void writeHandles(StringBuilder sb) {
+        StringBuilder init = new StringBuilder();
+        for (int i = 0; i < members.size(); i++) {
+            AnalysedMember member = members.get(i);
+            if (member.direct()) {
+                continue;
+            }
+            sb.append("\n    private static final MethodHandle H").append(i).append(";\n");
+            appendHandleInit(init, "H" + i, member, "Object");
+            if (member.kind() != AnalysedMember.Kind.OBJECT) {
+                sb.append("    private static final MethodHandle H").append(i).append("_VALUE;\n");
+                appendHandleInit(init, "H" + i + "_VALUE", member,
+                        member.kind() == AnalysedMember.Kind.LONG ? "long" : "double");
+            }
+        }
+        if (init.length() == 0) {
+            return;
+        }
+        sb.append("\n    static {\n");
+        sb.append("        try {\n");
+        sb.append("            MethodHandles.Lookup lookup = MethodHandles.lookup();\n");
+        sb.append(init);
+        sb.append("        } catch (ReflectiveOperationException e) {\n");
+        sb.append("            throw new ExceptionInInitializerError(e);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+    }
+
+    private void appendHandleInit(StringBuilder init, String field, AnalysedMember member, String resultType) {
+        init.append("            ").append(field).append(" = GeneratedExtractorSupport.")
+                .append(member.isMethod() ? "method" : "field")
+                .append("(lookup, ").append(entityType).append(".class")
+                .append(".getSuperclass()".repeat(member.depth()))
+                .append(", ").append(literal(member.memberName()))
+                .append(", ").append(resultType).append(".class);\n");
+    }
+
+    private void writeExtractInto(StringBuilder sb) {
+        sb.append("\n    @Override\n");
+        sb.append("    public void extractInto(").append(entityType).append(" entity, TransactionData target) {\n");
+        for (int i = 0; i < members.size(); i++) {
+            AnalysedMember member = members.get(i);
+            String method = switch (member.kind()) {
+                case LONG -> "putLong";
+                case DOUBLE -> "putDouble";
+                case OBJECT -> "put";
+            };
+            String value;
+            if (member.direct()) {
+                value = directRead(member);
+            } else if (member.kind() == AnalysedMember.Kind.LONG) {
+                value = "(long) H" + i + "_VALUE.invokeExact((Object) entity)";
+            } else if (member.kind() == AnalysedMember.Kind.DOUBLE) {
+                value = "(double) H" + i + "_VALUE.invokeExact((Object) entity)";
+            } else {
+                value = "(Object) H" + i + ".invokeExact((Object) entity)";
+            }
+            appendGuarded(sb, member, "target." + method + "(" + literal(member.name()) + ", " + value + ");");
+        }
+        sb.append("    }\n");
+    }
+
+    private void writeExtract(StringBuilder sb) {
+        sb.append("\n    @Override\n");
+        sb.append("    public void extract(").append(entityType).append(" entity, Map<String, Object> target) {\n");
+        for (int i = 0; i < members.size(); i++) {
+            AnalysedMember member = members.get(i);
+            String value = member.direct()
+                    ? directRead(member)
+                    : "(Object) H" + i + ".invokeExact((Object) entity)";
+            appendGuarded(sb, member, "putIfPresent(target, " + literal(member.name()) + ", " + value + ");");
+        }
+        sb.append("    }\n");
+    }
+
+    /**
+     * Field reads of accessible members cannot fail; method calls and handle invocations are
+     * guarded so one failing member does not stop the others, as in the reflective extractor.
+     */
+    private static void appendGuarded(StringBuilder sb, AnalysedMember member, String statement) {
+        if (member.direct() && !member.isMethod()) {
+            sb.append("        ").append(statement).append('\n');
+            return;
+        }
+        sb.append("        try {\n");
+        sb.append("            ").append(statement).append('\n');
+        sb.append("        } catch (Throwable e) {\n");
+        sb.append("            GeneratedExtractorSupport.memberFailed(").append(literal(member.name())).append(", e);\n");
+        sb.append("        }\n");
+    }
+
+    private String directRead(AnalysedMember member) {
+        String receiver;
+        if (member.isStatic()) {
+            receiver = typeName(member.declaring());
+        } else if (member.depth() > 0) {
+            // Cast so a field hidden by a subclass field of the same name is still the one read
+            receiver = "((" + typeName(member.declaring()) + ") entity)";
+        } else {
+            receiver = "entity";
+        }
+        return receiver + "." + member.memberName() + (member.isMethod() ? "()" : "");
+    }
+
+    private String reflectConfig(String qualifiedName) {
+        StringJoiner config = new StringJoiner(",\n  ", "[\n  ", "\n]\n");
+        config.add("{\"name\":\"" + qualifiedName + "\",\"methods\":[{\"name\":\"<init>\",\"parameterTypes\":[]}]}");
+        Set<String> declaringClasses = new LinkedHashSet<>();
+        for (AnalysedMember member : members) {
+            if (!member.direct()) {
+                declaringClasses.add(env.getElementUtils().getBinaryName(member.declaring()).toString());
+            }
+        }
+        for (String declaring : declaringClasses) {
+            config.add("{\"name\":\"" + declaring + "\",\"allDeclaredFields\":true,\"allDeclaredMethods\":true}");
+        }
+        return config.toString();
+    }
+
+    private String typeName(TypeElement element) {
+        return env.getTypeUtils().erasure(element.asType()).toString();
+    }
+
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,222 @@
+package in.airtel.entertainment.platform.analytic.processor;
+
+import in.airtel.entertainment.platform.analytic.core.EntityExtractor;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysedEntityProcessorTest {
+
+    private static final String BASE = """
+            package sample;
+
+            import in.airtel.entertainment.platform.analytic.annotation.Analysed;
+
+            public class BaseDto {
+                @Analysed(name = "tenant")
+                private String tenantId = "wynk";
+
+                @Analysed
+                protected long shadowed = 1;
+            }
+            """;
+
+    private static final String DTO = """
+            package sample;
+
+            import in.airtel.entertainment.platform.analytic.annotation.Analysed;
+            import in.airtel.entertainment.platform.analytic.annotation.AnalysedEntity;
+
+            @AnalysedEntity
+            public class Dto extends BaseDto {
+                @Analysed(name = "msisdn")
+                private String number = "9999999999";
+
+                @Analysed
+                public int appVersion = 231;
+
+                @Analysed
+                float ratio = 1.1f;
+
+                @Analysed(name = "shadowedHere")
+                long shadowed = 2;
+
+                @Analysed
+                public String missing;
+
+                @Analysed
+                static int LIMIT = 5;
+
+                @Analysed
+                public boolean isActive() {
+                    return true;
+                }
+
+                @Analysed
+                private double getScore() {
+                    return 1.5;
+                }
+
+                @Analysed
+                public String getChecked() throws Exception {
+                    return "checked";
+                }
+
+                @Analysed
+                public String getFailing() {
+                    throw new IllegalStateException("boom");
+                }
+
+                @Analysed(name = "quote\\"d")
+                public String quoted = "q";
+            }
+            """;
+
+    private static final String HOLDER = """
+            package sample;
+
+            import in.airtel.entertainment.platform.analytic.annotation.AnalysedEntity;
+
+            public class Holder {
+                @AnalysedEntity
+                public static class Nested {
+                    public String publicField = "visible";
+                    public Integer boxed = 10;
+                    public long count = 3;
+                    public java.util.List<String> notPrimitive = java.util.List.of();
+                    private String privateField = "hidden";
+                }
+
+                @AnalysedEntity
+                private static class Hidden {
+                    public int value = 1;
+                }
+            }
+            """;
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void generatedExtractorsShouldMatchReflection() throws Exception {
+        Path generatedOut = compile(temp.resolve("generated"), true);
+        Path reflectiveOut = compile(temp.resolve("reflective"), false);
+
+        assertTrue(Files.exists(generatedOut.resolve("sample/Dto_AnalyticExtractor.class")));
+        assertTrue(Files.exists(generatedOut.resolve("sample/Holder_Nested_AnalyticExtractor.class")));
+        assertFalse(Files.exists(generatedOut.resolve("sample/Holder_Hidden_AnalyticExtractor.class")));
+        assertFalse(Files.exists(reflectiveOut.resolve("sample/Dto_AnalyticExtractor.class")));
+        assertTrue(Files.readString(generatedOut.resolve(
+                "META-INF/native-image/reactive-analytic/sample.Dto_AnalyticExtractor/reflect-config.json"))
+                .contains("\"sample.BaseDto\""));
+
+        try (URLClassLoader generated = loader(generatedOut); URLClassLoader reflective = loader(reflectiveOut)) {
+            for (String name : List.of("sample.Dto", "sample.Holder$Nested")) {
+                Object viaGenerated = generated.loadClass(name).getDeclaredConstructor().newInstance();
+                Object viaReflection = reflective.loadClass(name).getDeclaredConstructor().newInstance();
+
+                assertEquals(EntityExtractor.extract(viaReflection), EntityExtractor.extract(viaGenerated), name);
+                assertEquals(extractInto(viaReflection), extractInto(viaGenerated), name);
+            }
+
+            Map<String, Object> dto = extractInto(generated.loadClass("sample.Dto").getDeclaredConstructor().newInstance());
+            assertEquals("9999999999", dto.get("msisdn"));
+            assertEquals("wynk", dto.get("tenant"));
+            assertEquals(231L, dto.get("appVersion"));
+            assertEquals(1.1f, dto.get("ratio"));
+            assertEquals(1L, dto.get("shadowed"));
+            assertEquals(2L, dto.get("shadowedHere"));
+            assertEquals(5L, dto.get("LIMIT"));
+            assertEquals(true, dto.get("active"));
+            assertEquals(1.5, dto.get("score"));
+            assertEquals("checked", dto.get("checked"));
+            assertEquals("q", dto.get("quote\"d"));
+            assertFalse(dto.containsKey("missing"));
+            assertFalse(dto.containsKey("failing"));
+
+            Map<String, Object> nested = EntityExtractor.extract(
+                    generated.loadClass("sample.Holder$Nested").getDeclaredConstructor().newInstance());
+            assertEquals(Map.of("publicField", "visible", "boxed", 10, "count", 3L), nested);
+        }
+    }
+
+    @Test
+    void generatedNamesShouldFlattenNesting() {
+        assertEquals("Outer_Inner_AnalyticExtractor",
+                ExtractorSourceWriter.generatedSimpleName("p.q.Outer$Inner", "p.q"));
+        assertEquals("Top_AnalyticExtractor", ExtractorSourceWriter.generatedSimpleName("Top", ""));
+        assertEquals("\"a\\\"b\\\\c\\n\"", ExtractorSourceWriter.literal("a\"b\\c\n"));
+    }
+
+    private static Map<String, Object> extractInto(Object entity) {
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(entity, transaction);
+        return transaction.getData();
+    }
+
+    private Path compile(Path out, boolean withProcessor) throws Exception {
+        Files.createDirectories(out);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = new ArrayList<>(List.of("-d", out.toString(), "-classpath", frameworkClassPath()));
+        if (!withProcessor) {
+            options.add("-proc:none");
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null,
+                List.of(source("sample.BaseDto", BASE), source("sample.Dto", DTO), source("sample.Holder", HOLDER)));
+        if (withProcessor) {
+            task.setProcessors(List.of(new AnalysedEntityProcessor()));
+        }
+        boolean success = task.call();
+        StringBuilder errors = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.append(diagnostic).append('\n');
+            }
+        }
+        assertTrue(success, errors.toString());
+        return out;
+    }
+
+    private static String frameworkClassPath() throws Exception {
+        return String.join(File.pathSeparator,
+                location(EntityExtractor.class), location(Logger.class));
+    }
+
+    private static String location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private URLClassLoader loader(Path classes) throws Exception {
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
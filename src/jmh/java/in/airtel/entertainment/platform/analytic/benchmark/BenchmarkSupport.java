@@ -0,0 +1,124 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import in.airtel.entertainment.platform.analytic.annotation.Analysed;
+import in.airtel.entertainment.platform.analytic.annotation.AnalysedEntity;
+import in.airtel.entertainment.platform.analytic.encoder.AnalyticJsonEncoder;
+import in.airtel.entertainment.platform.analytic.encoder.AnalyticRollingFileAppender;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared fixtures for the JMH benchmarks: logger wiring and representative payloads.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Routes {@code analyticLogger} either nowhere ({@code off}) or through an
+     * {@link AnalyticRollingFileAppender} with {@link AnalyticJsonEncoder} writing to
+     * {@code /dev/null} ({@code encoder}), so the end-to-end numbers include encoding but
+     * not disk I/O.
+     */
+    public static void configureAnalyticLogger(String mode) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.WARN);
+
+        Logger analyticLogger = context.getLogger("analyticLogger");
+        analyticLogger.detachAndStopAllAppenders();
+        analyticLogger.setAdditive(false);
+
+        if ("off".equals(mode)) {
+            analyticLogger.setLevel(Level.OFF);
+            return;
+        }
+
+        AnalyticJsonEncoder encoder = new AnalyticJsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        AnalyticRollingFileAppender appender = new AnalyticRollingFileAppender();
+        appender.setContext(context);
+        appender.setName("BENCHMARK_NULL");
+        appender.setEncoder(encoder);
+        appender.setImmediateFlush(false);
+        appender.setFile("/dev/null");
+
+        TimeBasedRollingPolicy<ILoggingEvent> policy = new TimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setFileNamePattern(System.getProperty("java.io.tmpdir") + "/analytic-bench.%d{yyyy-MM-dd}.log");
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.start();
+
+        analyticLogger.setLevel(Level.INFO);
+        analyticLogger.addAppender(appender);
+    }
+
+    /**
+     * A typical end-of-transaction map: a handful of string and numeric attributes.
+     */
+    public static Map<String, Object> smallPayload() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("transactionName", "getRecommendation");
+        data.put("startTime", "2026-02-16T09:30:00.000+0000");
+        data.put("endTime", "2026-02-16T09:30:00.245+0000");
+        data.put("timeTaken", 245L);
+        data.put("collectionId", "banner_xstream");
+        data.put("contentCount", 12);
+        data.put("success", true);
+        return data;
+    }
+
+    /**
+     * A large record: many keys, nested maps and lists, and strings that need escaping.
+     */
+    public static Map<String, Object> largePayload() {
+        Map<String, Object> data = smallPayload();
+        for (int i = 0; i < 50; i++) {
+            data.put("attribute" + i, "value-" + i + " with \"quotes\" and\ttabs");
+        }
+        Map<String, Object> nested = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            nested.put("inner" + i, i * 1000L);
+        }
+        data.put("nested", nested);
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add("content-" + i);
+        }
+        data.put("items", items);
+        data.put("description", "x".repeat(2048));
+        return data;
+    }
+
+    @AnalysedEntity(name = "request")
+    public static class ContentRequest {
+        @Analysed(name = "msisdn")
+        private String msisdn = "9999999999";
+
+        @Analysed
+        public String platform = "android";
+
+        @Analysed
+        public int appVersion = 231;
+
+        private final String type = "MOVIE";
+
+        @Analysed(name = "contentType")
+        public String getType() {
+            return type;
+        }
+    }
+}
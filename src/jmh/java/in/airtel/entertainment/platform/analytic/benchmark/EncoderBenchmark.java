@@ -0,0 +1,77 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import in.airtel.entertainment.platform.analytic.core.JsonFixtures;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.encoder.AnalyticJsonEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link AnalyticJsonEncoder#encode} for a pre-built logging event carrying either
+ * a pre-serialized JSON string or a structured {@code AnalyticEvent}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncoderBenchmark {
+
+    @Param({"small", "large"})
+    public String payload;
+
+    /** {@code string}: pre-serialized JSON message; {@code structured}: {@code AnalyticEvent} argument. */
+    @Param({"string", "structured"})
+    public String message;
+
+    private AnalyticJsonEncoder encoder;
+    private LoggingEvent event;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder = new AnalyticJsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        Map<String, Object> data = "large".equals(payload)
+                ? BenchmarkSupport.largePayload()
+                : BenchmarkSupport.smallPayload();
+
+        event = new LoggingEvent();
+        event.setLoggerName("analyticLogger");
+        event.setLevel(Level.INFO);
+        event.setTimeStamp(System.currentTimeMillis());
+        if ("structured".equals(message)) {
+            TransactionData transaction = new TransactionData("getRecommendation");
+            transaction.putAll(data);
+            event.setMessage("{}");
+            event.setArgumentArray(new Object[]{transaction.toEvent(null)});
+        } else {
+            event.setMessage(JsonFixtures.toJson(data));
+        }
+        event.setMDCPropertyMap(Map.of("correlationid", "abc-123"));
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.encode(event);
+    }
+}
@@ -0,0 +1,60 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The copy-on-push {@code TransactionStack} this project shipped before the cons-list
+ * rewrite, kept only as the baseline for {@link TransactionStackBenchmark}.
+ */
+public final class LegacyTransactionStack {
+
+    private final List<TransactionData> stack;
+
+    private LegacyTransactionStack(List<TransactionData> stack) {
+        this.stack = Collections.unmodifiableList(stack);
+    }
+
+    public static LegacyTransactionStack empty() {
+        return new LegacyTransactionStack(Collections.emptyList());
+    }
+
+    public LegacyTransactionStack push(TransactionData transaction) {
+        List<TransactionData> newStack = new ArrayList<>(stack);
+        newStack.add(transaction);
+        return new LegacyTransactionStack(newStack);
+    }
+
+    public LegacyTransactionStack pop() {
+        if (stack.isEmpty()) {
+            return this;
+        }
+        List<TransactionData> newStack = new ArrayList<>(stack.subList(0, stack.size() - 1));
+        return new LegacyTransactionStack(newStack);
+    }
+
+    public TransactionData peek() {
+        if (stack.isEmpty()) {
+            return null;
+        }
+        return stack.get(stack.size() - 1);
+    }
+
+    public boolean isEmpty() {
+        return stack.isEmpty();
+    }
+
+    public int size() {
+        return stack.size();
+    }
+
+    public TransactionData getParent() {
+        if (stack.size() < 2) {
+            return null;
+        }
+        return stack.get(stack.size() - 2);
+    }
+}
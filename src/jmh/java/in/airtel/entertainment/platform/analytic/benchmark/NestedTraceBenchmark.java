@@ -0,0 +1,60 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nested transactions: {@code depth} traced layers, each with one update, so every
+ * subscribe pushes onto a deeper stack and every flush promotes into its parent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedTraceBenchmark {
+
+    @Param({"off", "encoder"})
+    public String sink;
+
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.configureAnalyticLogger(sink);
+        names = new String[depth];
+        for (int i = 0; i < depth; i++) {
+            names[i] = "level" + i;
+        }
+    }
+
+    @Benchmark
+    public void nestedTrace(Blackhole bh) {
+        Mono<String> mono = Mono.just("value")
+                .transform(ReactiveAnalytic.update("leaf", "true"));
+        for (int i = 0; i < depth; i++) {
+            mono = mono.transform(ReactiveAnalytic.update(names[i], i))
+                    .transform(ReactiveAnalytic.trace(names[i]));
+        }
+        mono.subscribe(bh::consume);
+    }
+}
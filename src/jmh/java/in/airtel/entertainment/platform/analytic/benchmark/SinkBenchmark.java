@@ -0,0 +1,91 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.LogbackAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.MappedFileAnalyticSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of writing one finished transaction through a sink: {@code logback} goes through
+ * {@code analyticLogger} and the encoder appender (to {@code /dev/null}); {@code mapped}
+ * appends to memory-mapped segments under the temp directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SinkBenchmark {
+
+    @Param({"logback", "mapped"})
+    public String sink;
+
+    private AnalyticSink analyticSink;
+    private AnalyticEvent event;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("mapped".equals(sink)) {
+            directory = Files.createTempDirectory("analytic-sink-bench");
+            analyticSink = new MappedFileAnalyticSink(directory, "bench", 64L * 1024 * 1024, Duration.ofHours(1));
+        } else {
+            BenchmarkSupport.configureAnalyticLogger("encoder");
+            analyticSink = new LogbackAnalyticSink();
+        }
+        TransactionData transaction = new TransactionData("getRecommendation");
+        BenchmarkSupport.smallPayload().forEach((key, value) -> {
+            if (!key.endsWith("Time") && !key.equals("transactionName") && !key.equals("timeTaken")) {
+                transaction.put(key, value);
+            }
+        });
+        event = transaction.toEvent(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        analyticSink.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void write() {
+        analyticSink.write(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void writeContended() {
+        analyticSink.write(event);
+    }
+}
@@ -0,0 +1,128 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of a traced publisher: context push, updates, flush and (with
+ * {@code sink=encoder}) JSON encoding into a discarding appender.
+ *
+ * <p>Each benchmark builds and subscribes a fresh pipeline, which is what happens per
+ * request when the aspect wraps a service method. {@link #baseline} is the same
+ * pipeline without any analytic operators. Nesting is covered by
+ * {@link NestedTraceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceBenchmark {
+
+    @Param({"off", "encoder"})
+    public String sink;
+
+    private static final SamplingRule NEVER = SamplingRule.rate(0);
+
+    private BenchmarkSupport.ContentRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.configureAnalyticLogger(sink);
+        request = new BenchmarkSupport.ContentRequest();
+    }
+
+    @Benchmark
+    public void baseline(Blackhole bh) {
+        Mono.just("value").subscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void trace(Blackhole bh) {
+        Mono.just("value")
+                .transform(ReactiveAnalytic.trace("benchTrace"))
+                .subscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void traceFlux(Blackhole bh) {
+        Flux.range(0, 16)
+                .transform(ReactiveAnalytic.traceFlux("benchTraceFlux"))
+                .subscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void traceWithUpdates(Blackhole bh) {
+        Mono.just("value")
+                .transform(ReactiveAnalytic.update("collectionId", "banner_xstream"))
+                .transform(ReactiveAnalytic.update("source", "multisource"))
+                .transform(ReactiveAnalytic.updateEntity(request))
+                .doOnEach(signal -> {
+                    if (signal.isOnNext()) {
+                        ReactiveAnalytic.updateFromSignal(signal, "contentCount", 12);
+                    }
+                })
+                .transform(ReactiveAnalytic.trace("benchUpdates"))
+                .subscribe(bh::consume);
+    }
+
+    /**
+     * {@link #traceWithUpdates} when the head-sampling decision says no.
+     */
+    @Benchmark
+    public void traceWithUpdatesUnsampled(Blackhole bh) {
+        Mono.just("value")
+                .transform(ReactiveAnalytic.update("collectionId", "banner_xstream"))
+                .transform(ReactiveAnalytic.update("source", "multisource"))
+                .transform(ReactiveAnalytic.updateEntity(request))
+                .doOnEach(signal -> {
+                    if (signal.isOnNext()) {
+                        ReactiveAnalytic.updateFromSignal(signal, "contentCount", 12);
+                    }
+                })
+                .transform(ReactiveAnalytic.trace("benchUnsampled", NEVER))
+                .subscribe(bh::consume);
+    }
+
+    @Benchmark
+    public void largePayload(Blackhole bh) {
+        Mono.just("value")
+                .doOnEach(signal -> {
+                    if (signal.isOnNext()) {
+                        for (int i = 0; i < 50; i++) {
+                            ReactiveAnalytic.updateFromSignal(signal, BenchmarkKeys.KEYS[i], "value-" + i);
+                        }
+                    }
+                })
+                .transform(ReactiveAnalytic.trace("benchLarge"))
+                .subscribe(bh::consume);
+    }
+
+    private static final class BenchmarkKeys {
+        static final String[] KEYS = new String[50];
+
+        static {
+            for (int i = 0; i < KEYS.length; i++) {
+                KEYS[i] = "attribute" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of one in-flight transaction with {@code attributes} keys, half strings and
+ * half numbers (above the {@code Long} cache range). {@code concurrentHashMap} reproduces
+ * the previous storage: a default {@code ConcurrentHashMap} with boxed numbers, without the
+ * transaction object and its clock read. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDataBenchmark {
+
+    @Param({"5", "10", "20"})
+    public int attributes;
+
+    private final String[] keys = new String[20];
+    private final long[] numbers = new long[20];
+
+    public TransactionDataBenchmark() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "attribute" + i;
+            numbers[i] = 1000L + i;
+        }
+    }
+
+    @Benchmark
+    public TransactionData attributeStore() {
+        TransactionData transaction = new TransactionData("benchTransaction");
+        for (int i = 0; i < attributes; i++) {
+            if ((i & 1) == 0) {
+                transaction.put(keys[i], "value");
+            } else {
+                transaction.putLong(keys[i], numbers[i]);
+            }
+        }
+        return transaction;
+    }
+
+    @Benchmark
+    public ConcurrentHashMap<String, Object> concurrentHashMap() {
+        ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+        for (int i = 0; i < attributes; i++) {
+            if ((i & 1) == 0) {
+                data.put(keys[i], "value");
+            } else {
+                data.put(keys[i], numbers[i]);
+            }
+        }
+        return data;
+    }
+}
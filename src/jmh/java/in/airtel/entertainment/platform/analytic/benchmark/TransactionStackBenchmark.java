@@ -0,0 +1,74 @@
+package in.airtel.entertainment.platform.analytic.benchmark;
+
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What nesting costs per request: push {@code depth} transactions, read the top and its
+ * parent at every level (as the flush does), then pop back down. {@code legacy} is the
+ * previous copy-on-push implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionStackBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int depth;
+
+    private TransactionData[] transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactions = new TransactionData[depth];
+        for (int i = 0; i < depth; i++) {
+            transactions[i] = new TransactionData("tx" + i);
+        }
+    }
+
+    @Benchmark
+    public void consList(Blackhole bh) {
+        TransactionStack stack = TransactionStack.empty();
+        for (TransactionData transaction : transactions) {
+            stack = stack.push(transaction);
+            bh.consume(stack.peek());
+            bh.consume(stack.getParent());
+        }
+        while (!stack.isEmpty()) {
+            stack = stack.pop();
+        }
+        bh.consume(stack);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        LegacyTransactionStack stack = LegacyTransactionStack.empty();
+        for (TransactionData transaction : transactions) {
+            stack = stack.push(transaction);
+            bh.consume(stack.peek());
+            bh.consume(stack.getParent());
+        }
+        while (!stack.isEmpty()) {
+            stack = stack.pop();
+        }
+        bh.consume(stack);
+    }
+}
@@ -0,0 +1,16 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.Map;
+
+/**
+ * Exposes the package-private serializer to benchmarks in other packages.
+ */
+public final class JsonFixtures {
+
+    private JsonFixtures() {
+    }
+
+    public static String toJson(Map<String, Object> data) {
+        return AnalyticJsonLogger.toJson(data);
+    }
+}
@@ -0,0 +1,83 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import in.airtel.entertainment.platform.analytic.benchmark.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolated cost of the flush-side stages: building the end map, JSON serialization and
+ * entity extraction. {@code directPuts} is the hand-written equivalent of
+ * {@code extractEntityInto}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private Map<String, Object> small;
+    private Map<String, Object> large;
+    private TransactionData transaction;
+    private BenchmarkSupport.ContentRequest request;
+    private TransactionData target;
+
+    @Setup
+    public void setUp() {
+        small = BenchmarkSupport.smallPayload();
+        large = BenchmarkSupport.largePayload();
+        transaction = new TransactionData("benchTransaction");
+        transaction.put("collectionId", "banner_xstream");
+        transaction.put("contentCount", 12);
+        transaction.put("source", "multisource");
+        request = new BenchmarkSupport.ContentRequest();
+        target = new TransactionData("benchTarget");
+    }
+
+    @Benchmark
+    public String toJsonSmall() {
+        return AnalyticJsonLogger.toJson(small);
+    }
+
+    @Benchmark
+    public String toJsonLarge() {
+        return AnalyticJsonLogger.toJson(large);
+    }
+
+    @Benchmark
+    public Map<String, Object> toEndMap() {
+        return transaction.toEndMap(null);
+    }
+
+    @Benchmark
+    public Map<String, Object> extractEntity() {
+        return EntityExtractor.extract(request);
+    }
+
+    @Benchmark
+    public TransactionData extractEntityInto() {
+        EntityExtractor.extractInto(request, target);
+        return target;
+    }
+
+    @Benchmark
+    public TransactionData directPuts() {
+        target.put("msisdn", "9999999999");
+        target.put("platform", request.platform);
+        target.putLong("appVersion", request.appVersion);
+        target.put("contentType", request.getType());
+        return target;
+    }
+}
@@ -9,4 +9,15 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface AnalyseTransaction {
     String name() default "defaultTransaction";
+
+    /**
+     * Fraction of invocations recorded, from 0 to 1. A rule configured under
+     * {@code reactive.analytic.sampling.rules} for the same name takes precedence.
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * Most invocations recorded per second; negative means no limit.
+     */
+    long maxPerSecond() default -1;
 }
@@ -1,39 +1,33 @@
 package in.airtel.entertainment.platform.analytic.aop;
 
-import in.airtel.entertainment.platform.analytic.annotation.AnalyseTransaction;
-import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Traces methods annotated with {@code @AnalyseTransaction} that return {@code Mono},
+ * {@code Flux}, {@code ParallelFlux}, {@code Publisher}, {@code CompletableFuture} or
+ * {@code CompletionStage}. Each method's {@link TransactionDescriptor} is built on its first
+ * call and reused afterwards.
+ */
 @Aspect
 public class AnalyseTransactionAspect {
 
-    private static final Logger LOG = LoggerFactory.getLogger(AnalyseTransactionAspect.class);
+    private final Map<Method, TransactionDescriptor> descriptors = new ConcurrentHashMap<>();
 
     @Around("@annotation(in.airtel.entertainment.platform.analytic.annotation.AnalyseTransaction)")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        AnalyseTransaction annotation = signature.getMethod().getAnnotation(AnalyseTransaction.class);
-        String transactionName = annotation.name();
-
-        Object result = joinPoint.proceed();
-
-        if (result instanceof Mono<?> mono) {
-            return mono.transform(ReactiveAnalytic.trace(transactionName));
-        }
-
-        if (result instanceof Flux<?> flux) {
-            return flux.transform(ReactiveAnalytic.traceFlux(transactionName));
-        }
+        TransactionDescriptor descriptor = descriptorFor(((MethodSignature) joinPoint.getSignature()).getMethod());
+        return descriptor.apply(joinPoint.proceed());
+    }
 
-        LOG.warn("@AnalyseTransaction on method {} returning non-reactive type; skipping.",
-                signature.getMethod().getName());
-        return result;
+    TransactionDescriptor descriptorFor(Method method) {
+        TransactionDescriptor descriptor = descriptors.get(method);
+        return descriptor != null ? descriptor : descriptors.computeIfAbsent(method, TransactionDescriptor::of);
     }
 }
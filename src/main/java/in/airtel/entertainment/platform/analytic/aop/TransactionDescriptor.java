@@ -0,0 +1,217 @@
+package in.airtel.entertainment.platform.analytic.aop;
+
+import in.airtel.entertainment.platform.analytic.annotation.AnalyseTransaction;
+import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.CorePublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Everything {@link AnalyseTransactionAspect} needs to trace one annotated method, resolved
+ * once per method: the transaction name, the sampling rule, the kind of the declared return
+ * type and the trace operators, so an invocation is a lookup and one virtual call.
+ */
+final class TransactionDescriptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnalyseTransactionAspect.class);
+
+    private final String methodName;
+    private final String transactionName;
+    /** One rule per method, so a per-second budget is shared by all invocations. */
+    private final SamplingRule samplingRule;
+    private final Kind kind;
+    /** The declared return type, when a traced value may not be assignable to it. */
+    private final Class<?> checkedType;
+    private final Function<Mono<Object>, Mono<Object>> monoTrace;
+    private final Function<Flux<Object>, Flux<Object>> fluxTrace;
+    private final Function<ParallelFlux<Object>, ParallelFlux<Object>> parallelTrace;
+    private volatile boolean warned;
+
+    private TransactionDescriptor(Method method, String transactionName, SamplingRule samplingRule, Kind kind) {
+        this.methodName = method.getName();
+        this.transactionName = transactionName;
+        this.samplingRule = samplingRule;
+        this.kind = kind;
+        Class<?> returnType = method.getReturnType();
+        this.checkedType = kind == Kind.DYNAMIC && returnType != Object.class ? returnType : null;
+        this.monoTrace = ReactiveAnalytic.trace(transactionName, samplingRule);
+        this.fluxTrace = ReactiveAnalytic.traceFlux(transactionName, samplingRule);
+        this.parallelTrace = ReactiveAnalytic.traceParallel(transactionName, samplingRule);
+    }
+
+    static TransactionDescriptor of(Method method) {
+        AnalyseTransaction annotation = method.getAnnotation(AnalyseTransaction.class);
+        Kind kind = Kind.of(method.getReturnType());
+        if (kind == Kind.NOT_TRACED) {
+            LOG.warn("@AnalyseTransaction on method {} returning non-reactive type {}; skipping.",
+                    method.getName(), method.getReturnType().getName());
+        }
+        return new TransactionDescriptor(method, annotation.name(), samplingRule(method, annotation), kind);
+    }
+
+    /**
+     * Applies the trace to what the method returned; {@code null} is returned as is.
+     */
+    Object apply(Object result) {
+        if (result == null) {
+            return null;
+        }
+        Object traced = kind.apply(this, result);
+        if (checkedType != null && traced != result && !checkedType.isInstance(traced)) {
+            // E.g. declared as a Mono subclass: the traced Mono cannot be returned in its place
+            if (!warned) {
+                warned = true;
+                LOG.warn("@AnalyseTransaction on method {} declared to return {} cannot be traced "
+                        + "without changing the type; skipping.", methodName, checkedType.getName());
+            }
+            return result;
+        }
+        return traced;
+    }
+
+    String getTransactionName() {
+        return transactionName;
+    }
+
+    SamplingRule getSamplingRule() {
+        return samplingRule;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    private static SamplingRule samplingRule(Method method, AnalyseTransaction annotation) {
+        try {
+            return SamplingRule.of(annotation.sampleRate(), annotation.maxPerSecond());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid sampling on @AnalyseTransaction method {}: {}; recording all.",
+                    method.getName(), e.getMessage());
+            return SamplingRule.ALWAYS;
+        }
+    }
+
+    /**
+     * How a method's result is traced, chosen from its declared return type. The traced
+     * value must still be assignable to that type, so e.g. a future comes back as a
+     * {@link CompletableFuture} and is only traced when declared as one or as a
+     * {@link CompletionStage}.
+     */
+    enum Kind {
+        MONO {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                return descriptor.monoTrace.apply((Mono<Object>) result);
+            }
+        },
+        FLUX {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                return descriptor.fluxTrace.apply((Flux<Object>) result);
+            }
+        },
+        PARALLEL_FLUX {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                return descriptor.parallelTrace.apply((ParallelFlux<Object>) result);
+            }
+        },
+        /**
+         * The work has already started when the method returns, so the transaction covers
+         * the time from then until the future completes. It is a root transaction: a future
+         * carries no Reactor Context.
+         */
+        COMPLETION_STAGE {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                return descriptor.monoTrace.apply(Mono.fromCompletionStage((CompletionStage<Object>) result))
+                        .toFuture();
+            }
+        },
+        /**
+         * Declared as {@link Publisher}: Mono, Flux and ParallelFlux keep their type, any
+         * other publisher is traced as a Flux.
+         */
+        PUBLISHER {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                if (result instanceof Mono) {
+                    return MONO.apply(descriptor, result);
+                }
+                if (result instanceof ParallelFlux) {
+                    return PARALLEL_FLUX.apply(descriptor, result);
+                }
+                return descriptor.fluxTrace.apply(Flux.from((Publisher<Object>) result));
+            }
+        },
+        /**
+         * Declared as {@link Object}, or as a subtype of a reactive type such as a
+         * {@link Mono} subclass: the kind is only known from the value. A traced value that
+         * is not assignable to the declared type is not used; see {@link #apply(Object)}.
+         */
+        DYNAMIC {
+            @Override
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                if (result instanceof Publisher) {
+                    return PUBLISHER.apply(descriptor, result);
+                }
+                if (result instanceof CompletionStage) {
+                    return COMPLETION_STAGE.apply(descriptor, result);
+                }
+                if (!descriptor.warned) {
+                    descriptor.warned = true;
+                    LOG.warn("@AnalyseTransaction on method {} returned non-reactive type {}; skipping.",
+                            descriptor.methodName, result.getClass().getName());
+                }
+                return result;
+            }
+        },
+        NOT_TRACED {
+            @Override
+            Object apply(TransactionDescriptor descriptor, Object result) {
+                return result;
+            }
+        };
+
+        abstract Object apply(TransactionDescriptor descriptor, Object result);
+
+        static Kind of(Class<?> returnType) {
+            if (returnType == Mono.class) {
+                return MONO;
+            }
+            if (returnType == Flux.class) {
+                return FLUX;
+            }
+            if (returnType == ParallelFlux.class) {
+                return PARALLEL_FLUX;
+            }
+            if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+                return COMPLETION_STAGE;
+            }
+            if (returnType == Publisher.class || returnType == CorePublisher.class) {
+                return PUBLISHER;
+            }
+            if (returnType == Object.class
+                    || Publisher.class.isAssignableFrom(returnType)
+                    || CompletionStage.class.isAssignableFrom(returnType)) {
+                return DYNAMIC;
+            }
+            return NOT_TRACED;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package in.airtel.entertainment.platform.analytic.api;
+
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Operator behind {@link ReactiveAnalytic} tracing of a Mono: pushes the transaction into the
+ * context seen upstream and flushes it on termination, in a single operator.
+ * See {@link TraceSubscriber}.
+ */
+class MonoTrace<T> extends MonoOperator<T, T> {
+
+    private static final AtomicLongFieldUpdater<MonoTrace> ASSEMBLED_AT =
+            AtomicLongFieldUpdater.newUpdater(MonoTrace.class, "assembledAt");
+
+    private final String transactionName;
+    private final SamplingRule samplingRule;
+    // Taken by the first subscription only; a resubscription would measure the operator's age
+    private volatile long assembledAt = System.nanoTime();
+
+    MonoTrace(Mono<? extends T> source, String transactionName, SamplingRule samplingRule) {
+        super(source);
+        this.transactionName = transactionName;
+        this.samplingRule = samplingRule;
+    }
+
+    static <T> Mono<T> create(Mono<T> source, String transactionName, SamplingRule samplingRule) {
+        return onAssembly(source instanceof Fuseable
+                ? new Fused<>(source, transactionName, samplingRule)
+                : new MonoTrace<>(source, transactionName, samplingRule));
+    }
+
+    @Override
+    public void subscribe(CoreSubscriber<? super T> actual) {
+        // Read first so reused publishers do not all write the shared field
+        long assembled = assembledAt != 0L ? ASSEMBLED_AT.getAndSet(this, 0L) : 0L;
+        source.subscribe(TraceSubscriber.subscribe(actual, transactionName, samplingRule,
+                this instanceof Fuseable, true, assembled));
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+        return super.scanUnsafe(key);
+    }
+
+    /**
+     * Variant for fuseable sources, so fusion survives the trace.
+     */
+    static final class Fused<T> extends MonoTrace<T> implements Fuseable {
+
+        Fused(Mono<? extends T> source, String transactionName, SamplingRule samplingRule) {
+            super(source, transactionName, samplingRule);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package in.airtel.entertainment.platform.analytic.api;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticContextKeys;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import reactor.core.CoreSubscriber;
+import reactor.core.Scannable;
+import reactor.core.publisher.ParallelFlux;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Traces a ParallelFlux as one transaction shared by all rails. The decision and the push
+ * happen once per subscription, from the first rail's context; the transaction is flushed
+ * when the last rail completes, or on the first error or cancel.
+ */
+class ParallelFluxTrace<T> extends ParallelFlux<T> implements Scannable {
+
+    private final ParallelFlux<? extends T> source;
+    private final String transactionName;
+    private final SamplingRule samplingRule;
+
+    ParallelFluxTrace(ParallelFlux<? extends T> source, String transactionName, SamplingRule samplingRule) {
+        this.source = source;
+        this.transactionName = transactionName;
+        this.samplingRule = samplingRule;
+    }
+
+    static <T> ParallelFlux<T> create(ParallelFlux<T> source, String transactionName, SamplingRule samplingRule) {
+        return onAssembly(new ParallelFluxTrace<>(source, transactionName, samplingRule));
+    }
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    @Override
+    public int getPrefetch() {
+        return source.getPrefetch();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void subscribe(CoreSubscriber<? super T>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+        TransactionStack stack = TraceSubscriber.open(subscribers[0].currentContext(), transactionName, samplingRule);
+        if (stack == null) {
+            source.subscribe(subscribers);
+            return;
+        }
+        Group group = new Group(stack, subscribers.length);
+        if (stack.isUnsampled() && TransactionStats.isEnabled()) {
+            group.unsampledName = transactionName;
+            group.unsampledStart = System.nanoTime();
+        }
+        CoreSubscriber<? super T>[] rails = new CoreSubscriber[subscribers.length];
+        for (int i = 0; i < subscribers.length; i++) {
+            Context ctx = subscribers[i].currentContext().put(AnalyticContextKeys.TRANSACTION_STACK_KEY, stack);
+            rails[i] = new RailSubscriber<>(subscribers[i], ctx, stack, group);
+        }
+        source.subscribe(rails);
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        if (key == Attr.PARENT) return source;
+        if (key == Attr.PREFETCH) return getPrefetch();
+        if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+        return null;
+    }
+
+    private static final class Group {
+        private static final AtomicIntegerFieldUpdater<Group> REMAINING =
+                AtomicIntegerFieldUpdater.newUpdater(Group.class, "remaining");
+        private static final AtomicIntegerFieldUpdater<Group> FLUSHED =
+                AtomicIntegerFieldUpdater.newUpdater(Group.class, "flushed");
+
+        private final TransactionStack stack;
+        /** Set when not sampled but counted in {@link TransactionStats}. */
+        String unsampledName;
+        long unsampledStart;
+        private volatile int remaining;
+        private volatile int flushed;
+
+        Group(TransactionStack stack, int rails) {
+            this.stack = stack;
+            this.remaining = rails;
+        }
+
+        void railCompleted() {
+            if (REMAINING.decrementAndGet(this) == 0) {
+                flush(null, false);
+            }
+        }
+
+        void flush(Throwable error, boolean cancelled) {
+            if (stack.isUnsampled()) {
+                if (unsampledName != null && FLUSHED.compareAndSet(this, 0, 1)) {
+                    TransactionStats.completed(unsampledName, unsampledStart, error != null);
+                }
+            } else if (FLUSHED.compareAndSet(this, 0, 1)) {
+                TraceSubscriber.dispatch(stack, error, cancelled);
+            }
+        }
+    }
+
+    private static final class RailSubscriber<T> extends TraceSubscriber<T> {
+        private final Group group;
+
+        RailSubscriber(CoreSubscriber<? super T> actual, Context context, TransactionStack stack, Group group) {
+            super(actual, context, stack, false, 0L, false);
+            this.group = group;
+        }
+
+        @Override
+        void flush(Throwable error, boolean cancelled) {
+            if (error == null && !cancelled) {
+                group.railCompleted();
+            } else {
+                group.flush(error, cancelled);
+            }
+        }
+    }
+}
@@ -1,25 +1,31 @@
 package in.airtel.entertainment.platform.analytic.api;
 
+import in.airtel.entertainment.platform.analytic.core.Accumulator;
 import in.airtel.entertainment.platform.analytic.core.AnalyticContextKeys;
-import in.airtel.entertainment.platform.analytic.core.AnalyticJsonLogger;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
 import in.airtel.entertainment.platform.analytic.core.EntityExtractor;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
 import in.airtel.entertainment.platform.analytic.core.TransactionData;
 import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticEventStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
 import reactor.core.publisher.Signal;
 
-import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * Main API for reactive analytic transaction tracking.
  *
- * <p><b>Context propagation:</b> In Reactor, {@code contextWrite} enriches context for
- * operators <em>upstream</em> of it. {@code trace()} places {@code contextWrite} at the
- * outermost (downstream) position so all inner operators see the enriched context.
+ * <p><b>Context propagation:</b> In Reactor, context flows from subscriber to source, so
+ * only operators <em>upstream</em> of {@code trace()} see its transaction. {@code trace()}
+ * is a single operator whose subscriber carries the enriched context, placed at the
+ * outermost (downstream) position so all inner operators see it.
  *
  * <p><b>Typical usage with AOP:</b>
  * <pre>{@code
@@ -46,42 +52,53 @@ public final class ReactiveAnalytic {
 
     /**
      * Wraps a Mono with a named transaction. Pushes a new TransactionData onto the
-     * context stack and flushes it as JSON on completion or error.
+     * context stack and flushes it as JSON on completion, error or cancellation.
      *
-     * <p>contextWrite is placed downstream so all upstream operators (including
-     * update/doOnEach calls) can see the enriched context.
+     * <p>The transaction is visible in the context of all upstream operators (including
+     * update/doOnEach calls), as if by a downstream {@code contextWrite}.
      */
     public static <T> Function<Mono<T>, Mono<T>> trace(String transactionName) {
-        return mono -> mono
-                .doOnEach(signal -> {
-                    if (signal.isOnComplete() || signal.isOnError()) {
-                        flushTransaction(signal, transactionName);
-                    }
-                })
-                .contextWrite(ctx -> {
-                    TransactionStack stack = ctx.getOrDefault(
-                            AnalyticContextKeys.TRANSACTION_STACK_KEY, TransactionStack.empty());
-                    TransactionData txData = new TransactionData(transactionName);
-                    return ctx.put(AnalyticContextKeys.TRANSACTION_STACK_KEY, stack.push(txData));
-                });
+        return trace(transactionName, null);
     }
 
     /**
-     * Wraps a Flux with a named transaction.
+     * Wraps a Mono with a named transaction that is recorded according to
+     * {@code samplingRule} unless a rule is configured for the name. An unsampled
+     * transaction allocates nothing, and nested transactions inherit the decision.
+     */
+    public static <T> Function<Mono<T>, Mono<T>> trace(String transactionName, SamplingRule samplingRule) {
+        return mono -> MonoTrace.create(mono, transactionName, samplingRule);
+    }
+
+    /**
+     * Wraps a Flux with a named transaction. Elements pass through without allocation.
      */
     public static <T> Function<Flux<T>, Flux<T>> traceFlux(String transactionName) {
-        return flux -> flux
-                .doOnEach(signal -> {
-                    if (signal.isOnComplete() || signal.isOnError()) {
-                        flushTransaction(signal, transactionName);
-                    }
-                })
-                .contextWrite(ctx -> {
-                    TransactionStack stack = ctx.getOrDefault(
-                            AnalyticContextKeys.TRANSACTION_STACK_KEY, TransactionStack.empty());
-                    TransactionData txData = new TransactionData(transactionName);
-                    return ctx.put(AnalyticContextKeys.TRANSACTION_STACK_KEY, stack.push(txData));
-                });
+        return traceFlux(transactionName, null);
+    }
+
+    /**
+     * Wraps a Flux with a named, sampled transaction. See {@link #trace(String, SamplingRule)}.
+     */
+    public static <T> Function<Flux<T>, Flux<T>> traceFlux(String transactionName, SamplingRule samplingRule) {
+        return flux -> FluxTrace.create(flux, transactionName, samplingRule);
+    }
+
+    /**
+     * Wraps a ParallelFlux with one named transaction shared by all rails, flushed when the
+     * last rail completes.
+     */
+    public static <T> Function<ParallelFlux<T>, ParallelFlux<T>> traceParallel(String transactionName) {
+        return traceParallel(transactionName, null);
+    }
+
+    /**
+     * Wraps a ParallelFlux with a named, sampled transaction. See
+     * {@link #trace(String, SamplingRule)}.
+     */
+    public static <T> Function<ParallelFlux<T>, ParallelFlux<T>> traceParallel(String transactionName,
+                                                                             SamplingRule samplingRule) {
+        return parallel -> ParallelFluxTrace.create(parallel, transactionName, samplingRule);
     }
 
     /**
@@ -113,8 +130,7 @@ public final class ReactiveAnalytic {
                 TransactionStack stack = ctx.getOrDefault(
                         AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
                 if (stack != null && !stack.isEmpty()) {
-                    Map<String, Object> extracted = EntityExtractor.extract(entity);
-                    stack.peek().putAll(extracted);
+                    EntityExtractor.extractInto(entity, stack.peek());
                 }
             } catch (Exception e) {
                 LOG.warn("Analytic entity update failed: {}", e.getMessage());
@@ -147,55 +163,148 @@ public final class ReactiveAnalytic {
     }
 
     /**
-     * Extracts @Analysed fields from entity within a doOnEach callback.
+     * Numeric variant of {@link #updateFromSignal(Signal, String, Object)} that stores the
+     * value without boxing.
      */
-    public static void updateEntityFromSignal(Signal<?> signal, Object entity) {
+    public static void updateFromSignal(Signal<?> signal, String key, long value) {
         try {
             if (signal.getContextView().isEmpty()) return;
             TransactionStack stack = signal.getContextView().getOrDefault(
                     AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
             if (stack == null || stack.isEmpty()) return;
-            Map<String, Object> extracted = EntityExtractor.extract(entity);
-            stack.peek().putAll(extracted);
+            stack.peek().putLong(key, value);
         } catch (Exception e) {
-            LOG.warn("Analytic entity update failed: {}", e.getMessage());
+            LOG.warn("Analytic update failed: {}", e.getMessage());
         }
     }
 
     /**
-     * Returns the current TransactionData from the given context view, or null.
+     * Numeric variant of {@link #updateFromSignal(Signal, String, Object)} that stores the
+     * value without boxing.
      */
-    public static TransactionData currentTransaction(reactor.util.context.ContextView ctx) {
-        TransactionStack stack = ctx.getOrDefault(
-                AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
-        if (stack == null || stack.isEmpty()) return null;
-        return stack.peek();
-    }
-
-    private static void flushTransaction(Signal<?> signal, String transactionName) {
+    public static void updateFromSignal(Signal<?> signal, String key, double value) {
         try {
             if (signal.getContextView().isEmpty()) return;
             TransactionStack stack = signal.getContextView().getOrDefault(
                     AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
             if (stack == null || stack.isEmpty()) return;
+            stack.peek().putDouble(key, value);
+        } catch (Exception e) {
+            LOG.warn("Analytic update failed: {}", e.getMessage());
+        }
+    }
 
-            TransactionData current = stack.peek();
-            if (current == null || !current.getTransactionName().equals(transactionName)) {
-                return;
-            }
+    /**
+     * Counts the elements of a Flux into the numeric attribute {@code key} of the current
+     * transaction. Like {@link #update}, it must be upstream of the {@code trace()}.
+     *
+     * <p>The transaction is looked up once per subscription; each element is then one
+     * striped add, without boxing. Several subscriptions, e.g. the inner publishers of a
+     * {@code flatMap}, add up into the same total, written once when the transaction is
+     * flushed.
+     *
+     * <pre>{@code
+     * return fetchPage(cursor)
+     *     .transform(ReactiveAnalytic.count("items"))
+     *     .transform(ReactiveAnalytic.sum("bytes", Item::sizeInBytes))
+     *     .transform(ReactiveAnalytic.traceFlux("fetchPage"));
+     * }</pre>
+     */
+    public static <T> Function<Flux<T>, Flux<T>> count(String key) {
+        return accumulate(key, Accumulator.Kind.COUNT, null);
+    }
+
+    /**
+     * Sums {@code value} of every element into the attribute {@code key}. See {@link #count}.
+     */
+    public static <T> Function<Flux<T>, Flux<T>> sum(String key, ToLongFunction<? super T> value) {
+        return accumulate(key, Accumulator.Kind.SUM, value);
+    }
 
-            Throwable error = signal.isOnError() ? signal.getThrowable() : null;
-            Map<String, Object> endMap = current.toEndMap(error);
+    /**
+     * Records the largest {@code value} of any element as the attribute {@code key}; not
+     * written when there were no elements. See {@link #count}.
+     */
+    public static <T> Function<Flux<T>, Flux<T>> max(String key, ToLongFunction<? super T> value) {
+        return accumulate(key, Accumulator.Kind.MAX, value);
+    }
 
-            // Promote data to parent if nested
-            TransactionData parent = stack.getParent();
-            if (parent != null) {
-                parent.putAll(current.getData());
+    private static <T> Function<Flux<T>, Flux<T>> accumulate(String key, Accumulator.Kind kind,
+                                                              ToLongFunction<? super T> value) {
+        return flux -> Flux.deferContextual(ctx -> {
+            Accumulator accumulator;
+            try {
+                TransactionData current = currentTransaction(ctx);
+                if (current == null) {
+                    return flux;
+                }
+                accumulator = current.accumulator(key, kind);
+            } catch (Exception e) {
+                LOG.warn("Analytic accumulator failed: {}", e.getMessage());
+                return flux;
+            }
+            if (value == null) {
+                return flux.doOnNext(t -> accumulator.increment());
             }
+            return flux.doOnNext(t -> {
+                try {
+                    accumulator.add(value.applyAsLong(t));
+                } catch (Exception e) {
+                    LOG.warn("Analytic accumulator failed: {}", e.getMessage());
+                }
+            });
+        });
+    }
 
-            AnalyticJsonLogger.log(endMap);
+    /**
+     * Extracts @Analysed fields from entity within a doOnEach callback.
+     */
+    public static void updateEntityFromSignal(Signal<?> signal, Object entity) {
+        try {
+            if (signal.getContextView().isEmpty()) return;
+            TransactionStack stack = signal.getContextView().getOrDefault(
+                    AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
+            if (stack == null || stack.isEmpty()) return;
+            EntityExtractor.extractInto(entity, stack.peek());
         } catch (Exception e) {
-            LOG.warn("Analytic flush failed: {}", e.getMessage());
+            LOG.warn("Analytic entity update failed: {}", e.getMessage());
         }
     }
+
+    /**
+     * Hot stream of transactions completed from now on, traced by this class or by
+     * {@code AnalyticWebFilter}. Each subscriber has its own bounded buffer; events it has
+     * not requested in time are dropped for it alone, so a slow subscriber never slows down
+     * the flush path beyond its own buffer. Events arrive on the completing thread.
+     *
+     * <pre>{@code
+     * ReactiveAnalytic.events()
+     *     .publishOn(Schedulers.single())
+     *     .filter(event -> event.getError() != null)
+     *     .subscribe(event -> breaker.recordFailure(event.getTransaction().getTransactionName()));
+     * }</pre>
+     *
+     * @see AnalyticEventStream
+     */
+    public static Flux<AnalyticEvent> events() {
+        return AnalyticEventStream.events();
+    }
+
+    /**
+     * Same as {@link #events()} with a buffer of {@code bufferSize} events per subscriber and
+     * a callback for every event dropped for that subscriber.
+     */
+    public static Flux<AnalyticEvent> events(int bufferSize, Consumer<? super AnalyticEvent> onDropped) {
+        return AnalyticEventStream.events(bufferSize, onDropped);
+    }
+
+    /**
+     * Returns the current TransactionData from the given context view, or null.
+     */
+    public static TransactionData currentTransaction(reactor.util.context.ContextView ctx) {
+        TransactionStack stack = ctx.getOrDefault(
+                AnalyticContextKeys.TRANSACTION_STACK_KEY, null);
+        if (stack == null || stack.isEmpty()) return null;
+        return stack.peek();
+    }
 }
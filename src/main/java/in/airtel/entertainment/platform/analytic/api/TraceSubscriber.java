@@ -0,0 +1,388 @@
+package in.airtel.entertainment.platform.analytic.api;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticContextKeys;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
+import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Subscriber behind {@link MonoTrace}, {@link FluxTrace} and the rails of
+ * {@link ParallelFluxTrace}. It exposes the context with the transaction pushed to everything
+ * upstream, passes {@code onNext} straight through, and flushes the transaction exactly once
+ * on the first of complete, error or cancel.
+ *
+ * <p>A cancelled transaction is flushed with {@code cancelled=true}, except a Mono that
+ * already emitted its value: consumers such as {@code Mono.toFuture()} cancel after the
+ * value, which is a success.
+ *
+ * <p>Each transaction records where its time went, in fractional milliseconds measured with
+ * {@link System#nanoTime()}: {@code assemblyToSubscribe} (from creating the operator to
+ * subscribing, i.e. scheduling delay; only for the operator's first subscription, since a
+ * retry, repeat or reused publisher would measure the operator's age), {@code subscribeToFirstSignal} (waiting for the
+ * source) and {@code firstSignalToTerminal}. The first signal is the first value, or the
+ * terminal signal of an empty sequence.
+ *
+ * <p>A traced Flux also records how it streamed: {@code elementCount}, and in milliseconds
+ * {@code timeToFirstElement} (from subscription) and {@code maxElementGap} (longest wait
+ * between two elements).
+ *
+ * <p>All of these are kept in primitive fields and written into the transaction once, when
+ * it is flushed.
+ */
+class TraceSubscriber<T> implements CoreSubscriber<T>, Subscription, Scannable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveAnalytic.class);
+
+    static final String CANCELLED = "cancelled";
+    static final String ELEMENT_COUNT = "elementCount";
+    static final String TIME_TO_FIRST_ELEMENT = "timeToFirstElement";
+    static final String MAX_ELEMENT_GAP = "maxElementGap";
+    static final String ASSEMBLY_TO_SUBSCRIBE = "assemblyToSubscribe";
+    static final String SUBSCRIBE_TO_FIRST_SIGNAL = "subscribeToFirstSignal";
+    static final String FIRST_SIGNAL_TO_TERMINAL = "firstSignalToTerminal";
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<TraceSubscriber> FLUSHED =
+            AtomicIntegerFieldUpdater.newUpdater(TraceSubscriber.class, "flushed");
+
+    final CoreSubscriber<? super T> actual;
+    private final Context context;
+    /** Stack with this subscription's transaction on top, or the unsampled marker. */
+    private final TransactionStack stack;
+    private final boolean mono;
+    /** Whether this subscriber records timings; false when unsampled or flushed elsewhere. */
+    final boolean timed;
+
+    // System.nanoTime() based; assembledAt is 0 when unknown
+    private final long assembledAt;
+    private final long subscribedAt;
+    private long firstSignalAt;
+    private long lastElementAt;
+    private long maxElementGap;
+    private long elements;
+
+    /** Set when not sampled but counted in {@link TransactionStats}. */
+    String unsampledName;
+    long unsampledStart;
+
+    Subscription s;
+    boolean done;
+    boolean valued;
+    volatile boolean cancelled;
+    private volatile int flushed;
+
+    TraceSubscriber(CoreSubscriber<? super T> actual, Context context, TransactionStack stack, boolean mono,
+                    long assembledAt) {
+        this(actual, context, stack, mono, assembledAt, !stack.isUnsampled());
+    }
+
+    TraceSubscriber(CoreSubscriber<? super T> actual, Context context, TransactionStack stack, boolean mono,
+                    long assembledAt, boolean timed) {
+        this.actual = actual;
+        this.context = context;
+        this.stack = stack;
+        this.mono = mono;
+        this.timed = timed;
+        this.assembledAt = assembledAt;
+        this.subscribedAt = timed ? stack.peek().getStartNanos() : 0L;
+    }
+
+    /**
+     * Returns the subscriber to hand to the source, or {@code actual} itself when an enclosing
+     * transaction was not sampled: then there is nothing to push or flush.
+     */
+    static <T> CoreSubscriber<? super T> subscribe(CoreSubscriber<? super T> actual, String transactionName,
+                                                   SamplingRule samplingRule, boolean fuseable, boolean mono,
+                                                   long assembledAt) {
+        Context ctx = actual.currentContext();
+        TransactionStack stack = open(ctx, transactionName, samplingRule);
+        if (stack == null) {
+            return actual;
+        }
+        ctx = ctx.put(AnalyticContextKeys.TRANSACTION_STACK_KEY, stack);
+        TraceSubscriber<T> subscriber = fuseable
+                ? new FuseableTraceSubscriber<>(actual, ctx, stack, mono, assembledAt)
+                : new TraceSubscriber<>(actual, ctx, stack, mono, assembledAt);
+        if (stack.isUnsampled() && TransactionStats.isEnabled()) {
+            subscriber.unsampledName = transactionName;
+            subscriber.unsampledStart = System.nanoTime();
+        }
+        return subscriber;
+    }
+
+    /**
+     * Makes the sampling decision and returns the stack to expose upstream: the enclosing
+     * stack with a new transaction pushed, {@link TransactionStack#unsampled()}, or null when
+     * an enclosing transaction was not sampled and the context is left as is. The transaction
+     * is counted in {@link TransactionStats} before the decision, so unless null is returned
+     * the caller must complete it there too, through {@link #dispatch} or, when unsampled,
+     * {@link TransactionStats#completed(String, long, boolean)}.
+     */
+    static TransactionStack open(ContextView ctx, String transactionName, SamplingRule samplingRule) {
+        TransactionStack stack = ctx.getOrDefault(
+                AnalyticContextKeys.TRANSACTION_STACK_KEY, TransactionStack.empty());
+        if (stack.isUnsampled()) {
+            return null;
+        }
+        TransactionStats.started(transactionName);
+        if (!TransactionSampler.isSampled(transactionName, samplingRule)) {
+            return TransactionStack.unsampled();
+        }
+        return stack.push(new TransactionData(transactionName));
+    }
+
+    @Override
+    public Context currentContext() {
+        return context;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (Operators.validate(this.s, s)) {
+            this.s = s;
+            actual.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (done) {
+            Operators.onNextDropped(t, context);
+            return;
+        }
+        // null is the availability signal of async fusion, not a value
+        if (t != null) {
+            if (timed) {
+                countElement();
+            }
+            valued = true;
+        }
+        actual.onNext(t);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            Operators.onErrorDropped(t, context);
+            return;
+        }
+        done = true;
+        flush(t, false);
+        actual.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        flush(null, false);
+        actual.onComplete();
+    }
+
+    @Override
+    public void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        s.cancel();
+        flush(null, !(mono && valued));
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        if (key == Attr.PARENT) return s;
+        if (key == Attr.ACTUAL) return actual;
+        if (key == Attr.TERMINATED) return done;
+        if (key == Attr.CANCELLED) return cancelled;
+        if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+        return null;
+    }
+
+    /**
+     * Counts a value. Values are signalled serially, so plain fields suffice.
+     */
+    final void countElement() {
+        long now = System.nanoTime();
+        if (elements++ == 0) {
+            firstSignalAt = now;
+        } else if (now - lastElementAt > maxElementGap) {
+            maxElementGap = now - lastElementAt;
+        }
+        lastElementAt = now;
+    }
+
+    void flush(Throwable error, boolean cancelled) {
+        if (stack.isUnsampled()) {
+            if (unsampledName != null && FLUSHED.compareAndSet(this, 0, 1)) {
+                TransactionStats.completed(unsampledName, unsampledStart, error != null);
+            }
+        } else if (FLUSHED.compareAndSet(this, 0, 1)) {
+            dispatch(stack, error, cancelled, timed ? this : null);
+        }
+    }
+
+    private void writeTimings(TransactionData current, long terminalAt) {
+        long firstSignal = elements > 0 ? firstSignalAt : terminalAt;
+        if (assembledAt != 0L) {
+            current.putDouble(ASSEMBLY_TO_SUBSCRIBE, millis(subscribedAt - assembledAt));
+        }
+        current.putDouble(SUBSCRIBE_TO_FIRST_SIGNAL, millis(firstSignal - subscribedAt));
+        current.putDouble(FIRST_SIGNAL_TO_TERMINAL, millis(terminalAt - firstSignal));
+        if (mono) {
+            return;
+        }
+        current.putLong(ELEMENT_COUNT, elements);
+        if (elements > 0) {
+            current.putDouble(TIME_TO_FIRST_ELEMENT, millis(firstSignalAt - subscribedAt));
+        }
+        if (elements > 1) {
+            current.putDouble(MAX_ELEMENT_GAP, millis(maxElementGap));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static void dispatch(TransactionStack stack, Throwable error, boolean cancelled) {
+        dispatch(stack, error, cancelled, null);
+    }
+
+    /**
+     * Closes the transaction on top of {@code stack}, merges its spans, records it as a span
+     * of its parent and dispatches it, with the timings recorded by {@code timed} if not
+     * null. Callers make sure this runs once per transaction.
+     */
+    static void dispatch(TransactionStack stack, Throwable error, boolean cancelled, TraceSubscriber<?> timed) {
+        try {
+            TransactionData current = stack.peek();
+            AnalyticEvent event = current.toEvent(error);
+
+            // Merge before the parent records the span, so the span covers the subtree
+            current.mergeSpans();
+            TransactionData parent = stack.getParent();
+            if (parent != null) {
+                parent.addSpan(event);
+            }
+            // Not part of the span: cancellation and timings describe this transaction only
+            if (cancelled) {
+                current.put(CANCELLED, true);
+            }
+            if (timed != null) {
+                timed.writeTimings(current, event.getEndNanos());
+            }
+
+            AnalyticDispatcher.dispatch(event);
+        } catch (Exception e) {
+            LOG.warn("Analytic flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Passes synchronous fusion through to the source. There are no
+     * {@code onComplete}/{@code onError} calls then, so the transaction is flushed when
+     * {@link #poll()} or {@link #isEmpty()} reports the end of the sequence, or {@code poll()}
+     * throws; consumers such as {@code publishOn} may finish on {@code isEmpty()} without a
+     * last {@code poll()}.
+     *
+     * <p>Asynchronous fusion is refused: values would be polled on the consumer thread while
+     * {@code onComplete} flushes on the producer thread, before they are counted.
+     */
+    static final class FuseableTraceSubscriber<T> extends TraceSubscriber<T> implements Fuseable.QueueSubscription<T> {
+
+        private Fuseable.QueueSubscription<T> qs;
+        private int sourceMode;
+
+        FuseableTraceSubscriber(CoreSubscriber<? super T> actual, Context context, TransactionStack stack,
+                                boolean mono, long assembledAt) {
+            super(actual, context, stack, mono, assembledAt);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                if (s instanceof Fuseable.QueueSubscription) {
+                    this.qs = (Fuseable.QueueSubscription<T>) s;
+                }
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            if (qs == null) {
+                return Fuseable.NONE;
+            }
+            if ((requestedMode & Fuseable.SYNC) == 0) {
+                return Fuseable.NONE;
+            }
+            sourceMode = qs.requestFusion(requestedMode & ~Fuseable.ASYNC);
+            return sourceMode;
+        }
+
+        @Override
+        public T poll() {
+            T value;
+            try {
+                value = qs.poll();
+            } catch (Throwable e) {
+                done = true;
+                flush(e, false);
+                throw e;
+            }
+            if (value != null) {
+                if (timed) {
+                    countElement();
+                }
+                valued = true;
+            } else if (sourceMode == Fuseable.SYNC) {
+                done = true;
+                flush(null, false);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            boolean empty = qs.isEmpty();
+            if (empty && sourceMode == Fuseable.SYNC) {
+                // In sync mode an empty queue is the end of the sequence
+                done = true;
+                flush(null, false);
+            }
+            return empty;
+        }
+
+        @Override
+        public void clear() {
+            qs.clear();
+        }
+
+        @Override
+        public int size() {
+            return qs.size();
+        }
+    }
+}
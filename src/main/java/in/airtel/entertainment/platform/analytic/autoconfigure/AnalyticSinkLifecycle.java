@@ -0,0 +1,62 @@
+package in.airtel.entertainment.platform.analytic.autoconfigure;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.AsyncAnalyticSink;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Installs the configured {@link AnalyticSink} on {@link AnalyticDispatcher} when the
+ * context starts, and on shutdown uninstalls it and closes it, which drains an
+ * {@link AsyncAnalyticSink}. Runs in a late phase so it starts before and stops after the
+ * web server.
+ */
+public class AnalyticSinkLifecycle implements SmartLifecycle {
+
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final AnalyticSink sink;
+    private volatile boolean running;
+
+    public AnalyticSinkLifecycle(AnalyticSink sink) {
+        this.sink = sink;
+    }
+
+    public AnalyticSink getSink() {
+        return sink;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (sink instanceof AsyncAnalyticSink async) {
+            async.start();
+        }
+        AnalyticDispatcher.setSink(sink);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (AnalyticDispatcher.getSink() == sink) {
+            AnalyticDispatcher.setSink(null);
+        }
+        sink.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,93 @@
+package in.airtel.entertainment.platform.analytic.autoconfigure;
+
+import in.airtel.entertainment.platform.analytic.core.AggregationMode;
+import in.airtel.entertainment.platform.analytic.core.TransactionAggregator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregate mode under {@code reactive.analytic.aggregate.*}.
+ *
+ * <p>When enabled, the modes are published to {@link TransactionAggregator} every time this
+ * bean is bound, like the sampling rules; the reporting interval applies from startup.
+ *
+ * <pre>
+ * reactive.analytic.aggregate.enabled=true
+ * reactive.analytic.aggregate.interval=10s
+ * reactive.analytic.aggregate.modes.getRecommendation=aggregate
+ * reactive.analytic.aggregate.modes.getUserProfile=both
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "reactive.analytic.aggregate")
+public class ReactiveAnalyticAggregateProperties implements InitializingBean {
+
+    private boolean enabled = false;
+
+    /** How often one summary record per transaction name is logged. */
+    private Duration interval = Duration.ofSeconds(10);
+
+    /** Mode of transaction names without an entry in {@link #modes}. */
+    private AggregationMode defaultMode = AggregationMode.EVENTS;
+
+    /** Most transaction names with a histogram; further names are written as events. */
+    private int maxNames = 1000;
+
+    /**
+     * Per transaction name; names containing dots need bracket notation, e.g.
+     * {@code modes[GET /api/v1]}.
+     */
+    private Map<String, AggregationMode> modes = new LinkedHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            TransactionAggregator.configure(defaultMode, modes, maxNames);
+        } else {
+            TransactionAggregator.reset();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public AggregationMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    public void setDefaultMode(AggregationMode defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    public int getMaxNames() {
+        return maxNames;
+    }
+
+    public void setMaxNames(int maxNames) {
+        this.maxNames = maxNames;
+    }
+
+    public Map<String, AggregationMode> getModes() {
+        return modes;
+    }
+
+    public void setModes(Map<String, AggregationMode> modes) {
+        this.modes = modes;
+    }
+}
@@ -1,16 +1,38 @@
 package in.airtel.entertainment.platform.analytic.autoconfigure;
 
 import in.airtel.entertainment.platform.analytic.aop.AnalyseTransactionAspect;
+import in.airtel.entertainment.platform.analytic.core.AggregateReporter;
+import in.airtel.entertainment.platform.analytic.core.CachedClock;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.endpoint.AnalyticStatsEndpoint;
 import in.airtel.entertainment.platform.analytic.filter.AnalyticWebFilter;
+import in.airtel.entertainment.platform.analytic.filter.PathNormalizer;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.AsyncAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.BinaryFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.CompressedFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.LogbackAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.MappedFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.NetworkAnalyticSink;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Paths;
+
 @AutoConfiguration
 @ConditionalOnClass(Mono.class)
+@EnableConfigurationProperties({ReactiveAnalyticProperties.class, ReactiveAnalyticSamplingProperties.class,
+        ReactiveAnalyticAggregateProperties.class})
 public class ReactiveAnalyticAutoConfiguration {
 
     @Bean
@@ -21,7 +43,101 @@ public class ReactiveAnalyticAutoConfiguration {
     @Bean
     @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
     @ConditionalOnProperty(name = "reactive.analytic.webfilter.enabled", havingValue = "true")
-    public AnalyticWebFilter analyticWebFilter() {
-        return new AnalyticWebFilter();
+    public AnalyticWebFilter analyticWebFilter(ReactiveAnalyticProperties properties,
+                                               ObjectProvider<PathNormalizer> pathNormalizer) {
+        ReactiveAnalyticProperties.WebFilter webfilter = properties.getWebfilter();
+        PathNormalizer normalizer = pathNormalizer.getIfAvailable(
+                () -> webfilter.isNormalizePaths() ? PathNormalizer.IDS : PathNormalizer.NONE);
+        return new AnalyticWebFilter(normalizer, webfilter.getMaxNames(), webfilter.getOverflowName());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(name = "reactive.analytic.stats.enabled", havingValue = "true")
+    public AnalyticStatsEndpoint analyticStatsEndpoint(ReactiveAnalyticProperties properties) {
+        ReactiveAnalyticProperties.Stats stats = properties.getStats();
+        return new AnalyticStatsEndpoint(stats.getWindow(), stats.getSlots(), stats.getMaxNames());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(name = "reactive.analytic.stats.enabled", havingValue = "true")
+    public RouterFunction<ServerResponse> analyticStatsRoutes(AnalyticStatsEndpoint analyticStatsEndpoint,
+                                                              ReactiveAnalyticProperties properties) {
+        return analyticStatsEndpoint.routes(properties.getStats().getPath());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "reactive.analytic.clock.type", havingValue = "cached")
+    public CachedClock analyticCachedClock(ReactiveAnalyticProperties properties) {
+        CachedClock clock = new CachedClock(properties.getClock().getResolution());
+        TransactionData.setClock(clock);
+        return clock;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "reactive.analytic.aggregate.enabled", havingValue = "true")
+    public AggregateReporter analyticAggregateReporter(ReactiveAnalyticAggregateProperties properties) {
+        return new AggregateReporter(properties.getInterval());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AnalyticSink analyticSink(ReactiveAnalyticProperties properties) {
+        ReactiveAnalyticProperties.Sink sink = properties.getSink();
+        if (sink.getType() == ReactiveAnalyticProperties.SinkType.MAPPED_FILE) {
+            ReactiveAnalyticProperties.MappedFile mappedFile = sink.getMappedFile();
+            return new MappedFileAnalyticSink(Paths.get(mappedFile.getDirectory()), mappedFile.getPrefix(),
+                    mappedFile.getSegmentSize().toBytes(), mappedFile.getRollInterval());
+        }
+        if (sink.getType() == ReactiveAnalyticProperties.SinkType.BINARY_FILE) {
+            ReactiveAnalyticProperties.BinaryFile binaryFile = sink.getBinaryFile();
+            return new BinaryFileAnalyticSink(Paths.get(binaryFile.getDirectory()), binaryFile.getPrefix(),
+                    binaryFile.getMaxFileSize().toBytes(), binaryFile.getRollInterval());
+        }
+        if (sink.getType() == ReactiveAnalyticProperties.SinkType.COMPRESSED_FILE) {
+            ReactiveAnalyticProperties.CompressedFile compressedFile = sink.getCompressedFile();
+            return new CompressedFileAnalyticSink(Paths.get(compressedFile.getDirectory()),
+                    compressedFile.getPrefix(), Math.toIntExact(compressedFile.getBlockSize().toBytes()),
+                    compressedFile.getCompressionLevel(), compressedFile.getMaxFileSize().toBytes(),
+                    compressedFile.getRollInterval(), compressedFile.getFlushInterval());
+        }
+        if (sink.getType() == ReactiveAnalyticProperties.SinkType.NETWORK) {
+            throw new IllegalStateException("reactive.analytic.sink.type=network requires reactor-netty-core");
+        }
+        return new LogbackAnalyticSink();
+    }
+
+    @Bean
+    public AnalyticSinkLifecycle analyticSinkLifecycle(AnalyticSink analyticSink,
+                                                       ReactiveAnalyticProperties properties) {
+        ReactiveAnalyticProperties.Async async = properties.getAsync();
+        if (!async.isEnabled()) {
+            return new AnalyticSinkLifecycle(analyticSink);
+        }
+        return new AnalyticSinkLifecycle(new AsyncAnalyticSink(analyticSink, async.getCapacity(),
+                async.getBatchSize(), async.getOverflowPolicy(), async.getBlockTimeout(),
+                async.getShutdownTimeout()));
+    }
+
+    /**
+     * Separate so that Reactor Netty is only loaded when present; registered before
+     * {@code analyticSink}, which then backs off.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "reactor.netty.tcp.TcpClient")
+    @ConditionalOnProperty(name = "reactive.analytic.sink.type", havingValue = "network")
+    static class NetworkSinkConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AnalyticSink analyticNetworkSink(ReactiveAnalyticProperties properties) {
+            ReactiveAnalyticProperties.Network network = properties.getSink().getNetwork();
+            return new NetworkAnalyticSink(network.getProtocol(), network.getHost(), network.getPort(),
+                    network.getCapacity(), network.getBatchSize(), network.getFlushInterval(),
+                    network.getTimeout(), network.getMinBackoff(), network.getMaxBackoff(),
+                    network.getSpillFile() != null ? Paths.get(network.getSpillFile()) : null,
+                    network.getMaxSpillSize().toBytes());
+        }
     }
 }
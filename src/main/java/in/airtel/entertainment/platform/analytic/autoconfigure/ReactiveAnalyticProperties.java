@@ -0,0 +1,639 @@
+package in.airtel.entertainment.platform.analytic.autoconfigure;
+
+import in.airtel.entertainment.platform.analytic.core.SpanMode;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.sink.NetworkProtocol;
+import in.airtel.entertainment.platform.analytic.sink.OverflowPolicy;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration under {@code reactive.analytic.*}. The span mode is published to
+ * {@link TransactionData} every time this bean is bound.
+ */
+@ConfigurationProperties(prefix = "reactive.analytic")
+public class ReactiveAnalyticProperties implements InitializingBean {
+
+    private final Clock clock = new Clock();
+
+    private final Sink sink = new Sink();
+
+    private final Async async = new Async();
+
+    private final Stats stats = new Stats();
+
+    private final Spans spans = new Spans();
+
+    private final WebFilter webfilter = new WebFilter();
+
+    @Override
+    public void afterPropertiesSet() {
+        TransactionData.setSpanMode(spans.getMode());
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public Spans getSpans() {
+        return spans;
+    }
+
+    public WebFilter getWebfilter() {
+        return webfilter;
+    }
+
+    public static class Clock {
+
+        /**
+         * {@code system} reads the OS clock for every start/end time; {@code cached} reads a
+         * timestamp refreshed every {@link #resolution} by a background thread.
+         */
+        private ClockType type = ClockType.SYSTEM;
+
+        private Duration resolution = Duration.ofMillis(1);
+
+        public ClockType getType() {
+            return type;
+        }
+
+        public void setType(ClockType type) {
+            this.type = type;
+        }
+
+        public Duration getResolution() {
+            return resolution;
+        }
+
+        public void setResolution(Duration resolution) {
+            this.resolution = resolution;
+        }
+    }
+
+    public static class Sink {
+
+        /**
+         * {@code logback} logs through {@code analyticLogger}; {@code mapped-file} appends
+         * newline-delimited JSON to memory-mapped segments; {@code binary-file} appends the
+         * compact binary format; {@code compressed-file} appends deflated blocks of
+         * newline-delimited JSON; {@code network} ships newline-delimited JSON over TCP or
+         * UDP. Ignored when the application declares its own
+         * {@code AnalyticSink} bean.
+         */
+        private SinkType type = SinkType.LOGBACK;
+
+        private final MappedFile mappedFile = new MappedFile();
+
+        private final BinaryFile binaryFile = new BinaryFile();
+
+        private final CompressedFile compressedFile = new CompressedFile();
+
+        private final Network network = new Network();
+
+        public SinkType getType() {
+            return type;
+        }
+
+        public void setType(SinkType type) {
+            this.type = type;
+        }
+
+        public MappedFile getMappedFile() {
+            return mappedFile;
+        }
+
+        public BinaryFile getBinaryFile() {
+            return binaryFile;
+        }
+
+        public CompressedFile getCompressedFile() {
+            return compressedFile;
+        }
+
+        public Network getNetwork() {
+            return network;
+        }
+    }
+
+    public static class BinaryFile {
+
+        private String directory = "logs/analytic";
+
+        private String prefix = "analytic";
+
+        /** A file rolls once it has reached this size. */
+        private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+        /** Maximum age of a file before the next record starts a new one. */
+        private Duration rollInterval = Duration.ofHours(1);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public Duration getRollInterval() {
+            return rollInterval;
+        }
+
+        public void setRollInterval(Duration rollInterval) {
+            this.rollInterval = rollInterval;
+        }
+    }
+
+    public static class CompressedFile {
+
+        private String directory = "logs/analytic";
+
+        private String prefix = "analytic";
+
+        /**
+         * Uncompressed size at which a block is compressed and written. Larger blocks
+         * compress better but hold more records in memory and are written later.
+         */
+        private DataSize blockSize = DataSize.ofKilobytes(256);
+
+        /** Deflate level from 0 (store) to 9 (smallest, slowest); -1 for the JDK default. */
+        private int compressionLevel = 6;
+
+        /** Maximum age of a block that is not full before it is written anyway. */
+        private Duration flushInterval = Duration.ofSeconds(5);
+
+        /** A file rolls when the next block would take it past this size. */
+        private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+        /** Maximum age of a file before the next block starts a new one. */
+        private Duration rollInterval = Duration.ofHours(1);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public DataSize getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(DataSize blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        public int getCompressionLevel() {
+            return compressionLevel;
+        }
+
+        public void setCompressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public Duration getRollInterval() {
+            return rollInterval;
+        }
+
+        public void setRollInterval(Duration rollInterval) {
+            this.rollInterval = rollInterval;
+        }
+    }
+
+    public static class Network {
+
+        private NetworkProtocol protocol = NetworkProtocol.TCP;
+
+        private String host = "localhost";
+
+        private int port = 5000;
+
+        /** Records buffered in memory, rounded up to a power of two; more are dropped. */
+        private int capacity = 8192;
+
+        /** Records sent per write. */
+        private int batchSize = 512;
+
+        /** Maximum time a record waits in the buffer while connected. */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /** Connect and send timeout. */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /** First reconnect delay, doubled after each failed attempt up to the maximum. */
+        private Duration minBackoff = Duration.ofMillis(500);
+
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        /**
+         * File that takes records while the endpoint is down, sent once it is back. Unset
+         * keeps them in memory only.
+         */
+        private String spillFile;
+
+        /** Records that do not fit in the spill file are dropped. */
+        private DataSize maxSpillSize = DataSize.ofMegabytes(256);
+
+        public NetworkProtocol getProtocol() {
+            return protocol;
+        }
+
+        public void setProtocol(NetworkProtocol protocol) {
+            this.protocol = protocol;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getMinBackoff() {
+            return minBackoff;
+        }
+
+        public void setMinBackoff(Duration minBackoff) {
+            this.minBackoff = minBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public String getSpillFile() {
+            return spillFile;
+        }
+
+        public void setSpillFile(String spillFile) {
+            this.spillFile = spillFile;
+        }
+
+        public DataSize getMaxSpillSize() {
+            return maxSpillSize;
+        }
+
+        public void setMaxSpillSize(DataSize maxSpillSize) {
+            this.maxSpillSize = maxSpillSize;
+        }
+    }
+
+    public static class MappedFile {
+
+        private String directory = "logs/analytic";
+
+        private String prefix = "analytic";
+
+        /** Preallocated size of each segment; a segment rolls when the next record does not fit. */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /** Maximum age of a segment before the next record starts a new one. */
+        private Duration rollInterval = Duration.ofHours(1);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public Duration getRollInterval() {
+            return rollInterval;
+        }
+
+        public void setRollInterval(Duration rollInterval) {
+            this.rollInterval = rollInterval;
+        }
+    }
+
+    public static class Async {
+
+        /**
+         * Hand completed transactions to a background drainer thread instead of writing
+         * them on the flushing (event-loop) thread.
+         */
+        private boolean enabled = false;
+
+        /** Ring buffer size, rounded up to a power of two. */
+        private int capacity = 8192;
+
+        private int batchSize = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+        /** How long {@code block} waits for room before dropping the record. */
+        private Duration blockTimeout = Duration.ofMillis(5);
+
+        /** How long shutdown waits for the buffer to drain. */
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Duration getBlockTimeout() {
+            return blockTimeout;
+        }
+
+        public void setBlockTimeout(Duration blockTimeout) {
+            this.blockTimeout = blockTimeout;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    public static class Stats {
+
+        /**
+         * Collect live per-name statistics and serve them at {@link #path}. Requires a
+         * reactive web application.
+         */
+        private boolean enabled = false;
+
+        private String path = "/analytic/stats";
+
+        /** Length of the rolling window the statistics cover. */
+        private Duration window = Duration.ofMinutes(1);
+
+        /** Number of slots the window advances by; more slots roll more smoothly. */
+        private int slots = 6;
+
+        /** Most transaction names tracked; further names are not shown. */
+        private int maxNames = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getSlots() {
+            return slots;
+        }
+
+        public void setSlots(int slots) {
+            this.slots = slots;
+        }
+
+        public int getMaxNames() {
+            return maxNames;
+        }
+
+        public void setMaxNames(int maxNames) {
+            this.maxNames = maxNames;
+        }
+    }
+
+    public static class Spans {
+
+        /**
+         * How nested transactions appear in their parents' records: merged into the root
+         * ({@code flatten}) or as a {@code spans} array ({@code nested}).
+         */
+        private SpanMode mode = SpanMode.FLATTEN;
+
+        public SpanMode getMode() {
+            return mode;
+        }
+
+        public void setMode(SpanMode mode) {
+            this.mode = mode;
+        }
+    }
+
+    public static class WebFilter {
+
+        /**
+         * Record every request as a root transaction named after its method and route.
+         * Requires a reactive web application.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Replace identifier-like path segments with {@code {id}} in the names of requests
+         * no route pattern is known for, and in the name sampling rules are matched against.
+         * A {@code PathNormalizer} bean takes precedence.
+         */
+        private boolean normalizePaths = true;
+
+        /** Most distinct transaction names; further requests are named {@link #overflowName}. */
+        private int maxNames = 1000;
+
+        private String overflowName = "other";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isNormalizePaths() {
+            return normalizePaths;
+        }
+
+        public void setNormalizePaths(boolean normalizePaths) {
+            this.normalizePaths = normalizePaths;
+        }
+
+        public int getMaxNames() {
+            return maxNames;
+        }
+
+        public void setMaxNames(int maxNames) {
+            this.maxNames = maxNames;
+        }
+
+        public String getOverflowName() {
+            return overflowName;
+        }
+
+        public void setOverflowName(String overflowName) {
+            this.overflowName = overflowName;
+        }
+    }
+
+    public enum ClockType {
+        SYSTEM,
+        CACHED
+    }
+
+    public enum SinkType {
+        LOGBACK,
+        MAPPED_FILE,
+        BINARY_FILE,
+        COMPRESSED_FILE,
+        NETWORK
+    }
+}
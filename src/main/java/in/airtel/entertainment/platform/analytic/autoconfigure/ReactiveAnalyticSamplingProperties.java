@@ -0,0 +1,91 @@
+package in.airtel.entertainment.platform.analytic.autoconfigure;
+
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Head-sampling configuration under {@code reactive.analytic.sampling.*}.
+ *
+ * <p>The rules are published to {@link TransactionSampler} every time this bean is bound.
+ * Rebinding it at runtime, for example by Spring Cloud's configuration-properties rebinder
+ * on a refresh, applies new rates without a restart.
+ *
+ * <pre>
+ * reactive.analytic.sampling.default-rate=1.0
+ * reactive.analytic.sampling.rules.getRecommendation.rate=0.05
+ * reactive.analytic.sampling.rules.getRecommendation.max-per-second=200
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "reactive.analytic.sampling")
+public class ReactiveAnalyticSamplingProperties implements InitializingBean {
+
+    private double defaultRate = 1.0;
+
+    private long defaultMaxPerSecond = SamplingRule.UNLIMITED;
+
+    /**
+     * Per transaction name; names containing dots need bracket notation, e.g.
+     * {@code rules[GET /api/v1].rate}.
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<String, SamplingRule> byName = new HashMap<>();
+        rules.forEach((name, rule) -> byName.put(name, SamplingRule.of(rule.getRate(), rule.getMaxPerSecond())));
+        TransactionSampler.configure(SamplingRule.of(defaultRate, defaultMaxPerSecond), byName);
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public long getDefaultMaxPerSecond() {
+        return defaultMaxPerSecond;
+    }
+
+    public void setDefaultMaxPerSecond(long defaultMaxPerSecond) {
+        this.defaultMaxPerSecond = defaultMaxPerSecond;
+    }
+
+    public Map<String, Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(Map<String, Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+
+        private double rate = 1.0;
+
+        private long maxPerSecond = SamplingRule.UNLIMITED;
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public long getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(long maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+    }
+}
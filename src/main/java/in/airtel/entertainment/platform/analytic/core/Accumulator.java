@@ -0,0 +1,74 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A numeric attribute built up element by element, e.g. an item count or a byte total.
+ * Updates go to striped cells ({@link LongAdder}, {@link LongAccumulator}), so concurrent
+ * inner publishers do not contend; the total is written into the transaction once, as a
+ * plain number, when it is closed.
+ *
+ * <p>Obtained with {@link TransactionData#accumulator(String, Kind)}.
+ */
+public final class Accumulator {
+
+    public enum Kind {
+        COUNT,
+        SUM,
+        MAX
+    }
+
+    private final String key;
+    private final Kind kind;
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    Accumulator(String key, Kind kind) {
+        this.key = key;
+        this.kind = kind;
+        this.total = kind == Kind.MAX ? null : new LongAdder();
+        this.max = kind == Kind.MAX ? new LongAccumulator(Math::max, Long.MIN_VALUE) : null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Counts one, or adds one to a sum.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Adds {@code value} to a count or sum, or offers it as the maximum.
+     */
+    public void add(long value) {
+        if (max != null) {
+            max.accumulate(value);
+        } else {
+            total.add(value);
+        }
+    }
+
+    /**
+     * Writes the current value into {@code transaction}. A maximum that saw no value is not
+     * written.
+     */
+    void writeTo(TransactionData transaction) {
+        if (max == null) {
+            transaction.putLong(key, total.sum());
+            return;
+        }
+        long value = max.get();
+        if (value != Long.MIN_VALUE) {
+            transaction.putLong(key, value);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * Latency summary of one transaction name over one reporting interval, logged through the
+ * analytic logger in place of (or next to) the individual transactions.
+ */
+public final class AggregateRecord implements JsonWritable {
+
+    private final String transactionName;
+    private final long startTime;
+    private final long endTime;
+    private final LatencyHistogram.Snapshot snapshot;
+
+    public AggregateRecord(String transactionName, long startTime, long endTime, LatencyHistogram.Snapshot snapshot) {
+        this.transactionName = transactionName;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.snapshot = snapshot;
+    }
+
+    public String getTransactionName() {
+        return transactionName;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public LatencyHistogram.Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void writeJson(JsonWriter writer) {
+        writer.beginObject();
+        writer.writeKey("transactionName").writeString(transactionName);
+        writer.comma().writeKey("recordType").writeString("aggregate");
+        writer.comma().writeKey("startTime");
+        TimestampFormatter.TRANSACTION.writeQuoted(writer, startTime);
+        writer.comma().writeKey("endTime");
+        TimestampFormatter.TRANSACTION.writeQuoted(writer, endTime);
+        writer.comma().writeKey("count").writeLong(snapshot.getCount());
+        writer.comma().writeKey("errorCount").writeLong(snapshot.getErrorCount());
+        writer.comma().writeKey("errorRate").writeDouble(snapshot.getErrorRate());
+        writer.comma().writeKey("mean").writeDouble(snapshot.getMean());
+        writer.comma().writeKey("p50").writeLong(snapshot.getValueAtPercentile(50));
+        writer.comma().writeKey("p99").writeLong(snapshot.getValueAtPercentile(99));
+        writer.comma().writeKey("p999").writeLong(snapshot.getValueAtPercentile(99.9));
+        writer.comma().writeKey("max").writeLong(snapshot.getMax());
+        writer.endObject();
+    }
+
+    @Override
+    public String toString() {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writeJson(writer);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Daemon thread that, every {@code interval}, drains the histograms of
+ * {@link TransactionAggregator} and logs one {@link AggregateRecord} per transaction name
+ * that completed at least once in the interval. Closing it reports the last partial
+ * interval.
+ */
+public final class AggregateReporter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AggregateReporter.class);
+
+    private final long intervalNanos;
+    private final Consumer<? super AggregateRecord> output;
+    private final Thread reporter;
+    private long intervalStart;
+    private volatile boolean running = true;
+
+    public AggregateReporter(Duration interval) {
+        this(interval, AnalyticJsonLogger::log);
+    }
+
+    AggregateReporter(Duration interval, Consumer<? super AggregateRecord> output) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.intervalNanos = interval.toNanos();
+        this.output = output;
+        this.intervalStart = TransactionData.getClock().currentTimeMillis();
+        this.reporter = new Thread(this::run, "analytic-aggregate-reporter");
+        this.reporter.setDaemon(true);
+        this.reporter.start();
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(reporter);
+        try {
+            reporter.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long deadline = System.nanoTime() + intervalNanos;
+        while (running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                continue;
+            }
+            deadline += intervalNanos;
+            report();
+        }
+        report();
+    }
+
+    synchronized void report() {
+        long intervalEnd = TransactionData.getClock().currentTimeMillis();
+        for (Map.Entry<String, LatencyHistogram> entry : TransactionAggregator.histograms().entrySet()) {
+            String name = entry.getKey();
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshotAndReset();
+            if (snapshot.getCount() > 0) {
+                try {
+                    output.accept(new AggregateRecord(name, intervalStart, intervalEnd, snapshot));
+                } catch (RuntimeException e) {
+                    LOG.warn("Analytic aggregate report failed for {}: {}", name, e.getMessage());
+                }
+            } else if (TransactionAggregator.getMode(name) == AggregationMode.EVENTS) {
+                // No longer aggregated after a reconfiguration
+                TransactionAggregator.histograms().remove(name, entry.getValue());
+            }
+        }
+        intervalStart = intervalEnd;
+    }
+}
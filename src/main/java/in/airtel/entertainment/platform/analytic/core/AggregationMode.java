@@ -0,0 +1,13 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * What happens to a completed transaction of a given name.
+ */
+public enum AggregationMode {
+    /** One event per transaction, written to the sink. */
+    EVENTS,
+    /** Latency recorded into a histogram reported once per interval; no event. */
+    AGGREGATE,
+    /** Both. */
+    BOTH
+}
@@ -0,0 +1,16 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * Wall-clock source for transaction start and end times. {@link #SYSTEM} reads
+ * {@code System.currentTimeMillis()} on every call; {@link CachedClock} trades precision
+ * for a plain volatile read.
+ *
+ * @see TransactionData#setClock(AnalyticClock)
+ */
+@FunctionalInterface
+public interface AnalyticClock {
+
+    AnalyticClock SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+}
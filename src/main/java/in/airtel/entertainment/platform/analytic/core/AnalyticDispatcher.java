@@ -0,0 +1,46 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import in.airtel.entertainment.platform.analytic.sink.AnalyticEventStream;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.LogbackAnalyticSink;
+
+/**
+ * Single exit point for completed transactions. {@code ReactiveAnalytic} and
+ * {@code AnalyticWebFilter} hand every {@link AnalyticEvent} to {@link #dispatch}, which
+ * writes it to the installed {@link AnalyticSink}. By default that is a
+ * {@link LogbackAnalyticSink}; auto-configuration installs the configured sink on startup.
+ */
+public final class AnalyticDispatcher {
+
+    private static final AnalyticSink DEFAULT_SINK = new LogbackAnalyticSink();
+
+    private static volatile AnalyticSink sink = DEFAULT_SINK;
+
+    private AnalyticDispatcher() {
+    }
+
+    /**
+     * Updates {@link TransactionStats}, offers the event to the subscribers of
+     * {@link AnalyticEventStream} and records its latency if its name is aggregated (see
+     * {@link TransactionAggregator}), then writes it to the sink unless it is aggregated only.
+     */
+    public static void dispatch(AnalyticEvent event) {
+        TransactionStats.completed(event);
+        AnalyticEventStream.publish(event);
+        if (TransactionAggregator.record(event)) {
+            sink.write(event);
+        }
+    }
+
+    /**
+     * Installs the sink for all subsequent events. {@code null} restores the Logback sink.
+     * The previous sink is not closed.
+     */
+    public static void setSink(AnalyticSink newSink) {
+        sink = newSink != null ? newSink : DEFAULT_SINK;
+    }
+
+    public static AnalyticSink getSink() {
+        return sink;
+    }
+}
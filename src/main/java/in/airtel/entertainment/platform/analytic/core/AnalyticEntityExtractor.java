@@ -0,0 +1,28 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.Map;
+
+/**
+ * Typed extractor for one entity class, generated at compile time by
+ * {@code reactive-analytic-processor}.
+ *
+ * <p>{@link EntityExtractor} looks up {@code <package>.<Outer_Inner>_AnalyticExtractor} for an
+ * entity class {@code <package>.Outer$Inner} in the entity's class loader and uses it instead
+ * of scanning the class with reflection. Implementations need a public no-arg constructor and
+ * must follow the same rules as the reflective extractor.
+ */
+public interface AnalyticEntityExtractor<T> {
+
+    String CLASS_NAME_SUFFIX = "_AnalyticExtractor";
+
+    /**
+     * Writes the entity's analysed members into {@code target}, storing numbers unboxed.
+     */
+    void extractInto(T entity, TransactionData target);
+
+    /**
+     * Puts the entity's non-null analysed members into {@code target}, boxing primitives as
+     * their own wrapper types.
+     */
+    void extract(T entity, Map<String, Object> target);
+}
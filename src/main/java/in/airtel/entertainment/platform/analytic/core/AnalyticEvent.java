@@ -0,0 +1,394 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-of-transaction record. Holds a reference to the finished {@link TransactionData}
+ * instead of copying it, and serializes straight into a {@link JsonWriter} with the same
+ * keys, order and values as {@link TransactionData#toEndMap(Throwable)}.
+ *
+ * <p>With {@link SpanMode#NESTED}, the record ends with a {@code spans} array describing the
+ * child transactions; see {@link TransactionData#addSpan(AnalyticEvent)}.
+ *
+ * <p>{@link #toString()} renders the JSON, so plain pattern layouts logging the
+ * {@code "{}"} message still see the transaction JSON.
+ */
+public final class AnalyticEvent implements JsonWritable {
+
+    private static final String TRANSACTION_NAME = "transactionName";
+    private static final String START_TIME = "startTime";
+    private static final String END_TIME = "endTime";
+    private static final String TIME_TAKEN = "timeTaken";
+    private static final String EXCEPTION_MESSAGE = "exceptionMessage";
+    private static final String EXCEPTION_CLASS = "exceptionClass";
+    private static final String SPANS = "spans";
+    private static final String OFFSET = "offset";
+
+    private final TransactionData transaction;
+    private final long endTime;
+    private final long endNanos;
+    private final Throwable error;
+
+    AnalyticEvent(TransactionData transaction, long endTime, long endNanos, Throwable error) {
+        this.transaction = transaction;
+        this.endTime = endTime;
+        this.endNanos = endNanos;
+        this.error = error;
+    }
+
+    public TransactionData getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * A record of the same transaction whose attributes are copied as they are now, for
+     * consumers that may read it after its transaction has moved on: this record sees
+     * later updates, such as an operator still writing to a finished transaction.
+     */
+    public AnalyticEvent snapshot() {
+        return new AnalyticEvent(transaction.snapshot(), endTime, endNanos, error);
+    }
+
+    public String getTransactionName() {
+        return transaction.getTransactionName();
+    }
+
+    public long getStartTime() {
+        return transaction.getStartTime();
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Duration in whole milliseconds, measured with {@link System#nanoTime()} rather than
+     * as the difference of the wall-clock start and end times.
+     */
+    public long getTimeTaken() {
+        return getTimeTakenNanos() / 1_000_000;
+    }
+
+    public long getTimeTakenNanos() {
+        return endNanos - transaction.getStartNanos();
+    }
+
+    /**
+     * {@link System#nanoTime()} when the transaction was closed.
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Materializes the record as the legacy end map.
+     */
+    public Map<String, Object> toMap() {
+        long startTime = transaction.getStartTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(TRANSACTION_NAME, transaction.getTransactionName());
+        result.put(START_TIME, TimestampFormatter.TRANSACTION.format(startTime));
+        result.put(END_TIME, TimestampFormatter.TRANSACTION.format(endTime));
+        result.put(TIME_TAKEN, getTimeTaken());
+        result.putAll(transaction.attributes().toMap());
+        if (error != null) {
+            result.put(EXCEPTION_MESSAGE, error.getMessage());
+            result.put(EXCEPTION_CLASS, error.getClass().getName());
+        }
+        List<Span> spans = nestedSpans(transaction);
+        if (!spans.isEmpty()) {
+            result.put(SPANS, spansToList(spans));
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> spansToList(List<Span> spans) {
+        List<Map<String, Object>> list = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            TransactionData child = span.getTransaction();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put(TRANSACTION_NAME, child.getTransactionName());
+            map.put(OFFSET, millis(span.getOffsetNanos()));
+            map.put(TIME_TAKEN, millis(span.getDurationNanos()));
+            child.attributes().toMap().forEach(map::putIfAbsent);
+            if (span.getError() != null) {
+                map.putIfAbsent(EXCEPTION_CLASS, span.getError().getClass().getName());
+            }
+            List<Span> grandchildren = child.getSpans();
+            if (!grandchildren.isEmpty()) {
+                map.put(SPANS, spansToList(grandchildren));
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    /**
+     * Writes the same JSON as {@code AnalyticJsonLogger.toJson(toMap())} without building
+     * the map. Attributes that shadow a fixed key keep the fixed key's position, exactly
+     * as {@code putAll} into the {@code LinkedHashMap} did.
+     */
+    @Override
+    public void writeJson(JsonWriter writer) {
+        AttributeStore data = transaction.attributes();
+        long startTime = transaction.getStartTime();
+        List<Span> spans = nestedSpans(transaction);
+
+        synchronized (data) {
+            writer.beginObject();
+            writer.writeKey(TRANSACTION_NAME);
+            int shadow = data.indexOf(TRANSACTION_NAME);
+            if (shadow >= 0) {
+                writeAttribute(writer, data, shadow);
+            } else {
+                writer.writeValue(transaction.getTransactionName());
+            }
+
+            writer.comma().writeKey(START_TIME);
+            shadow = data.indexOf(START_TIME);
+            if (shadow >= 0) {
+                writeAttribute(writer, data, shadow);
+            } else {
+                TimestampFormatter.TRANSACTION.writeQuoted(writer, startTime);
+            }
+
+            writer.comma().writeKey(END_TIME);
+            shadow = data.indexOf(END_TIME);
+            if (shadow >= 0) {
+                writeAttribute(writer, data, shadow);
+            } else {
+                TimestampFormatter.TRANSACTION.writeQuoted(writer, endTime);
+            }
+
+            writer.comma().writeKey(TIME_TAKEN);
+            shadow = data.indexOf(TIME_TAKEN);
+            if (shadow >= 0) {
+                writeAttribute(writer, data, shadow);
+            } else {
+                writer.writeLong(getTimeTaken());
+            }
+
+            boolean messageWritten = false;
+            boolean classWritten = false;
+            for (int slot = 0, size = data.size(); slot < size; slot++) {
+                String key = data.keyAt(slot);
+                if (isFixedKey(key)) {
+                    continue;
+                }
+                writer.comma().writeKey(key);
+                if (error != null && EXCEPTION_MESSAGE.equals(key)) {
+                    writer.writeValue(error.getMessage());
+                    messageWritten = true;
+                } else if (error != null && EXCEPTION_CLASS.equals(key)) {
+                    writer.writeString(error.getClass().getName());
+                    classWritten = true;
+                } else {
+                    writeAttribute(writer, data, slot);
+                }
+            }
+
+            if (error != null) {
+                if (!messageWritten) {
+                    writer.comma().writeKey(EXCEPTION_MESSAGE).writeValue(error.getMessage());
+                }
+                if (!classWritten) {
+                    writer.comma().writeKey(EXCEPTION_CLASS).writeString(error.getClass().getName());
+                }
+            }
+            if (!spans.isEmpty()) {
+                writer.comma().writeKey(SPANS);
+                writeSpans(writer, spans);
+            }
+            writer.endObject();
+        }
+    }
+
+    private static void writeSpans(JsonWriter writer, List<Span> spans) {
+        writer.beginArray();
+        for (int i = 0; i < spans.size(); i++) {
+            if (i > 0) {
+                writer.comma();
+            }
+            Span span = spans.get(i);
+            TransactionData child = span.getTransaction();
+            List<Span> grandchildren = child.getSpans();
+            AttributeStore data = child.attributes();
+            writer.beginObject();
+            writer.writeKey(TRANSACTION_NAME).writeValue(child.getTransactionName());
+            writer.comma().writeKey(OFFSET).writeDouble(millis(span.getOffsetNanos()));
+            writer.comma().writeKey(TIME_TAKEN).writeDouble(millis(span.getDurationNanos()));
+            boolean classWritten = false;
+            synchronized (data) {
+                for (int slot = 0, size = data.size(); slot < size; slot++) {
+                    String key = data.keyAt(slot);
+                    if (isSpanKey(key)) {
+                        continue;
+                    }
+                    classWritten |= EXCEPTION_CLASS.equals(key);
+                    writer.comma().writeKey(key);
+                    writeAttribute(writer, data, slot);
+                }
+            }
+            if (span.getError() != null && !classWritten) {
+                writer.comma().writeKey(EXCEPTION_CLASS).writeString(span.getError().getClass().getName());
+            }
+            if (!grandchildren.isEmpty()) {
+                writer.comma().writeKey(SPANS);
+                writeSpans(writer, grandchildren);
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private static List<Span> nestedSpans(TransactionData transaction) {
+        return TransactionData.getSpanMode() == SpanMode.NESTED ? transaction.getSpans() : List.of();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Hands the record's fields to {@code out} in the order, and with the values,
+     * {@link #writeJson} writes them, for formats other than JSON. Low-cardinality strings
+     * (the transaction name and exception class) are passed as symbols; timestamps as epoch
+     * milliseconds; the nested spans, if any, as JSON.
+     */
+    public void writeFields(FieldWriter out) {
+        AttributeStore data = transaction.attributes();
+        List<Span> spans = nestedSpans(transaction);
+
+        synchronized (data) {
+            int shadow = data.indexOf(TRANSACTION_NAME);
+            if (shadow >= 0) {
+                writeAttribute(out, TRANSACTION_NAME, data, shadow);
+            } else {
+                out.symbol(TRANSACTION_NAME, transaction.getTransactionName());
+            }
+            shadow = data.indexOf(START_TIME);
+            if (shadow >= 0) {
+                writeAttribute(out, START_TIME, data, shadow);
+            } else {
+                out.timestamp(START_TIME, transaction.getStartTime());
+            }
+            shadow = data.indexOf(END_TIME);
+            if (shadow >= 0) {
+                writeAttribute(out, END_TIME, data, shadow);
+            } else {
+                out.timestamp(END_TIME, endTime);
+            }
+            shadow = data.indexOf(TIME_TAKEN);
+            if (shadow >= 0) {
+                writeAttribute(out, TIME_TAKEN, data, shadow);
+            } else {
+                out.longValue(TIME_TAKEN, getTimeTaken());
+            }
+
+            boolean messageWritten = false;
+            boolean classWritten = false;
+            for (int slot = 0, size = data.size(); slot < size; slot++) {
+                String key = data.keyAt(slot);
+                if (isFixedKey(key)) {
+                    continue;
+                }
+                if (error != null && EXCEPTION_MESSAGE.equals(key)) {
+                    out.value(key, error.getMessage());
+                    messageWritten = true;
+                } else if (error != null && EXCEPTION_CLASS.equals(key)) {
+                    out.symbol(key, error.getClass().getName());
+                    classWritten = true;
+                } else {
+                    writeAttribute(out, key, data, slot);
+                }
+            }
+
+            if (error != null) {
+                if (!messageWritten) {
+                    out.value(EXCEPTION_MESSAGE, error.getMessage());
+                }
+                if (!classWritten) {
+                    out.symbol(EXCEPTION_CLASS, error.getClass().getName());
+                }
+            }
+            if (!spans.isEmpty()) {
+                out.json(SPANS, writer -> writeSpans(writer, spans));
+            }
+        }
+    }
+
+    private static void writeAttribute(FieldWriter out, String key, AttributeStore data, int slot) {
+        switch (data.kindAt(slot)) {
+            case AttributeStore.LONG:
+                out.longValue(key, data.longAt(slot));
+                break;
+            case AttributeStore.DOUBLE:
+                out.doubleValue(key, data.doubleAt(slot));
+                break;
+            default:
+                out.value(key, data.objectAt(slot));
+        }
+    }
+
+    @Override
+    public String toString() {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writeJson(writer);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static void writeAttribute(JsonWriter writer, AttributeStore data, int slot) {
+        switch (data.kindAt(slot)) {
+            case AttributeStore.LONG:
+                writer.writeLong(data.longAt(slot));
+                break;
+            case AttributeStore.DOUBLE:
+                writer.writeDouble(data.doubleAt(slot));
+                break;
+            default:
+                writer.writeValue(data.objectAt(slot));
+        }
+    }
+
+    private static boolean isFixedKey(String key) {
+        return TRANSACTION_NAME.equals(key) || START_TIME.equals(key)
+                || END_TIME.equals(key) || TIME_TAKEN.equals(key);
+    }
+
+    /**
+     * Receives the fields of a record, see {@link #writeFields(FieldWriter)}.
+     */
+    public interface FieldWriter {
+
+        /** A string drawn from a small set, such as a transaction name. */
+        void symbol(String key, String value);
+
+        /** Epoch milliseconds, rendered in JSON as a {@code TimestampFormatter.TRANSACTION} string. */
+        void timestamp(String key, long epochMillis);
+
+        void longValue(String key, long value);
+
+        void doubleValue(String key, double value);
+
+        /** Any other value, rendered in JSON by {@link JsonWriter#writeValue(Object)}. */
+        void value(String key, Object value);
+
+        /** A value that renders itself as JSON. */
+        void json(String key, JsonWritable value);
+    }
+
+    private static boolean isSpanKey(String key) {
+        return TRANSACTION_NAME.equals(key) || OFFSET.equals(key) || TIME_TAKEN.equals(key) || SPANS.equals(key);
+    }
+}
@@ -4,7 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class AnalyticJsonLogger {
 
@@ -21,60 +20,39 @@ public class AnalyticJsonLogger {
         ANALYTIC_LOGGER.info(json);
     }
 
+    /**
+     * Logs a record, such as an {@link AnalyticEvent} or an {@link AggregateRecord}, as a
+     * structured argument. {@code AnalyticJsonEncoder} serializes it straight into its output
+     * buffer; any other layout sees the JSON through the record's {@code toString()}.
+     */
+    public static void log(JsonWritable record) {
+        if (record == null) {
+            return;
+        }
+        ANALYTIC_LOGGER.info("{}", record);
+    }
+
     static String toJson(Map<String, Object> map) {
-        StringBuilder sb = new StringBuilder("{");
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writeJson(writer, map);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+
+    static void writeJson(JsonWriter writer, Map<String, Object> map) {
+        writer.beginObject();
         boolean first = true;
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             if (!first) {
-                sb.append(",");
+                writer.comma();
             }
             first = false;
-            sb.append("\"").append(escapeJson(entry.getKey())).append("\":");
-            sb.append(valueToJson(entry.getValue()));
+            writer.writeKey(entry.getKey());
+            writer.writeValue(entry.getValue());
         }
-        sb.append("}");
-        return sb.toString();
-    }
-
-    private static String valueToJson(Object value) {
-        if (value == null) {
-            return "null";
-        }
-        if (value instanceof Number || value instanceof Boolean) {
-            return value.toString();
-        }
-        if (value instanceof Map<?, ?> map) {
-            StringBuilder sb = new StringBuilder("{");
-            boolean first = true;
-            for (Map.Entry<?, ?> entry : map.entrySet()) {
-                if (!first) sb.append(",");
-                first = false;
-                sb.append("\"").append(escapeJson(String.valueOf(entry.getKey()))).append("\":");
-                sb.append(valueToJson(entry.getValue()));
-            }
-            sb.append("}");
-            return sb.toString();
-        }
-        if (value instanceof Iterable<?> iterable) {
-            StringBuilder sb = new StringBuilder("[");
-            boolean first = true;
-            for (Object item : iterable) {
-                if (!first) sb.append(",");
-                first = false;
-                sb.append(valueToJson(item));
-            }
-            sb.append("]");
-            return sb.toString();
-        }
-        return "\"" + escapeJson(String.valueOf(value)) + "\"";
-    }
-
-    private static String escapeJson(String text) {
-        if (text == null) return "";
-        return text.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+        writer.endObject();
     }
 }
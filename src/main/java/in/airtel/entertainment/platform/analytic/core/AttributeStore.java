@@ -0,0 +1,323 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, insertion-ordered attribute map for {@link TransactionData}, sized for the
+ * usual 5 to 20 keys.
+ *
+ * <p>Keys and values are interleaved in one {@code Object[]}. Numbers written with
+ * {@link #putLong} or {@link #putDouble} are stored unboxed in a separate {@code long[]};
+ * their value slot holds a shared, preallocated {@link NumberRef} pointing at it; a position
+ * released by overwriting a number with an object is reused by the next number. Up to
+ * {@value #LINEAR_SCAN_LIMIT} keys are found by scanning; beyond that an open-addressed
+ * {@code int[]} index is kept.
+ *
+ * <p>Keys are interned in a bounded pool when first stored, so lookups compare references
+ * only. Once the pool is full, new keys are stored as given and this store falls back to
+ * {@code equals}.
+ *
+ * <p>All access is guarded by this object's monitor. Writers come from whichever thread
+ * emits the signal; callers iterating with {@link #keyAt} and friends must hold the
+ * monitor themselves.
+ */
+final class AttributeStore {
+
+    static final byte OBJECT = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int INITIAL_NUMBERS = 4;
+    private static final int LINEAR_SCAN_LIMIT = 32;
+    private static final int MAX_INTERNED_KEYS = 4096;
+    private static final ConcurrentHashMap<String, String> INTERNED_KEYS = new ConcurrentHashMap<>();
+
+    /** Beyond this many numeric attributes, further numbers are boxed. */
+    private static final int MAX_NUMBERS = 64;
+    private static final NumberRef[] LONG_REFS = new NumberRef[MAX_NUMBERS];
+    private static final NumberRef[] DOUBLE_REFS = new NumberRef[MAX_NUMBERS];
+
+    static {
+        for (int i = 0; i < MAX_NUMBERS; i++) {
+            LONG_REFS[i] = new NumberRef(i, LONG);
+            DOUBLE_REFS[i] = new NumberRef(i, DOUBLE);
+        }
+    }
+
+    /** key at {@code 2 * slot}, value or {@link NumberRef} at {@code 2 * slot + 1}. */
+    private Object[] table = new Object[INITIAL_CAPACITY * 2];
+    private long[] numbers;
+    private int numberCount;
+    /** Positions in {@link #numbers} released by {@link #put}, reused before new ones. */
+    private int[] freeNumbers;
+    private int freeNumberCount;
+    private int[] index;
+    private int size;
+    private boolean uninternedKeys;
+
+    synchronized void put(String key, Object value) {
+        int valuePosition = 2 * slotFor(key) + 1;
+        if (table[valuePosition] instanceof NumberRef existing) {
+            releaseNumber(existing.position);
+        }
+        table[valuePosition] = value;
+    }
+
+    synchronized void putLong(String key, long value) {
+        putNumber(key, value, LONG);
+    }
+
+    synchronized void putDouble(String key, double value) {
+        putNumber(key, Double.doubleToRawLongBits(value), DOUBLE);
+    }
+
+    synchronized Object get(String key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies every attribute into {@code target}, keeping numbers unboxed. Later writes to
+     * the same key in the target win, as with {@code Map.putAll}.
+     */
+    void copyTo(AttributeStore target) {
+        copyTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Copies the first {@code limit} attributes into {@code target}, keeping numbers
+     * unboxed and overwriting keys the target already has.
+     */
+    void copyTo(AttributeStore target, int limit) {
+        Object[] copiedTable;
+        long[] copiedNumbers;
+        int copiedSize;
+        synchronized (this) {
+            copiedSize = Math.min(size, limit);
+            copiedTable = Arrays.copyOf(table, copiedSize * 2);
+            copiedNumbers = numbers != null ? Arrays.copyOf(numbers, numberCount) : null;
+        }
+        synchronized (target) {
+            for (int i = 0; i < copiedSize; i++) {
+                String key = (String) copiedTable[2 * i];
+                Object value = copiedTable[2 * i + 1];
+                if (value instanceof NumberRef ref) {
+                    target.putNumber(key, copiedNumbers[ref.position], ref.kind);
+                } else {
+                    target.put(key, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Boxed, insertion-ordered snapshot.
+     */
+    synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            map.put(keyAt(i), valueAt(i));
+        }
+        return map;
+    }
+
+    // ---- positional access, caller holds the monitor -----------------------------------
+
+    int size() {
+        return size;
+    }
+
+    int indexOf(String key) {
+        int slot = find(key);
+        if (slot >= 0 || uninternedKeys) {
+            return slot;
+        }
+        // Stored keys are canonical; retry with the canonical instance if there is one
+        String canonical = INTERNED_KEYS.get(key);
+        return canonical == null || canonical == key ? -1 : find(canonical);
+    }
+
+    String keyAt(int slot) {
+        return (String) table[2 * slot];
+    }
+
+    byte kindAt(int slot) {
+        return table[2 * slot + 1] instanceof NumberRef ref ? ref.kind : OBJECT;
+    }
+
+    /**
+     * The value of an {@link #OBJECT} slot.
+     */
+    Object objectAt(int slot) {
+        return table[2 * slot + 1];
+    }
+
+    long longAt(int slot) {
+        return numbers[((NumberRef) table[2 * slot + 1]).position];
+    }
+
+    double doubleAt(int slot) {
+        return Double.longBitsToDouble(longAt(slot));
+    }
+
+    Object valueAt(int slot) {
+        Object value = table[2 * slot + 1];
+        if (value instanceof NumberRef ref) {
+            long bits = numbers[ref.position];
+            return ref.kind == LONG ? (Object) bits : (Object) Double.longBitsToDouble(bits);
+        }
+        return value;
+    }
+
+    // ---- internals ---------------------------------------------------------------------
+
+    private void putNumber(String key, long bits, byte kind) {
+        int slot = slotFor(key);
+        int valuePosition = 2 * slot + 1;
+        int position;
+        if (table[valuePosition] instanceof NumberRef existing) {
+            position = existing.position;
+        } else if (freeNumberCount > 0) {
+            position = freeNumbers[--freeNumberCount];
+        } else if (numberCount < MAX_NUMBERS) {
+            if (numbers == null) {
+                numbers = new long[INITIAL_NUMBERS];
+            } else if (numberCount == numbers.length) {
+                numbers = Arrays.copyOf(numbers, numberCount * 2);
+            }
+            position = numberCount++;
+        } else {
+            table[valuePosition] = kind == LONG ? (Object) bits : (Object) Double.longBitsToDouble(bits);
+            return;
+        }
+        numbers[position] = bits;
+        table[valuePosition] = kind == LONG ? LONG_REFS[position] : DOUBLE_REFS[position];
+    }
+
+    private void releaseNumber(int position) {
+        if (freeNumbers == null) {
+            freeNumbers = new int[INITIAL_NUMBERS];
+        } else if (freeNumberCount == freeNumbers.length) {
+            freeNumbers = Arrays.copyOf(freeNumbers, freeNumberCount * 2);
+        }
+        freeNumbers[freeNumberCount++] = position;
+    }
+
+    private int find(String key) {
+        Object[] table = this.table;
+        if (index == null) {
+            int end = size * 2;
+            for (int i = 0; i < end; i += 2) {
+                Object candidate = table[i];
+                if (candidate == key || (uninternedKeys && key.equals(candidate))) {
+                    return i >> 1;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int h = spread(key.hashCode()) & mask; ; h = (h + 1) & mask) {
+            int entry = index[h];
+            if (entry == 0) {
+                return -1;
+            }
+            Object candidate = table[2 * (entry - 1)];
+            if (candidate == key || key.equals(candidate)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private int slotFor(String key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        String canonical = key;
+        if (!uninternedKeys) {
+            canonical = intern(key);
+            if (canonical == null) {
+                canonical = key;
+                uninternedKeys = true;
+                slot = find(key);
+            } else if (canonical != key) {
+                slot = find(canonical);
+            }
+            if (slot >= 0) {
+                return slot;
+            }
+        }
+        if (size * 2 == table.length) {
+            grow();
+        }
+        slot = size++;
+        table[2 * slot] = canonical;
+        if (index != null) {
+            addToIndex(slot);
+        } else if (size > LINEAR_SCAN_LIMIT) {
+            rebuildIndex();
+        }
+        return slot;
+    }
+
+    private void grow() {
+        table = Arrays.copyOf(table, table.length * 2);
+        if (index != null) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() {
+        index = new int[table.length];
+        for (int i = 0; i < size; i++) {
+            addToIndex(i);
+        }
+    }
+
+    private void addToIndex(int slot) {
+        int mask = index.length - 1;
+        int h = spread(table[2 * slot].hashCode()) & mask;
+        while (index[h] != 0) {
+            h = (h + 1) & mask;
+        }
+        index[h] = slot + 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the canonical instance of {@code key}, or null if the pool is full and the
+     * key is not in it.
+     */
+    private static String intern(String key) {
+        String canonical = INTERNED_KEYS.get(key);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (INTERNED_KEYS.size() >= MAX_INTERNED_KEYS) {
+            return null;
+        }
+        canonical = INTERNED_KEYS.putIfAbsent(key, key);
+        return canonical != null ? canonical : key;
+    }
+
+    private static final class NumberRef {
+        final int position;
+        final byte kind;
+
+        NumberRef(int position, byte kind) {
+            this.position = position;
+            this.kind = kind;
+        }
+    }
+}
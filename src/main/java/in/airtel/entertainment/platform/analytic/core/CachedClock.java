@@ -0,0 +1,53 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse {@link AnalyticClock} backed by a daemon thread that refreshes a volatile
+ * timestamp every {@code resolution}. Reads never call into the OS clock, at the cost of
+ * being up to one resolution behind.
+ */
+public final class CachedClock implements AnalyticClock, AutoCloseable {
+
+    private final long resolutionNanos;
+    private final Thread updater;
+    private volatile long now;
+    private volatile boolean running = true;
+
+    public CachedClock(Duration resolution) {
+        if (resolution.isNegative() || resolution.isZero()) {
+            throw new IllegalArgumentException("resolution must be positive: " + resolution);
+        }
+        this.resolutionNanos = resolution.toNanos();
+        this.now = System.currentTimeMillis();
+        this.updater = new Thread(this::run, "analytic-cached-clock");
+        this.updater.setDaemon(true);
+        this.updater.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Stops the updater thread; if this clock is installed on {@link TransactionData} the
+     * system clock is restored.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(updater);
+        if (TransactionData.getClock() == this) {
+            TransactionData.setClock(null);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(resolutionNanos);
+        }
+    }
+}
@@ -5,7 +5,12 @@ import in.airtel.entertainment.platform.analytic.annotation.AnalysedEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -15,35 +20,109 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Reads {@link Analysed} members of entities into transactions.
+ *
+ * <p>For each entity class, a compile-time {@link AnalyticEntityExtractor} generated by
+ * {@code reactive-analytic-processor} is used when one is on the class path. Otherwise the
+ * class is scanned once with reflection and its accessors are resolved into method handles
+ * typed for the member: integral members are read as {@code long} and {@code double} members
+ * as {@code double}, so {@link #extractInto} stores them unboxed and allocates nothing per
+ * call. {@code float} members are boxed, so they render as {@link Float#toString} does. Members that cannot be made accessible (e.g. in a module that does not open its
+ * package) are skipped with a warning when the class is first seen.
+ */
 public class EntityExtractor {
 
     private static final Logger LOG = LoggerFactory.getLogger(EntityExtractor.class);
-    private static final ConcurrentHashMap<Class<?>, List<MemberAccessor>> CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, AnalyticEntityExtractor<Object>> CACHE = new ConcurrentHashMap<>();
+
+    private static final MethodType AS_LONG = MethodType.methodType(long.class, Object.class);
+    private static final MethodType AS_DOUBLE = MethodType.methodType(double.class, Object.class);
+    private static final MethodType AS_OBJECT = MethodType.methodType(Object.class, Object.class);
 
     private EntityExtractor() {
     }
 
+    /**
+     * Returns the extracted members as a new map, boxing primitives.
+     */
     public static Map<String, Object> extract(Object entity) {
         if (entity == null) {
             return Collections.emptyMap();
         }
-        Class<?> clazz = entity.getClass();
-        List<MemberAccessor> accessors = CACHE.computeIfAbsent(clazz, EntityExtractor::buildAccessors);
         Map<String, Object> result = new LinkedHashMap<>();
-        for (MemberAccessor accessor : accessors) {
+        try {
+            extractorFor(entity.getClass()).extract(entity, result);
+        } catch (RuntimeException | LinkageError e) {
+            LOG.warn("Failed to extract {}: {}", entity.getClass().getName(), e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Writes the extracted members straight into {@code target}, without an intermediate
+     * map and without boxing numeric members.
+     */
+    public static void extractInto(Object entity, TransactionData target) {
+        if (entity == null || target == null) {
+            return;
+        }
+        AnalyticEntityExtractor<Object> extractor = extractorFor(entity.getClass());
+        // One monitor acquisition for the whole entity; the per-put locks are then reentrant
+        synchronized (target.attributes()) {
             try {
-                Object value = accessor.getValue(entity);
-                if (value != null) {
-                    result.put(accessor.name, value);
-                }
-            } catch (Exception e) {
-                LOG.warn("Failed to extract field {}: {}", accessor.name, e.getMessage());
+                extractor.extractInto(entity, target);
+            } catch (RuntimeException | LinkageError e) {
+                LOG.warn("Failed to extract {}: {}", entity.getClass().getName(), e.getMessage());
             }
         }
-        return result;
     }
 
-    private static List<MemberAccessor> buildAccessors(Class<?> clazz) {
+    private static AnalyticEntityExtractor<Object> extractorFor(Class<?> clazz) {
+        AnalyticEntityExtractor<Object> extractor = CACHE.get(clazz);
+        return extractor != null ? extractor : CACHE.computeIfAbsent(clazz, EntityExtractor::createExtractor);
+    }
+
+    private static AnalyticEntityExtractor<Object> createExtractor(Class<?> clazz) {
+        AnalyticEntityExtractor<Object> generated = loadGenerated(clazz);
+        return generated != null ? generated : new ReflectiveExtractor(buildAccessors(clazz));
+    }
+
+    /**
+     * Name of the generated extractor for {@code clazz}: nested class names joined with
+     * {@code '_'}, in the same package.
+     */
+    static String generatedClassName(Class<?> clazz) {
+        String packageName = clazz.getPackageName();
+        String binaryName = packageName.isEmpty()
+                ? clazz.getName()
+                : clazz.getName().substring(packageName.length() + 1);
+        String simpleName = binaryName.replace('$', '_') + AnalyticEntityExtractor.CLASS_NAME_SUFFIX;
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AnalyticEntityExtractor<Object> loadGenerated(Class<?> clazz) {
+        if (clazz.isArray() || clazz.isPrimitive()) {
+            return null;
+        }
+        String name = generatedClassName(clazz);
+        try {
+            Class<?> generated = Class.forName(name, true, clazz.getClassLoader());
+            if (!AnalyticEntityExtractor.class.isAssignableFrom(generated)) {
+                LOG.warn("Ignoring {}: not an AnalyticEntityExtractor", name);
+                return null;
+            }
+            return (AnalyticEntityExtractor<Object>) generated.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.warn("Ignoring generated extractor {}, falling back to reflection: {}", name, e.toString());
+            return null;
+        }
+    }
+
+    private static MemberAccessor[] buildAccessors(Class<?> clazz) {
         List<MemberAccessor> accessors = new ArrayList<>();
         boolean hasAnnotatedMembers = false;
 
@@ -53,8 +132,7 @@ public class EntityExtractor {
             if (analysed != null) {
                 hasAnnotatedMembers = true;
                 String name = analysed.name().isEmpty() ? field.getName() : analysed.name();
-                field.setAccessible(true);
-                accessors.add(new FieldAccessor(name, field));
+                addAccessor(accessors, name, field, field.getType());
             }
         }
 
@@ -65,8 +143,7 @@ public class EntityExtractor {
                     && method.getReturnType() != void.class) {
                 hasAnnotatedMembers = true;
                 String name = analysed.name().isEmpty() ? deriveNameFromMethod(method) : analysed.name();
-                method.setAccessible(true);
-                accessors.add(new MethodAccessor(name, method));
+                addAccessor(accessors, name, method, method.getReturnType());
             }
         }
 
@@ -75,12 +152,38 @@ public class EntityExtractor {
             accessors.clear();
             for (Field field : getAllFields(clazz)) {
                 if (Modifier.isPublic(field.getModifiers()) && isPrimitive(field.getType())) {
-                    accessors.add(new FieldAccessor(field.getName(), field));
+                    addAccessor(accessors, field.getName(), field, field.getType());
                 }
             }
         }
 
-        return accessors;
+        return accessors.toArray(new MemberAccessor[0]);
+    }
+
+    private static void addAccessor(List<MemberAccessor> accessors, String name,
+                                    AccessibleObject member, Class<?> type) {
+        MethodHandle handle;
+        try {
+            member.setAccessible(true);
+            handle = member instanceof Field field
+                    ? MethodHandles.lookup().unreflectGetter(field)
+                    : MethodHandles.lookup().unreflect((Method) member);
+        } catch (RuntimeException | IllegalAccessException e) {
+            LOG.warn("Skipping inaccessible analysed member {}: {}", name, e.getMessage());
+            return;
+        }
+        if (Modifier.isStatic(((Member) member).getModifiers())) {
+            // Static members ignore the entity, as Field.get and Method.invoke do
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+            accessors.add(new LongAccessor(name, handle));
+        } else if (type == double.class) {
+            // float stays boxed: widened to double, 1.1f would render as 1.100000023841858
+            accessors.add(new DoubleAccessor(name, handle));
+        } else {
+            accessors.add(new ObjectAccessor(name, handle));
+        }
     }
 
     private static List<Field> getAllFields(Class<?> clazz) {
@@ -117,41 +220,93 @@ public class EntityExtractor {
                 || clazz == Double.class;
     }
 
-    private static abstract class MemberAccessor {
+    private static final class ReflectiveExtractor implements AnalyticEntityExtractor<Object> {
+        private final MemberAccessor[] accessors;
+
+        ReflectiveExtractor(MemberAccessor[] accessors) {
+            this.accessors = accessors;
+        }
+
+        @Override
+        public void extractInto(Object entity, TransactionData target) {
+            for (MemberAccessor accessor : accessors) {
+                try {
+                    accessor.writeTo(entity, target);
+                } catch (Throwable e) {
+                    LOG.warn("Failed to extract field {}: {}", accessor.name, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void extract(Object entity, Map<String, Object> target) {
+            for (MemberAccessor accessor : accessors) {
+                try {
+                    Object value = accessor.getValue(entity);
+                    if (value != null) {
+                        target.put(accessor.name, value);
+                    }
+                } catch (Throwable e) {
+                    LOG.warn("Failed to extract field {}: {}", accessor.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private abstract static class MemberAccessor {
         final String name;
+        /** Adapted to {@code (Object)Object}; boxes primitives as their own wrapper type. */
+        final MethodHandle boxed;
 
-        MemberAccessor(String name) {
+        MemberAccessor(String name, MethodHandle handle) {
             this.name = name;
+            this.boxed = handle.asType(AS_OBJECT);
+        }
+
+        final Object getValue(Object target) throws Throwable {
+            return boxed.invokeExact(target);
         }
 
-        abstract Object getValue(Object target) throws Exception;
+        abstract void writeTo(Object target, TransactionData transaction) throws Throwable;
+    }
+
+    private static final class LongAccessor extends MemberAccessor {
+        private final MethodHandle getter;
+
+        LongAccessor(String name, MethodHandle handle) {
+            super(name, handle);
+            this.getter = handle.asType(AS_LONG);
+        }
+
+        @Override
+        void writeTo(Object target, TransactionData transaction) throws Throwable {
+            transaction.putLong(name, (long) getter.invokeExact(target));
+        }
     }
 
-    private static class FieldAccessor extends MemberAccessor {
-        private final Field field;
+    private static final class DoubleAccessor extends MemberAccessor {
+        private final MethodHandle getter;
 
-        FieldAccessor(String name, Field field) {
-            super(name);
-            this.field = field;
+        DoubleAccessor(String name, MethodHandle handle) {
+            super(name, handle);
+            this.getter = handle.asType(AS_DOUBLE);
         }
 
         @Override
-        Object getValue(Object target) throws Exception {
-            return field.get(target);
+        void writeTo(Object target, TransactionData transaction) throws Throwable {
+            transaction.putDouble(name, (double) getter.invokeExact(target));
         }
     }
 
-    private static class MethodAccessor extends MemberAccessor {
-        private final Method method;
+    private static final class ObjectAccessor extends MemberAccessor {
 
-        MethodAccessor(String name, Method method) {
-            super(name);
-            this.method = method;
+        ObjectAccessor(String name, MethodHandle handle) {
+            super(name, handle);
         }
 
         @Override
-        Object getValue(Object target) throws Exception {
-            return method.invoke(target);
+        void writeTo(Object target, TransactionData transaction) throws Throwable {
+            transaction.put(name, boxed.invokeExact(target));
         }
     }
 }
@@ -0,0 +1,60 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Runtime helpers for extractors generated by {@code reactive-analytic-processor}. Generated
+ * code reads accessible members directly and uses these handles only for members it cannot
+ * name, such as private fields; they are resolved by name once, in the generated class's
+ * static initializer, with the generated class's own lookup.
+ */
+public final class GeneratedExtractorSupport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityExtractor.class);
+
+    private GeneratedExtractorSupport() {
+    }
+
+    /**
+     * Getter for field {@code name} of {@code declaring}, adapted to {@code (Object)resultType}.
+     */
+    public static MethodHandle field(MethodHandles.Lookup caller, Class<?> declaring, String name,
+                                     Class<?> resultType) throws ReflectiveOperationException {
+        Field field = declaring.getDeclaredField(name);
+        MethodHandle handle = MethodHandles.privateLookupIn(declaring, caller).unreflectGetter(field);
+        return adapt(handle, Modifier.isStatic(field.getModifiers()), resultType);
+    }
+
+    /**
+     * Handle for zero-arg method {@code name} of {@code declaring}, adapted to
+     * {@code (Object)resultType}.
+     */
+    public static MethodHandle method(MethodHandles.Lookup caller, Class<?> declaring, String name,
+                                      Class<?> resultType) throws ReflectiveOperationException {
+        Method method = declaring.getDeclaredMethod(name);
+        MethodHandle handle = MethodHandles.privateLookupIn(declaring, caller).unreflect(method);
+        return adapt(handle, Modifier.isStatic(method.getModifiers()), resultType);
+    }
+
+    /**
+     * Reports a member whose read failed; the remaining members are still extracted.
+     */
+    public static void memberFailed(String name, Throwable error) {
+        LOG.warn("Failed to extract field {}: {}", name, error.getMessage());
+    }
+
+    private static MethodHandle adapt(MethodHandle handle, boolean isStatic, Class<?> resultType) {
+        if (isStatic) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asType(MethodType.methodType(resultType, Object.class));
+    }
+}
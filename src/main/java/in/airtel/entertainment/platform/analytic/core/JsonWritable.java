@@ -0,0 +1,10 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * A record that can serialize itself into a {@link JsonWriter}. Passed to the analytic
+ * logger as a structured argument so encoders can write it without an intermediate string.
+ */
+public interface JsonWritable {
+
+    void writeJson(JsonWriter writer);
+}
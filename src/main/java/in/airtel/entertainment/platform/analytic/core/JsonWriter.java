@@ -0,0 +1,441 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reusable, buffer-backed JSON writer that encodes straight to UTF-8.
+ *
+ * <p>Nested maps, iterables, arrays and primitives are written into a single growable
+ * {@code byte[]} without intermediate strings. Strings are escaped in one pass with an
+ * ASCII fast path; {@code "}, {@code \}, {@code \n}, {@code \r} and {@code \t} use their
+ * short escapes and every other control character is written as {@code &#92;u00XX}.
+ *
+ * <p>Use {@link #acquire()} / {@link #release()} to borrow the calling thread's writer.
+ * A re-entrant acquire (e.g. a {@code toString()} that serializes again) gets a fresh
+ * writer instead of clobbering the one in use.
+ */
+public final class JsonWriter {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<JsonWriter> LOCAL = ThreadLocal.withInitial(JsonWriter::new);
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] MIN_LONG = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /** 0 = write as-is, otherwise the short escape character, or 'u' for a unicode escape. */
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    private byte[] buf;
+    private int size;
+    private boolean inUse;
+
+    public JsonWriter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public JsonWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Borrows the calling thread's writer, reset and ready for use. Must be paired with
+     * {@link #release()}.
+     */
+    public static JsonWriter acquire() {
+        JsonWriter writer = LOCAL.get();
+        if (writer.inUse) {
+            return new JsonWriter();
+        }
+        writer.inUse = true;
+        return writer.reset();
+    }
+
+    /**
+     * Returns a writer obtained from {@link #acquire()}. Oversized buffers are dropped so a
+     * single huge record does not pin memory on the thread forever.
+     */
+    public void release() {
+        inUse = false;
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        size = 0;
+    }
+
+    public JsonWriter reset() {
+        size = 0;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The backing buffer; only the first {@link #size()} bytes are valid.
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, size, StandardCharsets.UTF_8);
+    }
+
+    // ---- structural -------------------------------------------------------------------
+
+    public JsonWriter beginObject() {
+        return writeByte('{');
+    }
+
+    public JsonWriter endObject() {
+        return writeByte('}');
+    }
+
+    public JsonWriter beginArray() {
+        return writeByte('[');
+    }
+
+    public JsonWriter endArray() {
+        return writeByte(']');
+    }
+
+    public JsonWriter comma() {
+        return writeByte(',');
+    }
+
+    /**
+     * Writes {@code "key":}. A null key is written as the empty string.
+     */
+    public JsonWriter writeKey(String key) {
+        writeByte('"');
+        if (key != null) {
+            writeEscaped(key);
+        }
+        ensure(2);
+        buf[size++] = '"';
+        buf[size++] = ':';
+        return this;
+    }
+
+    // ---- values -----------------------------------------------------------------------
+
+    /**
+     * Writes any supported value: null, numbers and booleans verbatim, maps as objects,
+     * iterables and arrays as arrays, and everything else as its escaped
+     * {@code String.valueOf}.
+     */
+    public JsonWriter writeValue(Object value) {
+        if (value == null) {
+            return writeBytes(NULL);
+        }
+        if (value instanceof String s) {
+            return writeString(s);
+        }
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return writeLong(((Number) value).longValue());
+        }
+        if (value instanceof Number) {
+            return writeAscii(value.toString());
+        }
+        if (value instanceof Boolean b) {
+            return writeBoolean(b);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return writeObject(map);
+        }
+        if (value instanceof Iterable<?> iterable) {
+            return writeArray(iterable);
+        }
+        if (value.getClass().isArray()) {
+            return writeArrayObject(value);
+        }
+        return writeString(String.valueOf(value));
+    }
+
+    public JsonWriter writeObject(Map<?, ?> map) {
+        beginObject();
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                comma();
+            }
+            first = false;
+            writeKey(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+        return endObject();
+    }
+
+    public JsonWriter writeArray(Iterable<?> iterable) {
+        beginArray();
+        boolean first = true;
+        for (Object item : iterable) {
+            if (!first) {
+                comma();
+            }
+            first = false;
+            writeValue(item);
+        }
+        return endArray();
+    }
+
+    public JsonWriter writeString(String value) {
+        writeByte('"');
+        writeEscaped(value);
+        return writeByte('"');
+    }
+
+    public JsonWriter writeBoolean(boolean value) {
+        return writeBytes(value ? TRUE : FALSE);
+    }
+
+    public JsonWriter writeNull() {
+        return writeBytes(NULL);
+    }
+
+    /**
+     * Writes {@code value} as {@code Double.toString} does, matching how a boxed
+     * {@code Double} goes through {@link #writeValue}.
+     */
+    public JsonWriter writeDouble(double value) {
+        if (value == (long) value && Math.abs(value) < 1e7 && !(value == 0 && 1 / value < 0)) {
+            writeLong((long) value);
+            return writeAscii(".0");
+        }
+        return writeAscii(Double.toString(value));
+    }
+
+    public JsonWriter writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return writeBytes(MIN_LONG);
+        }
+        ensure(20);
+        if (value < 0) {
+            buf[size++] = '-';
+            value = -value;
+        }
+        int end = size + digitCount(value);
+        int pos = end;
+        do {
+            buf[--pos] = (byte) ('0' + (int) (value % 10));
+            value /= 10;
+        } while (value != 0);
+        size = end;
+        return this;
+    }
+
+    /**
+     * Writes {@code value} zero-padded to {@code width} digits. For non-negative values
+     * that fit in {@code width}, such as date fields.
+     */
+    public JsonWriter writePadded(int value, int width) {
+        ensure(width);
+        int end = size + width;
+        for (int pos = end - 1; pos >= size; pos--) {
+            buf[pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size = end;
+        return this;
+    }
+
+    // ---- raw --------------------------------------------------------------------------
+
+    /**
+     * Writes characters that are known to be ASCII and need no escaping.
+     */
+    public JsonWriter writeAscii(String ascii) {
+        int len = ascii.length();
+        ensure(len);
+        for (int i = 0; i < len; i++) {
+            buf[size++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Writes {@code text} as UTF-8 without escaping, for embedding JSON that was already
+     * serialized elsewhere.
+     */
+    public JsonWriter writeRaw(String text) {
+        int len = text.length();
+        ensure(len);
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return writeBytes(text.substring(i).getBytes(StandardCharsets.UTF_8));
+            }
+            buf[size++] = (byte) c;
+        }
+        return this;
+    }
+
+    /**
+     * Writes pre-encoded UTF-8 bytes verbatim.
+     */
+    public JsonWriter writeBytes(byte[] bytes) {
+        return writeBytes(bytes, 0, bytes.length);
+    }
+
+    public JsonWriter writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buf, size, length);
+        size += length;
+        return this;
+    }
+
+    public JsonWriter writeByte(int b) {
+        ensure(1);
+        buf[size++] = (byte) b;
+        return this;
+    }
+
+    /**
+     * Writes the JSON-escaped UTF-8 form of {@code text} without surrounding quotes.
+     */
+    public JsonWriter writeEscaped(String text) {
+        int len = text.length();
+        ensure(len);
+        byte[] b = buf;
+        int pos = size;
+        int i = 0;
+        // ASCII fast path: capacity for one byte per char was reserved above
+        for (; i < len; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || ESCAPES[c] != 0) {
+                break;
+            }
+            b[pos++] = (byte) c;
+        }
+        size = pos;
+        for (; i < len; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    ensure(1);
+                    buf[size++] = (byte) c;
+                } else if (escape == 'u') {
+                    ensure(6);
+                    buf[size++] = '\\';
+                    buf[size++] = 'u';
+                    buf[size++] = '0';
+                    buf[size++] = '0';
+                    buf[size++] = HEX[c >> 4];
+                    buf[size++] = HEX[c & 0xF];
+                } else {
+                    ensure(2);
+                    buf[size++] = '\\';
+                    buf[size++] = escape;
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[size++] = (byte) (0xC0 | (c >> 6));
+                buf[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    ensure(4);
+                    buf[size++] = (byte) (0xF0 | (cp >> 18));
+                    buf[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[size++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    // unpaired surrogate: same replacement String.getBytes(UTF_8) uses
+                    ensure(1);
+                    buf[size++] = '?';
+                }
+            } else {
+                ensure(3);
+                buf[size++] = (byte) (0xE0 | (c >> 12));
+                buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    // ---- internals --------------------------------------------------------------------
+
+    private JsonWriter writeArrayObject(Object array) {
+        beginArray();
+        if (array instanceof Object[] objects) {
+            for (int i = 0; i < objects.length; i++) {
+                if (i > 0) comma();
+                writeValue(objects[i]);
+            }
+        } else if (array instanceof int[] ints) {
+            for (int i = 0; i < ints.length; i++) {
+                if (i > 0) comma();
+                writeLong(ints[i]);
+            }
+        } else if (array instanceof long[] longs) {
+            for (int i = 0; i < longs.length; i++) {
+                if (i > 0) comma();
+                writeLong(longs[i]);
+            }
+        } else if (array instanceof boolean[] booleans) {
+            for (int i = 0; i < booleans.length; i++) {
+                if (i > 0) comma();
+                writeBoolean(booleans[i]);
+            }
+        } else {
+            int length = Array.getLength(array);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) comma();
+                writeValue(Array.get(array, i));
+            }
+        }
+        return endArray();
+    }
+
+    private void ensure(int extra) {
+        int required = size + extra;
+        if (required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(required, buf.length << 1));
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        long limit = 10;
+        while (digits < 19 && value >= limit) {
+            digits++;
+            limit *= 10;
+        }
+        return digits;
+    }
+}
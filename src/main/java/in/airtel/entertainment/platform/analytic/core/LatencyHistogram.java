@@ -0,0 +1,195 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of non-negative millisecond durations.
+ *
+ * <p>Values below 16 have their own bucket; above that, every power of two is split into 16
+ * linear sub-buckets, so a reported percentile is within 1/16 of the recorded value. Values
+ * beyond 2<sup>40</sup> ms land in the last bucket. Recording is one {@code getAndIncrement}
+ * on a stripe picked by thread id, plus a few counter updates on the same stripe; snapshots
+ * merge the stripes.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    // Per-stripe counters after the buckets
+    private static final int ERRORS = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final int SLOTS = BUCKETS + 3;
+
+    private static final int DEFAULT_STRIPES = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+
+    private final AtomicLongArray[] stripes;
+
+    public LatencyHistogram() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes number of independently updated copies, rounded up to a power of two;
+     *                fewer stripes use less memory and contend more
+     */
+    public LatencyHistogram(int stripes) {
+        int count = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        this.stripes = new AtomicLongArray[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new AtomicLongArray(SLOTS);
+        }
+    }
+
+    public void record(long millis, boolean error) {
+        long value = Math.max(millis, 0);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        stripe.getAndIncrement(bucketIndex(value));
+        stripe.getAndAdd(SUM, value);
+        if (error) {
+            stripe.getAndIncrement(ERRORS);
+        }
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * Returns everything recorded since the last reset and starts over. Slots are reset one
+     * by one, so a value recorded concurrently may be split between this snapshot and the
+     * next one; nothing is lost.
+     */
+    public Snapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    private Snapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long errors = 0;
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = reset ? stripe.getAndSet(i, 0) : stripe.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            errors += reset ? stripe.getAndSet(ERRORS, 0) : stripe.get(ERRORS);
+            sum += reset ? stripe.getAndSet(SUM, 0) : stripe.get(SUM);
+            max = Math.max(max, reset ? stripe.getAndSet(MAX, 0) : stripe.get(MAX));
+        }
+        return new Snapshot(counts, count, errors, sum, max);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Largest value that maps to {@code index}.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Merged, immutable view of a histogram.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long errors;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long errors, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.errors = errors;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Combines snapshots, e.g. the slots of a rolling window.
+         */
+        public static Snapshot merge(Iterable<Snapshot> snapshots) {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            long errors = 0;
+            long sum = 0;
+            long max = 0;
+            for (Snapshot snapshot : snapshots) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] += snapshot.counts[i];
+                }
+                count += snapshot.count;
+                errors += snapshot.errors;
+                sum += snapshot.sum;
+                max = Math.max(max, snapshot.max);
+            }
+            return new Snapshot(counts, count, errors, sum, max);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Upper bound of the bucket holding the value at {@code percentile} (0-100), capped
+         * at the largest recorded value; 0 when empty.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Head-sampling decision for one transaction name: a probability, a per-second budget,
+ * or both. {@link #ALWAYS} keeps every transaction.
+ *
+ * <p>The budget is a fixed window per wall-clock second. Window and count are packed into
+ * one {@code AtomicLong}, so taking a slot is a single CAS and never allocates.
+ */
+public final class SamplingRule {
+
+    /** No per-second limit. */
+    public static final long UNLIMITED = -1;
+
+    public static final SamplingRule ALWAYS = new SamplingRule(1.0, UNLIMITED);
+
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+    private final double rate;
+    private final long maxPerSecond;
+    private final AtomicLong window;
+
+    private SamplingRule(double rate, long maxPerSecond) {
+        this.rate = rate;
+        this.maxPerSecond = maxPerSecond;
+        this.window = maxPerSecond >= 0 ? new AtomicLong() : null;
+    }
+
+    /**
+     * @param rate         fraction of transactions kept, from 0 to 1
+     * @param maxPerSecond most transactions kept in any one second; any negative value,
+     *                     such as {@link #UNLIMITED}, means no limit
+     */
+    public static SamplingRule of(double rate, long maxPerSecond) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("rate must be between 0 and 1: " + rate);
+        }
+        if (maxPerSecond > COUNT_MASK) {
+            throw new IllegalArgumentException("maxPerSecond out of range: " + maxPerSecond);
+        }
+        if (maxPerSecond < 0) {
+            maxPerSecond = UNLIMITED;
+        }
+        if (rate == 1.0 && maxPerSecond == UNLIMITED) {
+            return ALWAYS;
+        }
+        return new SamplingRule(rate, maxPerSecond);
+    }
+
+    public static SamplingRule rate(double rate) {
+        return of(rate, UNLIMITED);
+    }
+
+    public static SamplingRule perSecond(long maxPerSecond) {
+        return of(1.0, maxPerSecond);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public long getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public boolean isAlways() {
+        return this == ALWAYS;
+    }
+
+    public boolean sample() {
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return false;
+        }
+        return window == null || tryAcquire(System.currentTimeMillis() / 1000);
+    }
+
+    boolean tryAcquire(long second) {
+        if (maxPerSecond == 0) {
+            return false;
+        }
+        for (;;) {
+            long state = window.get();
+            long used = state & COUNT_MASK;
+            long next;
+            if (state >>> 32 != second) {
+                next = (second << 32) | 1;
+            } else if (used < maxPerSecond) {
+                next = state + 1;
+            } else {
+                return false;
+            }
+            if (window.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    boolean hasSameSettings(SamplingRule other) {
+        return other != null && rate == other.rate && maxPerSecond == other.maxPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingRule{rate=" + rate + ", maxPerSecond=" + maxPerSecond + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * A finished child transaction as recorded on its parent: a reference to the child's data
+ * plus its timing, so nothing is copied until the root is closed or serialized.
+ */
+public final class Span {
+
+    private final TransactionData transaction;
+    private final long offsetNanos;
+    private final long durationNanos;
+    private final Throwable error;
+    /** Attributes the child had when it closed; later ones describe only the child. */
+    private final int attributeCount;
+
+    Span(TransactionData transaction, long offsetNanos, long durationNanos, Throwable error, int attributeCount) {
+        this.transaction = transaction;
+        this.offsetNanos = offsetNanos;
+        this.durationNanos = durationNanos;
+        this.error = error;
+        this.attributeCount = attributeCount;
+    }
+
+    public TransactionData getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Nanoseconds from the parent's start to the child's start.
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    int getAttributeCount() {
+        return attributeCount;
+    }
+}
@@ -0,0 +1,19 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+/**
+ * How the child transactions recorded as {@link Span}s on a parent appear in its record.
+ *
+ * @see TransactionData#setSpanMode(SpanMode)
+ */
+public enum SpanMode {
+    /**
+     * Children's attributes are merged into the root transaction when it closes, without
+     * overwriting keys already set closer to the root. The default.
+     */
+    FLATTEN,
+    /**
+     * Every record carries a {@code spans} array with one object per child: its name,
+     * {@code offset} from the parent's start, {@code timeTaken}, attributes and own spans.
+     */
+    NESTED
+}
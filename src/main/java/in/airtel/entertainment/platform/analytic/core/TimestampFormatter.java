@@ -0,0 +1,91 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Allocation-free UTC timestamp formatting of the form {@code yyyy-MM-dd'T'HH:mm:ss.SSS}
+ * followed by a fixed zone suffix.
+ *
+ * <p>The {@code yyyy-MM-ddTHH:mm:ss.} prefix is computed once per second and cached in a
+ * small table indexed by the low bits of the epoch second, so the start and end times of a
+ * transaction, or writers a second apart, do not evict each other. Formatting a timestamp
+ * in a cached second only appends the milliseconds and the suffix. {@link #write} writes
+ * straight into a {@link JsonWriter}.
+ */
+public final class TimestampFormatter {
+
+    /** {@code yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ} in UTC, as used for startTime/endTime. */
+    public static final TimestampFormatter TRANSACTION = new TimestampFormatter("+0000");
+
+    /** {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}, as used for {@code @timestamp}. */
+    public static final TimestampFormatter ISO_UTC = new TimestampFormatter("Z");
+
+    private static final int PREFIX_LENGTH = 20;
+
+    private static final int CACHE_SIZE = 8;
+
+    private final byte[] suffix;
+    // Entries are immutable records, so a racy read sees either a complete entry or an older one
+    private final CachedSecond[] cache = new CachedSecond[CACHE_SIZE];
+
+    private TimestampFormatter(String suffix) {
+        this.suffix = suffix.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the formatted timestamp, without quotes.
+     */
+    public void write(JsonWriter writer, long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        int slot = (int) (epochSecond & (CACHE_SIZE - 1));
+        CachedSecond current = cache[slot];
+        if (current == null || current.epochSecond != epochSecond) {
+            current = new CachedSecond(epochSecond, prefix(epochSecond));
+            cache[slot] = current;
+        }
+        writer.writeBytes(current.prefix);
+        writer.writePadded(Math.floorMod(epochMillis, 1000), 3);
+        writer.writeBytes(suffix);
+    }
+
+    /**
+     * Writes the formatted timestamp as a JSON string.
+     */
+    public void writeQuoted(JsonWriter writer, long epochMillis) {
+        writer.writeByte('"');
+        write(writer, epochMillis);
+        writer.writeByte('"');
+    }
+
+    public String format(long epochMillis) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            write(writer, epochMillis);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static byte[] prefix(long epochSecond) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        JsonWriter writer = new JsonWriter(PREFIX_LENGTH);
+        if (time.getYear() > 9999) {
+            writer.writeLong(time.getYear());
+        } else {
+            writer.writePadded(time.getYear(), 4);
+        }
+        writer.writeByte('-')
+              .writePadded(time.getMonthValue(), 2).writeByte('-')
+              .writePadded(time.getDayOfMonth(), 2).writeByte('T')
+              .writePadded(time.getHour(), 2).writeByte(':')
+              .writePadded(time.getMinute(), 2).writeByte(':')
+              .writePadded(time.getSecond(), 2).writeByte('.');
+        return writer.toByteArray();
+    }
+
+    private record CachedSecond(long epochSecond, byte[] prefix) {
+    }
+}
@@ -0,0 +1,90 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latency of completed transactions into one {@link LatencyHistogram} per
+ * transaction name, for names whose {@link AggregationMode} asks for it. An
+ * {@link AggregateReporter} drains the histograms once per interval.
+ *
+ * <p>Modes are replaced atomically by {@link #configure}. At most {@code maxNames}
+ * histograms are kept; transactions of further names are written as events.
+ */
+public final class TransactionAggregator {
+
+    private static final int DEFAULT_MAX_NAMES = 1000;
+
+    private static volatile Modes modes = new Modes(AggregationMode.EVENTS, Map.of(), DEFAULT_MAX_NAMES);
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private TransactionAggregator() {
+    }
+
+    /**
+     * Records {@code event} if its name is aggregated.
+     *
+     * @return whether the event should still be written to the sink
+     */
+    public static boolean record(AnalyticEvent event) {
+        Modes current = modes;
+        AggregationMode mode = current.modeFor(event.getTransactionName());
+        if (mode == AggregationMode.EVENTS) {
+            return true;
+        }
+        LatencyHistogram histogram = histogram(event.getTransactionName(), current.maxNames);
+        if (histogram == null) {
+            return true;
+        }
+        histogram.record(event.getTimeTaken(), event.getError() != null);
+        return mode == AggregationMode.BOTH;
+    }
+
+    public static AggregationMode getMode(String transactionName) {
+        return modes.modeFor(transactionName);
+    }
+
+    /**
+     * Replaces all modes. {@code null} arguments mean events only.
+     */
+    public static synchronized void configure(AggregationMode defaultMode, Map<String, AggregationMode> byName,
+                                              int maxNames) {
+        modes = new Modes(defaultMode != null ? defaultMode : AggregationMode.EVENTS,
+                byName != null ? Map.copyOf(new HashMap<>(byName)) : Map.of(), maxNames);
+    }
+
+    public static void reset() {
+        configure(null, null, DEFAULT_MAX_NAMES);
+        HISTOGRAMS.clear();
+    }
+
+    /**
+     * Live histograms by transaction name, for reporting.
+     */
+    static Map<String, LatencyHistogram> histograms() {
+        return HISTOGRAMS;
+    }
+
+    private static LatencyHistogram histogram(String transactionName, int maxNames) {
+        LatencyHistogram histogram = HISTOGRAMS.get(transactionName);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (HISTOGRAMS.size() >= maxNames) {
+            return null;
+        }
+        return HISTOGRAMS.computeIfAbsent(transactionName, name -> new LatencyHistogram());
+    }
+
+    private record Modes(AggregationMode defaultMode, Map<String, AggregationMode> byName, int maxNames) {
+
+        AggregationMode modeFor(String transactionName) {
+            if (byName.isEmpty()) {
+                return defaultMode;
+            }
+            return byName.getOrDefault(transactionName, defaultMode);
+        }
+    }
+}
@@ -1,42 +1,105 @@
 package in.airtel.entertainment.platform.analytic.core;
 
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class TransactionData {
 
-    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ";
-    private static final String TIMEZONE = "UTC";
+    private static volatile AnalyticClock clock = AnalyticClock.SYSTEM;
+    private static volatile SpanMode spanMode = SpanMode.FLATTEN;
 
-    private final String transactionName;
+    private volatile String transactionName;
     private final long startTime;
-    private final ConcurrentHashMap<String, Object> data;
+    private final long startNanos;
+    private final AttributeStore data;
+    /** Created on first use; guarded by {@code this}. */
+    private List<Accumulator> accumulators;
+    /** Created on first use; guarded by {@code this}. */
+    private List<Span> spans;
 
     public TransactionData(String transactionName) {
         this.transactionName = transactionName;
-        this.startTime = System.currentTimeMillis();
-        this.data = new ConcurrentHashMap<>();
+        this.startTime = clock.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.data = new AttributeStore();
+    }
+
+    private TransactionData(TransactionData source) {
+        this.transactionName = source.transactionName;
+        this.startTime = source.startTime;
+        this.startNanos = source.startNanos;
+        this.data = new AttributeStore();
+        source.data.copyTo(data);
+        List<Span> sourceSpans = source.getSpans();
+        if (!sourceSpans.isEmpty()) {
+            spans = new ArrayList<>(sourceSpans.size());
+            for (Span span : sourceSpans) {
+                spans.add(new Span(new TransactionData(span.getTransaction()), span.getOffsetNanos(),
+                        span.getDurationNanos(), span.getError(), span.getAttributeCount()));
+            }
+        }
+    }
+
+    /**
+     * A copy of this transaction and its spans, down to the last descendant, with the
+     * attributes they hold now. Later writes to either do not show in the other.
+     */
+    TransactionData snapshot() {
+        return new TransactionData(this);
     }
 
     public String getTransactionName() {
         return transactionName;
     }
 
+    /**
+     * Renames the transaction before it is closed, for owners that only learn the final name
+     * once the work is under way, such as {@code AnalyticWebFilter} after route matching.
+     */
+    public void rename(String newName) {
+        if (newName != null) {
+            transactionName = newName;
+        }
+    }
+
     public long getStartTime() {
         return startTime;
     }
 
+    /**
+     * {@link System#nanoTime()} at creation; durations are measured from here, so they are
+     * precise below a millisecond and unaffected by wall-clock adjustments.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
     public void put(String key, Object value) {
         if (key != null && value != null) {
             data.put(key, value);
         }
     }
 
+    /**
+     * Stores a numeric attribute without boxing it.
+     */
+    public void putLong(String key, long value) {
+        if (key != null) {
+            data.putLong(key, value);
+        }
+    }
+
+    /**
+     * Stores a numeric attribute without boxing it.
+     */
+    public void putDouble(String key, double value) {
+        if (key != null) {
+            data.putDouble(key, value);
+        }
+    }
+
     public void putAll(Map<String, Object> values) {
         if (values != null) {
             values.forEach((k, v) -> {
@@ -47,32 +110,166 @@ public class TransactionData {
         }
     }
 
+    /**
+     * Copies all attributes of {@code other} into this transaction, keeping numeric
+     * attributes unboxed. Used to promote a child's data to its parent.
+     */
+    public void putAll(TransactionData other) {
+        if (other != null) {
+            other.data.copyTo(data);
+        }
+    }
+
+    /**
+     * Returns the accumulator for {@code key}, creating it on first use. Its value is written
+     * as the {@code key} attribute when the transaction is closed, replacing any value put
+     * directly.
+     *
+     * @throws IllegalArgumentException if {@code key} already accumulates a different kind
+     */
+    public synchronized Accumulator accumulator(String key, Accumulator.Kind kind) {
+        if (accumulators == null) {
+            accumulators = new ArrayList<>(2);
+        }
+        for (Accumulator accumulator : accumulators) {
+            if (accumulator.getKey().equals(key)) {
+                if (accumulator.getKind() != kind) {
+                    throw new IllegalArgumentException("'" + key + "' already accumulates a "
+                            + accumulator.getKind());
+                }
+                return accumulator;
+            }
+        }
+        Accumulator accumulator = new Accumulator(key, kind);
+        accumulators.add(accumulator);
+        return accumulator;
+    }
+
+    /**
+     * Records a closed child transaction as a span of this one. Its attributes are not
+     * copied here; see {@link #mergeSpans()}.
+     */
+    public void addSpan(AnalyticEvent child) {
+        TransactionData transaction = child.getTransaction();
+        int attributeCount;
+        synchronized (transaction.data) {
+            attributeCount = transaction.data.size();
+        }
+        Span span = new Span(transaction, transaction.startNanos - startNanos, child.getTimeTakenNanos(),
+                child.getError(), attributeCount);
+        synchronized (this) {
+            if (spans == null) {
+                spans = new ArrayList<>(2);
+            }
+            spans.add(span);
+        }
+    }
+
+    /**
+     * The child transactions recorded so far, in the order they closed.
+     */
+    public synchronized List<Span> getSpans() {
+        return spans == null ? List.of() : List.copyOf(spans);
+    }
+
+    /**
+     * Called once on every transaction after it is closed, before it is recorded as a span
+     * of its parent. With {@link SpanMode#FLATTEN}, merges the attributes of its spans into
+     * this transaction in closing order, overwriting keys already present, and drops the
+     * spans. Each child has merged its own subtree the same way, so every record holds its
+     * descendants' attributes, and descendants' values win over their ancestors' and later
+     * children's over earlier ones, as when each child was copied into its parent on close.
+     * With {@link SpanMode#NESTED}, does nothing: the spans are rendered with the record.
+     */
+    public void mergeSpans() {
+        if (spanMode != SpanMode.FLATTEN) {
+            return;
+        }
+        List<Span> children;
+        synchronized (this) {
+            children = spans;
+            spans = null;
+        }
+        if (children != null) {
+            merge(children, data);
+        }
+    }
+
+    private static void merge(List<Span> children, AttributeStore target) {
+        for (Span span : children) {
+            TransactionData child = span.getTransaction();
+            child.data.copyTo(target, span.getAttributeCount());
+            List<Span> grandchildren;
+            synchronized (child) {
+                grandchildren = child.spans;
+            }
+            if (grandchildren != null) {
+                merge(grandchildren, target);
+            }
+        }
+    }
+
     public Object get(String key) {
         return data.get(key);
     }
 
+    /**
+     * Returns an unmodifiable, insertion-ordered snapshot of the attributes. Numeric
+     * attributes stored with {@link #putLong} or {@link #putDouble} are boxed here.
+     */
     public Map<String, Object> getData() {
-        return Collections.unmodifiableMap(data);
+        return Collections.unmodifiableMap(data.toMap());
     }
 
     public Map<String, Object> toEndMap(Throwable error) {
-        long endTime = System.currentTimeMillis();
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("transactionName", transactionName);
-        result.put("startTime", formatTime(startTime));
-        result.put("endTime", formatTime(endTime));
-        result.put("timeTaken", endTime - startTime);
-        result.putAll(data);
-        if (error != null) {
-            result.put("exceptionMessage", error.getMessage());
-            result.put("exceptionClass", error.getClass().getName());
-        }
-        return result;
-    }
-
-    private static String formatTime(long millis) {
-        SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT);
-        sdf.setTimeZone(TimeZone.getTimeZone(TIMEZONE));
-        return sdf.format(new Date(millis));
+        return toEvent(error).toMap();
+    }
+
+    /**
+     * Closes the transaction at the current time and returns its end-of-transaction
+     * record, writing the totals of its accumulators first. The record references this
+     * transaction's data rather than copying it.
+     */
+    public AnalyticEvent toEvent(Throwable error) {
+        long endNanos = System.nanoTime();
+        long endTime = clock.currentTimeMillis();
+        writeAccumulators();
+        return new AnalyticEvent(this, endTime, endNanos, error);
+    }
+
+    private synchronized void writeAccumulators() {
+        if (accumulators != null) {
+            for (Accumulator accumulator : accumulators) {
+                accumulator.writeTo(this);
+            }
+        }
+    }
+
+    AttributeStore attributes() {
+        return data;
+    }
+
+    /**
+     * Replaces the clock used for start and end times of all transactions, e.g. with a
+     * {@link CachedClock}. {@code null} restores {@link AnalyticClock#SYSTEM}.
+     */
+    public static void setClock(AnalyticClock newClock) {
+        clock = newClock != null ? newClock : AnalyticClock.SYSTEM;
+    }
+
+    public static AnalyticClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets how child transactions appear in their parents' records. {@code null} restores
+     * {@link SpanMode#FLATTEN}.
+     */
+    public static void setSpanMode(SpanMode mode) {
+        spanMode = mode != null ? mode : SpanMode.FLATTEN;
+    }
+
+    public static SpanMode getSpanMode() {
+        return spanMode;
     }
 }
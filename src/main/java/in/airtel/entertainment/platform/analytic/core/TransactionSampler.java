@@ -0,0 +1,70 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides, once per subscription and before any {@link TransactionData} is allocated,
+ * whether a transaction is recorded.
+ *
+ * <p>A rule configured for the transaction name wins; otherwise the rule declared on
+ * {@code @AnalyseTransaction} applies; otherwise the default rule, which keeps everything
+ * unless configured. Rules are replaced atomically by {@link #configure}, which is how
+ * configuration reloads are applied; a rule whose settings did not change keeps its
+ * per-second budget across the reload.
+ */
+public final class TransactionSampler {
+
+    private static volatile Rules rules = new Rules(SamplingRule.ALWAYS, Map.of());
+
+    private TransactionSampler() {
+    }
+
+    public static boolean isSampled(String transactionName) {
+        return isSampled(transactionName, null);
+    }
+
+    /**
+     * @param declared rule from the annotation or call site, or null
+     */
+    public static boolean isSampled(String transactionName, SamplingRule declared) {
+        Rules current = rules;
+        SamplingRule rule = current.byName.isEmpty() ? null : current.byName.get(transactionName);
+        if (rule == null) {
+            rule = declared != null ? declared : current.defaultRule;
+        }
+        return rule.isAlways() || rule.sample();
+    }
+
+    /**
+     * Replaces all rules. {@code null} arguments mean keep everything.
+     */
+    public static synchronized void configure(SamplingRule defaultRule, Map<String, SamplingRule> byName) {
+        Rules previous = rules;
+        SamplingRule newDefault = reuse(previous.defaultRule, defaultRule != null ? defaultRule : SamplingRule.ALWAYS);
+        Map<String, SamplingRule> newRules = new HashMap<>();
+        if (byName != null) {
+            byName.forEach((name, rule) -> newRules.put(name, reuse(previous.byName.get(name), rule)));
+        }
+        rules = new Rules(newDefault, Map.copyOf(newRules));
+    }
+
+    public static void reset() {
+        configure(null, null);
+    }
+
+    public static SamplingRule getDefaultRule() {
+        return rules.defaultRule;
+    }
+
+    public static SamplingRule getRule(String transactionName) {
+        return rules.byName.get(transactionName);
+    }
+
+    private static SamplingRule reuse(SamplingRule previous, SamplingRule next) {
+        return next.hasSameSettings(previous) ? previous : next;
+    }
+
+    private record Rules(SamplingRule defaultRule, Map<String, SamplingRule> byName) {
+    }
+}
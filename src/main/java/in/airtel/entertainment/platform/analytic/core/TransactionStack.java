@@ -1,54 +1,66 @@
 package in.airtel.entertainment.platform.analytic.core;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
+/**
+ * Immutable stack of open transactions, stored in the Reactor Context.
+ *
+ * <p>A persistent cons-list: each instance holds its top transaction and a reference to
+ * the stack below it, so {@link #push} allocates one node and {@link #pop},
+ * {@link #peek} and {@link #getParent} are constant time. Stacks share their tails, which
+ * is safe because nothing is ever mutated.
+ */
 public final class TransactionStack {
 
-    private final List<TransactionData> stack;
+    private static final TransactionStack EMPTY = new TransactionStack(null, null, 0);
+
+    /**
+     * Marks a subscription whose transaction was not sampled. It is empty, so updates and
+     * flushes below it do nothing, and nested traces see it and skip themselves.
+     */
+    private static final TransactionStack UNSAMPLED = new TransactionStack(null, null, 0);
 
-    private TransactionStack(List<TransactionData> stack) {
-        this.stack = Collections.unmodifiableList(stack);
+    private final TransactionData top;
+    private final TransactionStack below;
+    private final int size;
+
+    private TransactionStack(TransactionData top, TransactionStack below, int size) {
+        this.top = top;
+        this.below = below;
+        this.size = size;
     }
 
     public static TransactionStack empty() {
-        return new TransactionStack(Collections.emptyList());
+        return EMPTY;
+    }
+
+    public static TransactionStack unsampled() {
+        return UNSAMPLED;
+    }
+
+    public boolean isUnsampled() {
+        return this == UNSAMPLED;
     }
 
     public TransactionStack push(TransactionData transaction) {
-        List<TransactionData> newStack = new ArrayList<>(stack);
-        newStack.add(transaction);
-        return new TransactionStack(newStack);
+        return new TransactionStack(transaction, this, size + 1);
     }
 
     public TransactionStack pop() {
-        if (stack.isEmpty()) {
-            return this;
-        }
-        List<TransactionData> newStack = new ArrayList<>(stack.subList(0, stack.size() - 1));
-        return new TransactionStack(newStack);
+        return below != null ? below : this;
     }
 
     public TransactionData peek() {
-        if (stack.isEmpty()) {
-            return null;
-        }
-        return stack.get(stack.size() - 1);
+        return top;
     }
 
     public boolean isEmpty() {
-        return stack.isEmpty();
+        return size == 0;
     }
 
     public int size() {
-        return stack.size();
+        return size;
     }
 
     public TransactionData getParent() {
-        if (stack.size() < 2) {
-            return null;
-        }
-        return stack.get(stack.size() - 2);
+        return below != null ? below.top : null;
     }
 }
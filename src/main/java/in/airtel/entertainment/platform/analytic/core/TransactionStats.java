@@ -0,0 +1,233 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-name statistics over a rolling window: transactions in flight, and the count,
+ * errors and latency distribution of those that completed within the window.
+ *
+ * <p>Disabled by default, when recording costs one volatile read. Once {@link #enable}d,
+ * opening a transaction increments a {@link LongAdder} and completing one records into the
+ * {@link LatencyHistogram} of the current window slot; no locks are taken. The window is a
+ * ring of slots; a slot that has fallen out of the window is replaced by a fresh one on the
+ * next record, so a value recorded concurrently with that replacement may be lost.
+ *
+ * <p>Transactions are counted whether or not they are sampled, so the statistics show the
+ * real traffic: callers report {@link #started} before the sampling decision, and complete
+ * unsampled transactions with {@link #completed(String, long, boolean)}.
+ */
+public final class TransactionStats {
+
+    private static final int SLOT_STRIPES = 2;
+
+    private static volatile Window window;
+
+    private static final ConcurrentHashMap<String, NameStats> STATS = new ConcurrentHashMap<>();
+
+    private TransactionStats() {
+    }
+
+    /**
+     * Starts collecting over a window of {@code slots} slots spanning {@code length}, keeping
+     * at most {@code maxNames} transaction names. Replaces any previous statistics.
+     */
+    public static synchronized void enable(Duration length, int slots, int maxNames) {
+        if (slots < 1 || length.toMillis() < slots) {
+            throw new IllegalArgumentException("window must be at least one millisecond per slot: "
+                    + length + " / " + slots);
+        }
+        STATS.clear();
+        window = new Window(length.toMillis() / slots, slots, maxNames);
+    }
+
+    public static synchronized void disable() {
+        window = null;
+        STATS.clear();
+    }
+
+    public static boolean isEnabled() {
+        return window != null;
+    }
+
+    /**
+     * Called when a transaction is opened.
+     */
+    public static void started(String transactionName) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+        NameStats stats = statsFor(current, transactionName);
+        if (stats != null) {
+            stats.inFlight.increment();
+        }
+    }
+
+    /**
+     * Called when an open transaction is renamed from {@code from} to {@code to}; moves it
+     * between the in-flight counts.
+     */
+    public static void renamed(String from, String to) {
+        Window current = window;
+        if (current == null || from.equals(to)) {
+            return;
+        }
+        NameStats previous = STATS.get(from);
+        if (previous != null) {
+            previous.inFlight.decrement();
+        }
+        NameStats next = statsFor(current, to);
+        if (next != null) {
+            next.inFlight.increment();
+        }
+    }
+
+    /**
+     * Called once for every completed transaction.
+     */
+    public static void completed(AnalyticEvent event) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+        record(current, event.getTransactionName(), event.getEndTime(), event.getTimeTaken(),
+                event.getError() != null);
+    }
+
+    /**
+     * Called once for every completed transaction that was not sampled, so has no event;
+     * {@code startNanos} is {@link System#nanoTime()} when it was opened.
+     */
+    public static void completed(String transactionName, long startNanos, boolean error) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+        long timeTaken = (System.nanoTime() - startNanos) / 1_000_000;
+        record(current, transactionName, TransactionData.getClock().currentTimeMillis(), timeTaken, error);
+    }
+
+    private static void record(Window current, String transactionName, long endTime, long timeTaken,
+                               boolean error) {
+        NameStats stats = statsFor(current, transactionName);
+        if (stats != null) {
+            stats.inFlight.decrement();
+            stats.slotFor(endTime / current.slotMillis).record(timeTaken, error);
+        }
+    }
+
+    /**
+     * Statistics of every known transaction name, sorted by name; empty when disabled.
+     */
+    public static Map<String, Summary> summaries() {
+        Window current = window;
+        Map<String, Summary> result = new TreeMap<>();
+        if (current == null) {
+            return result;
+        }
+        long now = TransactionData.getClock().currentTimeMillis();
+        long epoch = now / current.slotMillis;
+        // The current slot is only partly elapsed
+        double seconds = ((current.slots - 1) * current.slotMillis + now % current.slotMillis + 1) / 1000.0;
+        STATS.forEach((name, stats) -> result.put(name,
+                new Summary(Math.max(0, stats.inFlight.sum()), stats.window(epoch), seconds)));
+        return result;
+    }
+
+    private static NameStats statsFor(Window current, String transactionName) {
+        NameStats stats = STATS.get(transactionName);
+        if (stats != null) {
+            return stats;
+        }
+        if (STATS.size() >= current.maxNames) {
+            return null;
+        }
+        return STATS.computeIfAbsent(transactionName, name -> new NameStats(current.slots));
+    }
+
+    private record Window(long slotMillis, int slots, int maxNames) {
+    }
+
+    private static final class Slot {
+        final long epoch;
+        final LatencyHistogram histogram = new LatencyHistogram(SLOT_STRIPES);
+
+        Slot(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class NameStats {
+        final LongAdder inFlight = new LongAdder();
+        final AtomicReferenceArray<Slot> slots;
+
+        NameStats(int slots) {
+            this.slots = new AtomicReferenceArray<>(slots);
+        }
+
+        LatencyHistogram slotFor(long epoch) {
+            int index = (int) (epoch % slots.length());
+            Slot slot = slots.get(index);
+            while (slot == null || slot.epoch < epoch) {
+                Slot fresh = new Slot(epoch);
+                if (slots.compareAndSet(index, slot, fresh)) {
+                    return fresh.histogram;
+                }
+                slot = slots.get(index);
+            }
+            // A late event whose slot has already been reused is counted in the newer slot
+            return slot.histogram;
+        }
+
+        LatencyHistogram.Snapshot window(long epoch) {
+            List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                Slot slot = slots.get(i);
+                if (slot != null && slot.epoch > epoch - slots.length() && slot.epoch <= epoch) {
+                    snapshots.add(slot.histogram.snapshot());
+                }
+            }
+            return LatencyHistogram.Snapshot.merge(snapshots);
+        }
+    }
+
+    /**
+     * One transaction name's statistics at the time of the call.
+     */
+    public static final class Summary {
+        private final long inFlight;
+        private final LatencyHistogram.Snapshot window;
+        private final double windowSeconds;
+
+        Summary(long inFlight, LatencyHistogram.Snapshot window, double windowSeconds) {
+            this.inFlight = inFlight;
+            this.window = window;
+            this.windowSeconds = windowSeconds;
+        }
+
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Transactions completed within the window.
+         */
+        public LatencyHistogram.Snapshot getWindow() {
+            return window;
+        }
+
+        /**
+         * Completed transactions per second over the window.
+         */
+        public double getThroughput() {
+            return window.getCount() / windowSeconds;
+        }
+    }
+}
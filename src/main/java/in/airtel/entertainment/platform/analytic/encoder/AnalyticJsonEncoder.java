@@ -2,17 +2,17 @@ package in.airtel.entertainment.platform.analytic.encoder;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.encoder.EncoderBase;
+import in.airtel.entertainment.platform.analytic.core.JsonWritable;
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import in.airtel.entertainment.platform.analytic.core.TimestampFormatter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 public class AnalyticJsonEncoder extends EncoderBase<ILoggingEvent> {
 
-    private static final DateTimeFormatter TIMESTAMP_FORMAT =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
-
     private static final byte[] LINE_SEP = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
 
     @Override
@@ -22,56 +22,93 @@ public class AnalyticJsonEncoder extends EncoderBase<ILoggingEvent> {
 
     @Override
     public byte[] encode(ILoggingEvent event) {
-        StringBuilder sb = new StringBuilder(512);
-        sb.append("{");
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            write(event, writer);
+            return writer.toByteArray();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Encodes {@code event} and writes the UTF-8 bytes straight to {@code out}, skipping the
+     * {@code byte[]} that {@link #encode} has to return. Used by
+     * {@link AnalyticRollingFileAppender}.
+     */
+    public void encodeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            write(event, writer);
+            writer.writeTo(out);
+        } finally {
+            writer.release();
+        }
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void write(ILoggingEvent event, JsonWriter writer) {
+        writer.beginObject();
 
         // @timestamp
-        Instant instant = Instant.ofEpochMilli(event.getTimeStamp());
-        sb.append("\"@timestamp\":\"").append(TIMESTAMP_FORMAT.format(instant)).append("\"");
+        writer.writeKey("@timestamp");
+        TimestampFormatter.ISO_UTC.writeQuoted(writer, event.getTimeStamp());
 
         // level
-        sb.append(",\"level\":\"").append(event.getLevel().toString()).append("\"");
-        sb.append(",\"log_type\":\"LOGSTASH\"");
+        writer.comma().writeKey("level").writeString(event.getLevel().toString());
+        writer.comma().writeKey("log_type").writeString("LOGSTASH");
 
         // loggerName
-        sb.append(",\"loggerName\":\"").append(escapeJson(event.getLoggerName())).append("\"");
+        writer.comma().writeKey("loggerName").writeString(nullToEmpty(event.getLoggerName()));
 
         // MDC: include all MDC properties (e.g., correlationid)
-        if (event.getMDCPropertyMap() != null && !event.getMDCPropertyMap().isEmpty()) {
-            event.getMDCPropertyMap().forEach((key, value) -> {
-                sb.append(",\"").append(escapeJson(key)).append("\":\"")
-                  .append(escapeJson(value)).append("\"");
-            });
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null && !mdc.isEmpty()) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                writer.comma().writeKey(entry.getKey()).writeString(nullToEmpty(entry.getValue()));
+            }
         }
 
-        // The message itself is the transaction JSON — embed as "transaction" field
-        String message = event.getFormattedMessage();
-        if (message != null && message.startsWith("{") && message.endsWith("}")) {
-            sb.append(",\"transaction\":").append(message);
-        } else if (message != null) {
-            sb.append(",\"message\":\"").append(escapeJson(message)).append("\"");
+        JsonWritable record = structuredRecord(event);
+        if (record != null) {
+            // Structured path: the record serializes itself, no intermediate JSON string
+            writer.comma().writeKey("transaction");
+            record.writeJson(writer);
+        } else {
+            // The message itself is the transaction JSON — embed as "transaction" field
+            String message = event.getFormattedMessage();
+            if (message != null && message.startsWith("{") && message.endsWith("}")) {
+                writer.comma().writeKey("transaction").writeRaw(message);
+            } else if (message != null) {
+                writer.comma().writeKey("message").writeString(message);
+            }
         }
 
-        sb.append("}");
+        writer.endObject();
+        writer.writeBytes(LINE_SEP);
+    }
 
-        byte[] jsonBytes = sb.toString().getBytes(StandardCharsets.UTF_8);
-        byte[] result = new byte[jsonBytes.length + LINE_SEP.length];
-        System.arraycopy(jsonBytes, 0, result, 0, jsonBytes.length);
-        System.arraycopy(LINE_SEP, 0, result, jsonBytes.length, LINE_SEP.length);
-        return result;
+    /**
+     * True if {@code event} carries a {@link JsonWritable} record logged as {@code "{}"}.
+     */
+    static boolean isStructured(ILoggingEvent event) {
+        return structuredRecord(event) != null;
     }
 
-    @Override
-    public byte[] footerBytes() {
+    private static JsonWritable structuredRecord(ILoggingEvent event) {
+        Object[] args = event.getArgumentArray();
+        if (args != null && args.length == 1 && args[0] instanceof JsonWritable record
+                && "{}".equals(event.getMessage())) {
+            return record;
+        }
         return null;
     }
 
-    private static String escapeJson(String text) {
-        if (text == null) return "";
-        return text.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+    private static String nullToEmpty(String text) {
+        return text == null ? "" : text;
     }
 }
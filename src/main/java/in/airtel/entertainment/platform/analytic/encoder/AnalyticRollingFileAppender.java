@@ -0,0 +1,92 @@
+package in.airtel.entertainment.platform.analytic.encoder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.status.ErrorStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link RollingFileAppender} that lets an {@link AnalyticJsonEncoder} write each event
+ * straight into the file stream from its reusable buffer, instead of going through the
+ * {@code byte[]} returned by {@code Encoder.encode}.
+ *
+ * <p>For structured analytic records it also skips
+ * {@code LoggingEvent.prepareForDeferredProcessing()}, which the stock appender calls on
+ * every event and which would render the record to a JSON string only to throw it away.
+ * Rolling and triggering behave as in the parent; prudent mode, other encoders and plain
+ * messages take the standard path. Every event checks the triggering policy under the same
+ * lock, whichever path it takes.
+ */
+public class AnalyticRollingFileAppender extends RollingFileAppender<ILoggingEvent> {
+
+    private final ReentrantLock triggerLock = new ReentrantLock();
+    private String activeFileName;
+    private File activeFile;
+
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        if (!canWriteDirect() || !AnalyticJsonEncoder.isStructured(event)) {
+            // The parent checks the trigger under its own lock; hold ours too, so a plain and
+            // a structured event cannot evaluate the policy and roll over at the same time
+            triggerLock.lock();
+            try {
+                super.subAppend(event);
+            } finally {
+                triggerLock.unlock();
+            }
+            return;
+        }
+        if (!isStarted()) {
+            return;
+        }
+        triggerLock.lock();
+        try {
+            if (getTriggeringPolicy().isTriggeringEvent(activeFile(), event)) {
+                rollover();
+            }
+        } finally {
+            triggerLock.unlock();
+        }
+        try {
+            writeOut(event);
+        } catch (IOException e) {
+            started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, e));
+        }
+    }
+
+    @Override
+    protected void writeOut(ILoggingEvent event) throws IOException {
+        if (!canWriteDirect()) {
+            super.writeOut(event);
+            return;
+        }
+        streamWriteLock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            ((AnalyticJsonEncoder) encoder).encodeTo(event, out);
+            if (isImmediateFlush()) {
+                out.flush();
+            }
+        } finally {
+            streamWriteLock.unlock();
+        }
+    }
+
+    private boolean canWriteDirect() {
+        return !isPrudent() && encoder instanceof AnalyticJsonEncoder;
+    }
+
+    private File activeFile() {
+        String name = getFile();
+        if (!name.equals(activeFileName)) {
+            activeFileName = name;
+            activeFile = new File(name);
+        }
+        return activeFile;
+    }
+}
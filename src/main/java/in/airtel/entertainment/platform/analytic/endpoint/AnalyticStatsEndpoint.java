@@ -0,0 +1,91 @@
+package in.airtel.entertainment.platform.analytic.endpoint;
+
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import in.airtel.entertainment.platform.analytic.core.LatencyHistogram;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Serves {@link TransactionStats} as JSON: per transaction name, the transactions in flight
+ * and the throughput, errors and latency percentiles over the rolling window. Creating the
+ * endpoint enables collection; closing it disables collection again.
+ *
+ * <pre>
+ * {"windowSeconds":60,"transactions":{"getRecommendation":{"inFlight":3,"count":4211,
+ *   "throughput":70.18,"errorCount":2,"errorRate":4.7E-4,"mean":17.2,"p50":14,"p90":31,
+ *   "p99":63,"p999":191,"max":412}}}
+ * </pre>
+ */
+public class AnalyticStatsEndpoint implements AutoCloseable {
+
+    private final long windowSeconds;
+
+    public AnalyticStatsEndpoint(Duration window, int slots, int maxNames) {
+        TransactionStats.enable(window, slots, maxNames);
+        this.windowSeconds = window.toSeconds();
+    }
+
+    public RouterFunction<ServerResponse> routes(String path) {
+        return RouterFunctions.route(RequestPredicates.GET(path), this::handle);
+    }
+
+    Mono<ServerResponse> handle(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(render());
+    }
+
+    byte[] render() {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.beginObject();
+            writer.writeKey("windowSeconds").writeLong(windowSeconds);
+            writer.comma().writeKey("transactions").beginObject();
+            boolean first = true;
+            for (Map.Entry<String, TransactionStats.Summary> entry : TransactionStats.summaries().entrySet()) {
+                if (!first) {
+                    writer.comma();
+                }
+                first = false;
+                writer.writeKey(entry.getKey());
+                writeSummary(writer, entry.getValue());
+            }
+            writer.endObject();
+            writer.endObject();
+            return writer.toByteArray();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static void writeSummary(JsonWriter writer, TransactionStats.Summary summary) {
+        LatencyHistogram.Snapshot window = summary.getWindow();
+        writer.beginObject();
+        writer.writeKey("inFlight").writeLong(summary.getInFlight());
+        writer.comma().writeKey("count").writeLong(window.getCount());
+        writer.comma().writeKey("throughput").writeDouble(summary.getThroughput());
+        writer.comma().writeKey("errorCount").writeLong(window.getErrorCount());
+        writer.comma().writeKey("errorRate").writeDouble(window.getErrorRate());
+        writer.comma().writeKey("mean").writeDouble(window.getMean());
+        writer.comma().writeKey("p50").writeLong(window.getValueAtPercentile(50));
+        writer.comma().writeKey("p90").writeLong(window.getValueAtPercentile(90));
+        writer.comma().writeKey("p99").writeLong(window.getValueAtPercentile(99));
+        writer.comma().writeKey("p999").writeLong(window.getValueAtPercentile(99.9));
+        writer.comma().writeKey("max").writeLong(window.getMax());
+        writer.endObject();
+    }
+
+    @Override
+    public void close() {
+        TransactionStats.disable();
+    }
+}
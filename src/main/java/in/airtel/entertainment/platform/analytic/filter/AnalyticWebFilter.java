@@ -1,23 +1,82 @@
 package in.airtel.entertainment.platform.analytic.filter;
 
 import in.airtel.entertainment.platform.analytic.core.AnalyticContextKeys;
-import in.airtel.entertainment.platform.analytic.core.AnalyticJsonLogger;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
 import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
 import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+/**
+ * Records every request as a root transaction named {@code "<method> <route>"}.
+ *
+ * <p>The route is the pattern of the matched handler or router function, e.g.
+ * {@code GET /content/{id}}, which is only known once the request has been routed. Until then
+ * (for sampling and the in-flight count) and for requests no route matched, the raw path is
+ * passed through a {@link PathNormalizer}. Sampling rules therefore match that normalized
+ * name, such as {@code GET /content/{id}}, not the route name the record ends up with.
+ *
+ * <p>Every request is counted in {@link TransactionStats}, sampled or not, so the live
+ * statistics show the real traffic.
+ *
+ * <p>Only the name a request completes under is interned in a bounded set; once it holds
+ * {@code maxNames} names, further ones become the overflow name.
+ *
+ * <p>Sampled requests also record {@code httpStatus}, {@code requestBytes},
+ * {@code responseBytes} and {@code timeToFirstByte}, counting body buffers as they pass
+ * without copying them.
+ */
 public class AnalyticWebFilter implements WebFilter {
 
+    public static final int DEFAULT_MAX_NAMES = 1000;
+
+    public static final String DEFAULT_OVERFLOW_NAME = "other";
+
+    private final PathNormalizer normalizer;
+    private final TransactionNames names;
+
+    public AnalyticWebFilter() {
+        this(PathNormalizer.IDS, DEFAULT_MAX_NAMES, DEFAULT_OVERFLOW_NAME);
+    }
+
+    public AnalyticWebFilter(PathNormalizer normalizer, int maxNames, String overflowName) {
+        this.normalizer = normalizer;
+        this.names = new TransactionNames(maxNames, overflowName);
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
         String method = request.getMethod().name();
-        String transactionName = method + " " + path;
+        // Provisional until routing; not interned, so unrouted paths cannot fill the name set
+        String transactionName = method + " " + normalizer.normalize(path);
+
+        TransactionStats.started(transactionName);
+        if (!TransactionSampler.isSampled(transactionName)) {
+            Mono<Void> unsampled = chain.filter(exchange)
+                    .contextWrite(ctx -> ctx.put(AnalyticContextKeys.TRANSACTION_STACK_KEY,
+                            TransactionStack.unsampled()));
+            if (!TransactionStats.isEnabled()) {
+                return unsampled;
+            }
+            long startNanos = System.nanoTime();
+            return unsampled.doFinally(signalType -> {
+                String finalName = finalName(exchange, method, transactionName);
+                TransactionStats.renamed(transactionName, finalName);
+                TransactionStats.completed(finalName, startNanos, signalType == SignalType.ON_ERROR);
+            });
+        }
 
         TransactionData rootTx = new TransactionData(transactionName);
         rootTx.put("httpMethod", method);
@@ -28,15 +87,42 @@ public class AnalyticWebFilter implements WebFilter {
             rootTx.put("correlationid", correlationId);
         }
 
-        return chain.filter(exchange)
+        ExchangeMeter meter = new ExchangeMeter(rootTx.getStartNanos());
+        ServerWebExchange metered = meter.decorate(exchange);
+
+        return chain.filter(metered)
                 .contextWrite(ctx -> {
                     TransactionStack stack = ctx.getOrDefault(
                             AnalyticContextKeys.TRANSACTION_STACK_KEY, TransactionStack.empty());
                     return ctx.put(AnalyticContextKeys.TRANSACTION_STACK_KEY, stack.push(rootTx));
                 })
+                .doOnError(meter::failed)
                 .doFinally(signalType -> {
+                    String finalName = finalName(exchange, method, transactionName);
+                    if (!finalName.equals(transactionName)) {
+                        rootTx.rename(finalName);
+                        TransactionStats.renamed(transactionName, finalName);
+                    }
+                    meter.record(metered.getResponse(), rootTx);
                     rootTx.put("signalType", signalType.name());
-                    AnalyticJsonLogger.log(rootTx.toEndMap(null));
+                    AnalyticEvent event = rootTx.toEvent(meter.getError());
+                    rootTx.mergeSpans();
+                    AnalyticDispatcher.dispatch(event);
                 });
     }
+
+    /**
+     * The matched route's name, or the provisional name when no route matched, interned in
+     * the bounded name set.
+     */
+    private String finalName(ServerWebExchange exchange, String method, String provisionalName) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            pattern = exchange.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+        }
+        if (pattern instanceof PathPattern pathPattern) {
+            return names.intern(method + " " + pathPattern.getPatternString());
+        }
+        return names.intern(provisionalName);
+    }
 }
@@ -0,0 +1,130 @@
+package in.airtel.entertainment.platform.analytic.filter;
+
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the body bytes of one exchange as they pass, from {@link DataBuffer#readableByteCount()}
+ * alone: buffers are neither copied nor held, and a {@link Mono} body stays a {@code Mono}
+ * so the server can still write it in one go. Also notes when the response is committed.
+ *
+ * <p>Body buffers of one direction are signalled serially, so each count has a single
+ * writer; the fields are volatile for the thread that finally reads them.
+ */
+final class ExchangeMeter {
+
+    private final long startNanos;
+    private volatile long requestBytes;
+    private volatile long responseBytes;
+    private volatile long firstByteNanos;
+    private volatile Throwable error;
+    private volatile HttpStatusCode errorStatus;
+
+    ExchangeMeter(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    ServerWebExchange decorate(ServerWebExchange exchange) {
+        ServerHttpResponse response = new MeteredResponse(exchange.getResponse());
+        response.beforeCommit(() -> {
+            firstByteNanos = System.nanoTime();
+            return Mono.empty();
+        });
+        return exchange.mutate()
+                .request(new MeteredRequest(exchange.getRequest()))
+                .response(response)
+                .build();
+    }
+
+    /**
+     * Notes an error from the filter chain, and the status the server will answer it with:
+     * the status an {@link ErrorResponse} such as {@code ResponseStatusException} carries,
+     * else 500. The {@code WebExceptionHandler}s that write it run outside the chain and may
+     * not have set the status yet when {@link #record} runs.
+     */
+    void failed(Throwable error) {
+        this.error = error;
+        errorStatus = error instanceof ErrorResponse response
+                ? response.getStatusCode()
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * The error noted by {@link #failed}, or null if the filter chain did not fail.
+     */
+    Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Puts {@code httpStatus}, {@code requestBytes}, {@code responseBytes} and, once the
+     * response was committed, {@code timeToFirstByte} in milliseconds on {@code transaction}.
+     * An error response not yet committed by then gets the status noted by {@link #failed}
+     * and no {@code timeToFirstByte}.
+     */
+    void record(ServerHttpResponse response, TransactionData transaction) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status == null && response.isCommitted()) {
+            // Committed without an explicit status: the server sent its default
+            status = HttpStatus.OK;
+        } else if (!response.isCommitted() && errorStatus != null) {
+            status = errorStatus;
+        }
+        if (status != null) {
+            transaction.putLong("httpStatus", status.value());
+        }
+        transaction.putLong("requestBytes", requestBytes);
+        transaction.putLong("responseBytes", responseBytes);
+        long firstByte = firstByteNanos;
+        if (firstByte != 0) {
+            transaction.putDouble("timeToFirstByte", (firstByte - startNanos) / 1_000_000.0);
+        }
+    }
+
+    private final class MeteredRequest extends ServerHttpRequestDecorator {
+
+        MeteredRequest(ServerHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doOnNext(buffer -> requestBytes += buffer.readableByteCount());
+        }
+    }
+
+    private final class MeteredResponse extends ServerHttpResponseDecorator {
+
+        MeteredResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(count(body));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(this::count));
+        }
+
+        private Publisher<? extends DataBuffer> count(Publisher<? extends DataBuffer> body) {
+            if (body instanceof Mono<? extends DataBuffer> mono) {
+                return mono.doOnNext(buffer -> responseBytes += buffer.readableByteCount());
+            }
+            return Flux.from(body).doOnNext(buffer -> responseBytes += buffer.readableByteCount());
+        }
+    }
+}
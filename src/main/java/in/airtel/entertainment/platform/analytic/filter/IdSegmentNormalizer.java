@@ -0,0 +1,85 @@
+package in.airtel.entertainment.platform.analytic.filter;
+
+/**
+ * {@link PathNormalizer#IDS}. Returns the path unchanged, without copying, when no segment
+ * is replaced.
+ */
+final class IdSegmentNormalizer implements PathNormalizer {
+
+    static final String PLACEHOLDER = "{id}";
+
+    private static final int MIN_HEX_LENGTH = 16;
+
+    @Override
+    public String normalize(String path) {
+        StringBuilder normalized = null;
+        int length = path.length();
+        int copied = 0;
+        int start = 0;
+        while (start <= length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (isId(path, start, end)) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(length);
+                }
+                normalized.append(path, copied, start).append(PLACEHOLDER);
+                copied = end;
+            }
+            start = end + 1;
+        }
+        if (normalized == null) {
+            return path;
+        }
+        return normalized.append(path, copied, length).toString();
+    }
+
+    static boolean isId(CharSequence path, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        if (isDigits(path, start, end)) {
+            return true;
+        }
+        if (length == 36 && isUuid(path, start)) {
+            return true;
+        }
+        return length >= MIN_HEX_LENGTH && isHexWithDigit(path, start, end);
+    }
+
+    private static boolean isDigits(CharSequence path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUuid(CharSequence path, int start) {
+        for (int i = 0; i < 36; i++) {
+            char c = path.charAt(start + i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexWithDigit(CharSequence path, int start, int end) {
+        boolean digit = false;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+            digit |= c <= '9';
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,20 @@
+package in.airtel.entertainment.platform.analytic.filter;
+
+/**
+ * Turns a raw request path into the path part of a transaction name when no route pattern
+ * is known for the request, so that names stay few even when paths carry identifiers.
+ */
+@FunctionalInterface
+public interface PathNormalizer {
+
+    /** Keeps the raw path. */
+    PathNormalizer NONE = path -> path;
+
+    /**
+     * Replaces segments that look like identifiers with {@code {id}}: all digits, UUIDs, and
+     * hex strings of 16 or more characters containing a digit.
+     */
+    PathNormalizer IDS = new IdSegmentNormalizer();
+
+    String normalize(String path);
+}
@@ -0,0 +1,39 @@
+package in.airtel.entertainment.platform.analytic.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded set of the transaction names a filter has produced. Up to {@code maxNames} distinct
+ * names are kept and shared between requests; every name after that is reported as the
+ * overflow name, so a client sending arbitrary paths cannot grow the names without bound.
+ */
+final class TransactionNames {
+
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+    private final int maxNames;
+    private final String overflowName;
+
+    TransactionNames(int maxNames, String overflowName) {
+        if (maxNames < 1) {
+            throw new IllegalArgumentException("maxNames must be positive: " + maxNames);
+        }
+        this.maxNames = maxNames;
+        this.overflowName = overflowName;
+    }
+
+    String intern(String name) {
+        String interned = names.get(name);
+        if (interned != null) {
+            return interned;
+        }
+        if (names.size() >= maxNames) {
+            return overflowName;
+        }
+        interned = names.putIfAbsent(name, name);
+        return interned != null ? interned : name;
+    }
+
+    int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,253 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import in.airtel.entertainment.platform.analytic.core.TimestampFormatter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static in.airtel.entertainment.platform.analytic.sink.BinaryRecordFormat.*;
+
+/**
+ * Reads a file written by {@link BinaryFileAnalyticSink} back into the JSON records the
+ * JSON sinks write, byte for byte. A torn last frame, e.g. after a crash, ends the file
+ * without an error.
+ *
+ * <pre>{@code
+ * try (AnalyticBinaryDecoder decoder = new AnalyticBinaryDecoder(Files.newInputStream(file))) {
+ *     for (String json; (json = decoder.next()) != null; ) {
+ *         ...
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>As a command, writes the records of each file given as argument to standard output,
+ * one per line:
+ * <pre>
+ * java -cp reactive-analytic-framework.jar \
+ *     in.airtel.entertainment.platform.analytic.sink.AnalyticBinaryDecoder analytic-*.arb
+ * </pre>
+ */
+public final class AnalyticBinaryDecoder implements Closeable {
+
+    private final InputStream in;
+    private final List<String> symbols = new ArrayList<>();
+    private byte[] body = new byte[1024];
+    private int position;
+    private int limit;
+
+    /**
+     * @throws IOException if the stream does not start with the format's header
+     */
+    public AnalyticBinaryDecoder(InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+        byte[] header = this.in.readNBytes(MAGIC.length + 1);
+        if (header.length < MAGIC.length + 1 || header[0] != MAGIC[0] || header[1] != MAGIC[1]
+                || header[2] != MAGIC[2]) {
+            throw new IOException("Not an analytic binary record file");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new IOException("Unsupported analytic binary record version " + header[MAGIC.length]);
+        }
+    }
+
+    /**
+     * Returns the next record as JSON, or null at the end of the file.
+     */
+    public String next() throws IOException {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            return next(writer) ? writer.toString() : null;
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Appends the next record as JSON to {@code writer}; false at the end of the file.
+     *
+     * @throws IOException on read errors and corrupt frames
+     */
+    public boolean next(JsonWriter writer) throws IOException {
+        while (readFrame()) {
+            byte type = body[position++];
+            if (type == DEFINE) {
+                symbols.add(readString());
+            } else if (type == RECORD) {
+                writeRecord(writer);
+                return true;
+            } else {
+                throw new IOException("Unknown frame type " + type);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readFrame() throws IOException {
+        long length;
+        try {
+            length = readStreamVarint();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (length == 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Corrupt frame length " + length);
+        }
+        if (body.length < length) {
+            body = new byte[(int) Math.max(length, body.length * 2L)];
+        }
+        int read = in.readNBytes(body, 0, (int) length);
+        position = 0;
+        limit = read;
+        // A torn frame at the end of the file
+        return read == length;
+    }
+
+    private void writeRecord(JsonWriter writer) throws IOException {
+        long timestamp = 0;
+        writer.beginObject();
+        boolean first = true;
+        while (position < limit) {
+            if (!first) {
+                writer.comma();
+            }
+            first = false;
+            writer.writeKey(readSymbol());
+            byte type = readByte();
+            switch (type) {
+                case STRING -> writer.writeString(readString());
+                case SYMBOL -> writer.writeString(readSymbol());
+                case LONG -> writer.writeLong(readZigzag());
+                case DOUBLE -> writer.writeDouble(Double.longBitsToDouble(readLong()));
+                case TRUE -> writer.writeBoolean(true);
+                case FALSE -> writer.writeBoolean(false);
+                case NULL -> writer.writeNull();
+                case TIMESTAMP -> {
+                    timestamp += readZigzag();
+                    TimestampFormatter.TRANSACTION.writeQuoted(writer, timestamp);
+                }
+                case JSON -> {
+                    int length = readLength();
+                    writer.writeBytes(body, position, length);
+                    position += length;
+                }
+                default -> throw new IOException("Unknown value type " + type);
+            }
+        }
+        writer.endObject();
+    }
+
+    private String readSymbol() throws IOException {
+        long id = readVarint();
+        if (id == 0) {
+            return readString();
+        }
+        if (id > symbols.size()) {
+            throw new IOException("Undefined symbol " + id);
+        }
+        return symbols.get((int) id - 1);
+    }
+
+    private String readString() throws IOException {
+        int length = readLength();
+        String value = new String(body, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private int readLength() throws IOException {
+        long length = readVarint();
+        if (length > limit - position) {
+            throw new IOException("Corrupt length " + length);
+        }
+        return (int) length;
+    }
+
+    private byte readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Truncated frame");
+        }
+        return body[position++];
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt varint");
+    }
+
+    private long readZigzag() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readLong() throws IOException {
+        if (limit - position < 8) {
+            throw new IOException("Truncated frame");
+        }
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (body[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private long readStreamVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt frame length");
+    }
+
+    /**
+     * Decodes each file named on the command line to standard output, one record per line.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AnalyticBinaryDecoder <file>...");
+            System.exit(2);
+        }
+        OutputStream out = new BufferedOutputStream(System.out);
+        JsonWriter writer = new JsonWriter(1024);
+        for (String arg : args) {
+            Path file = Paths.get(arg);
+            try (AnalyticBinaryDecoder decoder = new AnalyticBinaryDecoder(Files.newInputStream(file))) {
+                while (decoder.next(writer.reset())) {
+                    writer.writeByte('\n');
+                    writer.writeTo(out);
+                }
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,317 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static in.airtel.entertainment.platform.analytic.sink.CompressedBlockFormat.*;
+
+/**
+ * Reads a file written by {@link CompressedFileAnalyticSink}. The blocks are listed from the
+ * index next to the file, so selecting a time range reads only the headers and inflates only
+ * the blocks whose start times overlap it. Blocks missing from the index, or a missing index,
+ * are found by walking the block headers; a torn last block is ignored.
+ *
+ * <pre>{@code
+ * try (AnalyticBlockReader reader = new AnalyticBlockReader(file)) {
+ *     reader.read(from, to, json -> ...);
+ * }
+ * }</pre>
+ *
+ * <p>As a command, writes the records of each file given as argument to standard output,
+ * one per line, optionally only the blocks overlapping a range of ISO-8601 instants:
+ * <pre>
+ * java -cp reactive-analytic-framework.jar \
+ *     in.airtel.entertainment.platform.analytic.sink.AnalyticBlockReader \
+ *     [--from 2024-05-01T10:00:00Z] [--to 2024-05-01T11:00:00Z] analytic-*.ndz
+ * </pre>
+ */
+public final class AnalyticBlockReader implements Closeable {
+
+    private final FileChannel channel;
+    private final List<BlockInfo> blocks;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * @throws IOException if the file does not start with the format's header
+     */
+    public AnalyticBlockReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            checkHeader(channel, MAGIC, "Not an analytic compressed block file");
+            this.blocks = Collections.unmodifiableList(listBlocks(file));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * All complete blocks in file order.
+     */
+    public List<BlockInfo> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Blocks with a transaction start time between {@code fromMillis} and {@code toMillis},
+     * both inclusive.
+     */
+    public List<BlockInfo> getBlocks(long fromMillis, long toMillis) {
+        List<BlockInfo> selected = new ArrayList<>();
+        for (BlockInfo block : blocks) {
+            if (block.overlaps(fromMillis, toMillis)) {
+                selected.add(block);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Passes every record of the file to {@code action}, as JSON.
+     */
+    public void readAll(Consumer<String> action) throws IOException {
+        for (BlockInfo block : blocks) {
+            read(block, action);
+        }
+    }
+
+    /**
+     * Passes every record of the blocks overlapping the range to {@code action}. Records are
+     * not filtered individually, so blocks at the edges may contribute records just outside
+     * the range.
+     */
+    public void read(long fromMillis, long toMillis, Consumer<String> action) throws IOException {
+        for (BlockInfo block : getBlocks(fromMillis, toMillis)) {
+            read(block, action);
+        }
+    }
+
+    public void read(BlockInfo block, Consumer<String> action) throws IOException {
+        byte[] data = inflate(block);
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                action.accept(new String(data, start, i - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the newline-delimited JSON of {@code block}.
+     *
+     * @throws IOException on read errors and corrupt blocks
+     */
+    public byte[] inflate(BlockInfo block) throws IOException {
+        ByteBuffer input = ByteBuffer.allocate(block.compressedLength);
+        readFully(channel, input, block.offset + BLOCK_HEADER_SIZE);
+        byte[] data = new byte[block.uncompressedLength];
+        inflater.reset();
+        inflater.setInput(input.array(), 0, block.compressedLength);
+        try {
+            int size = 0;
+            while (size < data.length && !inflater.finished()) {
+                int n = inflater.inflate(data, size, data.length - size);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += n;
+            }
+            if (size != data.length) {
+                throw new IOException("Corrupt block at " + block.offset + ": short data");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block at " + block.offset + ": " + e.getMessage(), e);
+        }
+        crc.reset();
+        crc.update(data, 0, data.length);
+        if ((int) crc.getValue() != block.crc) {
+            throw new IOException("Corrupt block at " + block.offset + ": checksum mismatch");
+        }
+        return data;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private List<BlockInfo> listBlocks(Path file) throws IOException {
+        long size = channel.size();
+        List<BlockInfo> list = new ArrayList<>();
+        long next = FILE_HEADER_SIZE;
+
+        Path indexFile = file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+        if (Files.exists(indexFile)) {
+            try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                checkHeader(index, INDEX_MAGIC, "Not an analytic block index");
+                ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+                long position = FILE_HEADER_SIZE;
+                while (position + INDEX_ENTRY_SIZE <= index.size()) {
+                    entry.clear();
+                    readFully(index, entry, position);
+                    entry.flip();
+                    BlockInfo block = BlockInfo.read(entry.getLong(), entry);
+                    if (block.offset != next || block.end() > size) {
+                        break;
+                    }
+                    list.add(block);
+                    next = block.end();
+                    position += INDEX_ENTRY_SIZE;
+                }
+            }
+        }
+
+        // Blocks written after the last index entry
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        while (next + BLOCK_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, next);
+            header.flip();
+            BlockInfo block = BlockInfo.read(next, header);
+            if (block.compressedLength < 0 || block.uncompressedLength < 0 || block.end() > size) {
+                break;
+            }
+            list.add(block);
+            next = block.end();
+        }
+        return list;
+    }
+
+    private static void checkHeader(FileChannel channel, byte[] magic, String message) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        if (channel.size() < FILE_HEADER_SIZE) {
+            throw new IOException(message);
+        }
+        readFully(channel, header, 0);
+        for (int i = 0; i < magic.length; i++) {
+            if (header.get(i) != magic[i]) {
+                throw new IOException(message);
+            }
+        }
+        if (header.get(magic.length) != VERSION) {
+            throw new IOException("Unsupported analytic compressed block version " + header.get(magic.length));
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+    }
+
+    /**
+     * Position, size and start-time range of one block.
+     */
+    public static final class BlockInfo {
+        private final long offset;
+        private final int compressedLength;
+        private final int uncompressedLength;
+        private final int records;
+        private final int crc;
+        private final long minStartTime;
+        private final long maxStartTime;
+
+        private BlockInfo(long offset, int compressedLength, int uncompressedLength, int records, int crc,
+                          long minStartTime, long maxStartTime) {
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.uncompressedLength = uncompressedLength;
+            this.records = records;
+            this.crc = crc;
+            this.minStartTime = minStartTime;
+            this.maxStartTime = maxStartTime;
+        }
+
+        static BlockInfo read(long offset, ByteBuffer header) {
+            return new BlockInfo(offset, header.getInt(), header.getInt(), header.getInt(), header.getInt(),
+                    header.getLong(), header.getLong());
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getCompressedLength() {
+            return compressedLength;
+        }
+
+        public int getUncompressedLength() {
+            return uncompressedLength;
+        }
+
+        public int getRecordCount() {
+            return records;
+        }
+
+        public long getMinStartTime() {
+            return minStartTime;
+        }
+
+        public long getMaxStartTime() {
+            return maxStartTime;
+        }
+
+        boolean overlaps(long fromMillis, long toMillis) {
+            return maxStartTime >= fromMillis && minStartTime <= toMillis;
+        }
+
+        long end() {
+            return offset + BLOCK_HEADER_SIZE + compressedLength;
+        }
+    }
+
+    /**
+     * Writes the records of each file named on the command line to standard output, one per
+     * line, limited to the blocks overlapping {@code --from} and {@code --to} if given.
+     */
+    public static void main(String[] args) throws IOException {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--from".equals(args[i]) && i + 1 < args.length) {
+                from = Instant.parse(args[++i]).toEpochMilli();
+            } else if ("--to".equals(args[i]) && i + 1 < args.length) {
+                to = Instant.parse(args[++i]).toEpochMilli();
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: AnalyticBlockReader [--from <instant>] [--to <instant>] <file>...");
+            System.exit(2);
+        }
+        OutputStream out = new BufferedOutputStream(System.out);
+        for (Path file : files) {
+            try (AnalyticBlockReader reader = new AnalyticBlockReader(file)) {
+                for (BlockInfo block : reader.getBlocks(from, to)) {
+                    out.write(reader.inflate(block));
+                }
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,268 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.CoreSubscriber;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Hot, in-process stream of completed transactions, fed by {@code AnalyticDispatcher} for
+ * every event it dispatches, whether or not the event also goes to the sink.
+ *
+ * <p>Each subscriber gets its own bounded {@link MpscRingBuffer}. Events are delivered on
+ * the thread that completed the transaction, as far as the subscriber has requested them;
+ * the rest wait in its buffer, and when the buffer is full the newest event is dropped for
+ * that subscriber only and counted. Subscribers that do real work should
+ * {@code publishOn} their own scheduler so the flush path is not held up. The stream never
+ * completes.
+ *
+ * <p>Subscribers receive a {@link AnalyticEvent#snapshot() snapshot} taken when the event is
+ * published, shared between them, so a buffered event does not change if its transaction is
+ * still written to later.
+ *
+ * <p>With no subscribers, {@link #publish} costs one volatile read.
+ */
+public final class AnalyticEventStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnalyticEventStream.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private static final StreamSubscription[] EMPTY = new StreamSubscription[0];
+
+    private static volatile StreamSubscription[] subscriptions = EMPTY;
+
+    private static final LongAdder PUBLISHED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private AnalyticEventStream() {
+    }
+
+    /**
+     * Offers a snapshot of {@code event} to every current subscriber.
+     */
+    public static void publish(AnalyticEvent event) {
+        StreamSubscription[] current = subscriptions;
+        if (current.length == 0) {
+            return;
+        }
+        PUBLISHED.increment();
+        AnalyticEvent snapshot = event.snapshot();
+        for (StreamSubscription subscription : current) {
+            subscription.offer(snapshot);
+        }
+    }
+
+    /**
+     * Completed transactions from the moment of subscription, with a buffer of
+     * {@link #DEFAULT_BUFFER_SIZE} events per subscriber.
+     */
+    public static Flux<AnalyticEvent> events() {
+        return events(DEFAULT_BUFFER_SIZE, null);
+    }
+
+    /**
+     * Completed transactions from the moment of subscription. Each subscriber buffers up to
+     * {@code bufferSize} (rounded up to a power of two) events it has not requested yet;
+     * {@code onDropped}, if not null, is called on the publishing thread with every event
+     * dropped for that subscriber.
+     */
+    public static Flux<AnalyticEvent> events(int bufferSize, Consumer<? super AnalyticEvent> onDropped) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("bufferSize must be at least 2: " + bufferSize);
+        }
+        return new EventFlux(bufferSize, onDropped);
+    }
+
+    public static int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    /**
+     * Events offered to at least one subscriber.
+     */
+    public static long getPublishedCount() {
+        return PUBLISHED.sum();
+    }
+
+    /**
+     * Events dropped for a subscriber whose buffer was full, summed over subscribers.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    private static synchronized void add(StreamSubscription subscription) {
+        StreamSubscription[] current = subscriptions;
+        StreamSubscription[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = subscription;
+        subscriptions = next;
+    }
+
+    private static synchronized void remove(StreamSubscription subscription) {
+        StreamSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                StreamSubscription[] next = new StreamSubscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                subscriptions = next.length == 0 ? EMPTY : next;
+                return;
+            }
+        }
+    }
+
+    private static final class EventFlux extends Flux<AnalyticEvent> implements Scannable {
+        private final int bufferSize;
+        private final Consumer<? super AnalyticEvent> onDropped;
+
+        EventFlux(int bufferSize, Consumer<? super AnalyticEvent> onDropped) {
+            this.bufferSize = bufferSize;
+            this.onDropped = onDropped;
+        }
+
+        @Override
+        public void subscribe(CoreSubscriber<? super AnalyticEvent> actual) {
+            StreamSubscription subscription = new StreamSubscription(actual, bufferSize, onDropped);
+            actual.onSubscribe(subscription);
+            add(subscription);
+            if (subscription.cancelled) {
+                // Cancelled during onSubscribe or concurrently with add
+                remove(subscription);
+            }
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+
+    /**
+     * One subscriber's buffer and demand. Any publishing thread may drain; the work-in-
+     * progress counter makes sure only one does at a time, so signals stay serial.
+     */
+    private static final class StreamSubscription implements Subscription, Scannable {
+        private static final AtomicLongFieldUpdater<StreamSubscription> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(StreamSubscription.class, "requested");
+        private static final AtomicIntegerFieldUpdater<StreamSubscription> WIP =
+                AtomicIntegerFieldUpdater.newUpdater(StreamSubscription.class, "wip");
+
+        private final CoreSubscriber<? super AnalyticEvent> actual;
+        private final MpscRingBuffer<AnalyticEvent> buffer;
+        private final Consumer<? super AnalyticEvent> onDropped;
+        private volatile long requested;
+        private volatile int wip;
+        volatile boolean cancelled;
+
+        StreamSubscription(CoreSubscriber<? super AnalyticEvent> actual, int bufferSize,
+                           Consumer<? super AnalyticEvent> onDropped) {
+            this.actual = actual;
+            this.buffer = new MpscRingBuffer<>(bufferSize);
+            this.onDropped = onDropped;
+        }
+
+        void offer(AnalyticEvent event) {
+            if (buffer.offer(event)) {
+                drain();
+                return;
+            }
+            DROPPED.increment();
+            if (onDropped != null) {
+                try {
+                    onDropped.accept(event);
+                } catch (Exception e) {
+                    LOG.warn("Analytic stream drop handler failed: {}", e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.addCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            remove(this);
+            if (WIP.getAndIncrement(this) == 0) {
+                clear();
+            }
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested;
+                long emitted = 0;
+                while (emitted != r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    AnalyticEvent event = buffer.poll();
+                    if (event == null) {
+                        break;
+                    }
+                    try {
+                        actual.onNext(event);
+                    } catch (Throwable t) {
+                        cancel();
+                        actual.onError(Operators.onOperatorError(this, t, event, actual.currentContext()));
+                        return;
+                    }
+                    emitted++;
+                }
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                if (emitted != 0) {
+                    Operators.produced(REQUESTED, this, emitted);
+                }
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void clear() {
+            while (buffer.poll() != null) {
+                // Discard
+            }
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.ACTUAL) return actual;
+            if (key == Attr.CANCELLED) return cancelled;
+            if (key == Attr.BUFFERED) return buffer.size();
+            if (key == Attr.CAPACITY) return buffer.capacity();
+            if (key == Attr.REQUESTED_FROM_DOWNSTREAM) return requested;
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+}
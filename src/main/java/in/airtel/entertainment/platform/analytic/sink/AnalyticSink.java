@@ -0,0 +1,39 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+
+import java.util.List;
+
+/**
+ * Destination for completed transactions. {@code AnalyticDispatcher} hands every
+ * {@link AnalyticEvent} to the installed sink; auto-configuration selects one with
+ * {@code reactive.analytic.sink.type} unless the application declares its own
+ * {@code AnalyticSink} bean.
+ *
+ * <p>{@link #write(AnalyticEvent)} may be called from many threads at once unless the sink
+ * is wrapped in an {@link AsyncAnalyticSink}, which calls it from a single drainer thread.
+ */
+public interface AnalyticSink extends AutoCloseable {
+
+    void write(AnalyticEvent event);
+
+    /**
+     * Writes a batch and flushes once. Sinks with per-call overhead can override this.
+     */
+    default void writeBatch(List<AnalyticEvent> events) {
+        for (AnalyticEvent event : events) {
+            write(event);
+        }
+        flush();
+    }
+
+    default void flush() {
+    }
+
+    /**
+     * Releases resources. Must be idempotent; events written after close may be dropped.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,248 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves serialization and I/O of completed transactions off the Reactor threads.
+ *
+ * <p>Producers (the flush path) hand each {@link AnalyticEvent} to a bounded
+ * {@link MpscRingBuffer} and return immediately; a single drainer thread takes records in
+ * batches of up to {@code batchSize} and passes them to the delegate sink's
+ * {@link AnalyticSink#writeBatch}. When the buffer is full the {@link OverflowPolicy}
+ * decides which record is lost, and every loss is counted.
+ *
+ * <p>{@link #close()} drains whatever is still queued before closing the delegate, so a
+ * Spring context shutdown does not lose buffered records. Records written before
+ * {@link #start()} or after close go straight to the delegate. Records still queued once
+ * close gives up waiting, or enqueued by a producer racing it, are counted as failed.
+ *
+ * <p>The drainer runs on its own thread, so the producer's MDC is not visible to the
+ * encoder; correlation ids should be recorded on the transaction itself, as
+ * {@code AnalyticWebFilter} does.
+ */
+public class AsyncAnalyticSink implements AnalyticSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncAnalyticSink.class);
+
+    private static final long MIN_IDLE_PARK_NANOS = 50_000;
+    private static final long MAX_IDLE_PARK_NANOS = 1_000_000;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+
+    private final AnalyticSink delegate;
+    private final MpscRingBuffer<AnalyticEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long blockTimeoutNanos;
+    private final Duration shutdownTimeout;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean closed;
+    /** Set by close once nothing will drain the buffer any more. */
+    private volatile boolean discarding;
+    private volatile Thread drainer;
+
+    public AsyncAnalyticSink(AnalyticSink delegate, int capacity, int batchSize,
+                             OverflowPolicy overflowPolicy, Duration blockTimeout,
+                             Duration shutdownTimeout) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.delegate = delegate;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void write(AnalyticEvent event) {
+        if (!running) {
+            writeDirect(event);
+            return;
+        }
+        if (buffer.offer(event) || offerOnOverflow(event)) {
+            enqueued.increment();
+            if (discarding) {
+                // Saw running just before close; its final drain may already have passed
+                discardQueued();
+            }
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private boolean offerOnOverflow(AnalyticEvent event) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                for (int attempt = 0; attempt < 4; attempt++) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                    if (buffer.offer(event)) {
+                        return true;
+                    }
+                }
+                return false;
+            case BLOCK:
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (buffer.offer(event)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Starts the drainer thread. Has no effect once started or closed.
+     */
+    public synchronized void start() {
+        if (running || closed) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "analytic-async-drainer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the drainer, waits up to the shutdown timeout for queued records to be written,
+     * counts any left over as failed, then closes the delegate.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (running) {
+                running = false;
+                Thread thread = drainer;
+                LockSupport.unpark(thread);
+                try {
+                    thread.join(shutdownTimeout.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (thread.isAlive()) {
+                    LOG.warn("Analytic drainer did not finish within {}", shutdownTimeout);
+                } else {
+                    // Producers that saw running == true just before the flag flipped
+                    drainRemaining();
+                }
+            }
+        } finally {
+            discarding = true;
+            int discarded = discardQueued();
+            if (discarded > 0) {
+                LOG.warn("Analytic async sink closed with {} records left unwritten", discarded);
+            }
+            delegate.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public AnalyticSink getDelegate() {
+        return delegate;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    private void drainLoop() {
+        List<AnalyticEvent> batch = new ArrayList<>(batchSize);
+        long idlePark = MIN_IDLE_PARK_NANOS;
+        while (running) {
+            if (buffer.drain(batch::add, batchSize) > 0) {
+                writeDrained(batch);
+                idlePark = MIN_IDLE_PARK_NANOS;
+            } else {
+                LockSupport.parkNanos(idlePark);
+                idlePark = Math.min(idlePark << 1, MAX_IDLE_PARK_NANOS);
+            }
+        }
+        drain(batch);
+    }
+
+    private void drainRemaining() {
+        drain(new ArrayList<>(batchSize));
+    }
+
+    private void drain(List<AnalyticEvent> batch) {
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            writeDrained(batch);
+        }
+    }
+
+    private int discardQueued() {
+        int discarded = 0;
+        while (buffer.poll() != null) {
+            discarded++;
+        }
+        failed.addAndGet(discarded);
+        return discarded;
+    }
+
+    private void writeDrained(List<AnalyticEvent> batch) {
+        try {
+            delegate.writeBatch(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            LOG.warn("Analytic async batch write failed: {}", e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private void writeDirect(AnalyticEvent event) {
+        try {
+            delegate.write(event);
+            written.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            LOG.warn("Analytic async write failed: {}", e.getMessage());
+        }
+    }
+}
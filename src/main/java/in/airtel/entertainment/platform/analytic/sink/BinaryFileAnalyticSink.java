@@ -0,0 +1,218 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Appends records in the compact {@link BinaryRecordFormat} instead of JSON: numbers are
+ * varints, timestamps are deltas, and keys and transaction names are written once per file
+ * and then referenced by a small id. Decode with {@link AnalyticBinaryDecoder}, which
+ * reproduces the JSON of the other sinks.
+ *
+ * <p>Files are named {@code <prefix>-<yyyyMMdd-HHmmss>-<n>.arb} in UTC. A new file, with a
+ * new dictionary, is started when the current one has reached {@code maxFileSize} or is
+ * older than {@code rollInterval}. {@link #write} writes the record straight away;
+ * {@link #writeBatch} encodes the whole batch and writes it at once, so wrap this sink in an
+ * {@link AsyncAnalyticSink} to batch. Writes are serialized by this sink's monitor.
+ */
+public class BinaryFileAnalyticSink implements AnalyticSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryFileAnalyticSink.class);
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileSize;
+    private final long rollIntervalMillis;
+    private final BinaryRecordEncoder encoder = new BinaryRecordEncoder();
+
+    private FileChannel channel;
+    private Path file;
+    private long fileSize;
+    private long fileDeadline;
+    private int sequence;
+    private int pending;
+    private long written;
+    private long failed;
+    private boolean closed;
+
+    public BinaryFileAnalyticSink(Path directory, String prefix, long maxFileSize, Duration rollInterval) {
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("maxFileSize must be positive: " + maxFileSize);
+        }
+        if (rollInterval.isNegative() || rollInterval.isZero()) {
+            throw new IllegalArgumentException("rollInterval must be positive: " + rollInterval);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxFileSize = maxFileSize;
+        this.rollIntervalMillis = rollInterval.toMillis();
+    }
+
+    @Override
+    public synchronized void write(AnalyticEvent event) {
+        if (closed) {
+            failed++;
+            return;
+        }
+        encode(event);
+        writePending();
+    }
+
+    @Override
+    public synchronized void writeBatch(List<AnalyticEvent> events) {
+        for (AnalyticEvent event : events) {
+            if (closed) {
+                failed++;
+            } else {
+                encode(event);
+            }
+        }
+        writePending();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeFile();
+        } catch (IOException e) {
+            LOG.warn("Analytic binary file close failed for {}: {}", file, e.getMessage());
+        }
+    }
+
+    public synchronized Path getCurrentFile() {
+        return file;
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    /**
+     * Encodes one event after the pending ones, rolling first if there is no file or it is
+     * full or due.
+     */
+    private void encode(AnalyticEvent event) {
+        long now = System.currentTimeMillis();
+        if (channel == null || fileSize + encoder.size() >= maxFileSize || now >= fileDeadline) {
+            writePending();
+            try {
+                roll(now);
+            } catch (IOException e) {
+                LOG.warn("Analytic binary file roll failed in {}: {}", directory, e.getMessage());
+            }
+        }
+        try {
+            encoder.encode(event);
+            pending++;
+        } catch (RuntimeException e) {
+            failed++;
+            LOG.warn("Analytic binary encoding failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending records. On failure they are counted as failed and the file is
+     * abandoned: it may end in a torn frame, and the next records would refer to symbols
+     * whose definitions were just lost, so they go to a new file with a new dictionary.
+     */
+    private void writePending() {
+        if (encoder.size() == 0) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                throw new IOException("no open file");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(encoder.buffer(), 0, encoder.size());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            fileSize += encoder.size();
+            written += pending;
+        } catch (IOException e) {
+            failed += pending;
+            LOG.warn("Analytic binary write failed in {}: {}", directory, e.getMessage());
+            abandonFile();
+        } finally {
+            pending = 0;
+            encoder.clear();
+        }
+    }
+
+    private void abandonFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warn("Analytic binary file close failed for {}: {}", file, e.getMessage());
+        }
+        channel = null;
+    }
+
+    private void roll(long now) throws IOException {
+        closeFile();
+        Files.createDirectories(directory);
+        String time = FILE_TIME.format(Instant.ofEpochMilli(now));
+        FileChannel opened = null;
+        Path path = null;
+        while (opened == null) {
+            path = directory.resolve(prefix + "-" + time + "-" + sequence++ + ".arb");
+            try {
+                opened = open(path);
+            } catch (FileAlreadyExistsException e) {
+                // Same second as an earlier file or an earlier process; try the next index
+            }
+        }
+        channel = opened;
+        file = path;
+        fileSize = 0;
+        fileDeadline = now + rollIntervalMillis;
+        encoder.reset();
+    }
+
+    /**
+     * Creates and opens a new file for writing.
+     */
+    FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void closeFile() throws IOException {
+        writePending();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.JsonWritable;
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static in.airtel.entertainment.platform.analytic.sink.BinaryRecordFormat.*;
+
+/**
+ * Encodes events into the {@link BinaryRecordFormat} of one file. Frames accumulate in
+ * {@link #buffer()} until {@link #clear()}; the symbol dictionary lives until
+ * {@link #reset()} starts the next file. Not thread-safe.
+ */
+final class BinaryRecordEncoder implements AnalyticEvent.FieldWriter {
+
+    /** Beyond this many symbols per file, new strings are written inline. */
+    static final int MAX_SYMBOLS = 65536;
+
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private final Bytes frames = new Bytes(8192);
+    private final Bytes record = new Bytes(1024);
+    private JsonWriter json = new JsonWriter(256);
+    private long lastTimestamp;
+
+    /**
+     * Forgets all symbols and starts a new file: the buffer holds only the file header.
+     */
+    void reset() {
+        symbols.clear();
+        frames.size = 0;
+        frames.trim();
+        frames.write(MAGIC, 0, MAGIC.length);
+        frames.write(VERSION);
+    }
+
+    /**
+     * Appends the symbol definitions the event needs, then the event itself.
+     */
+    void encode(AnalyticEvent event) {
+        record.size = 0;
+        record.write(RECORD);
+        lastTimestamp = 0;
+        event.writeFields(this);
+        frames.writeVarint(record.size);
+        frames.write(record.buf, 0, record.size);
+        record.size = 0;
+        record.trim();
+    }
+
+    byte[] buffer() {
+        return frames.buf;
+    }
+
+    int size() {
+        return frames.size;
+    }
+
+    void clear() {
+        frames.size = 0;
+        frames.trim();
+    }
+
+    @Override
+    public void symbol(String key, String value) {
+        writeKey(key);
+        if (value == null) {
+            record.write(NULL);
+            return;
+        }
+        record.write(SYMBOL);
+        writeSymbol(value);
+    }
+
+    @Override
+    public void timestamp(String key, long epochMillis) {
+        writeKey(key);
+        record.write(TIMESTAMP);
+        record.writeZigzag(epochMillis - lastTimestamp);
+        lastTimestamp = epochMillis;
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+        writeKey(key);
+        record.write(LONG);
+        record.writeZigzag(value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+        writeKey(key);
+        record.write(DOUBLE);
+        record.writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void value(String key, Object value) {
+        if (value instanceof Double d) {
+            doubleValue(key, d);
+            return;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            longValue(key, ((Number) value).longValue());
+            return;
+        }
+        writeKey(key);
+        if (value == null) {
+            record.write(NULL);
+        } else if (value instanceof String s) {
+            record.write(STRING);
+            record.writeString(s);
+        } else if (value instanceof Boolean b) {
+            record.write(b ? TRUE : FALSE);
+        } else {
+            record.write(JSON);
+            writeJson(writer -> writer.writeValue(value));
+        }
+    }
+
+    @Override
+    public void json(String key, JsonWritable value) {
+        writeKey(key);
+        record.write(JSON);
+        writeJson(value);
+    }
+
+    private void writeKey(String key) {
+        writeSymbol(key != null ? key : "");
+    }
+
+    private void writeSymbol(String value) {
+        Integer id = symbols.get(value);
+        if (id == null && symbols.size() < MAX_SYMBOLS) {
+            id = symbols.size() + 1;
+            symbols.put(value, id);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            frames.writeVarint(1 + varintSize(bytes.length) + bytes.length);
+            frames.write(DEFINE);
+            frames.writeVarint(bytes.length);
+            frames.write(bytes, 0, bytes.length);
+        }
+        if (id == null) {
+            record.writeVarint(0);
+            record.writeString(value);
+        } else {
+            record.writeVarint(id);
+        }
+    }
+
+    private void writeJson(JsonWritable value) {
+        json.reset();
+        value.writeJson(json);
+        record.writeVarint(json.size());
+        record.write(json.buffer(), 0, json.size());
+        if (json.buffer().length > MAX_RETAINED_BUFFER) {
+            json = new JsonWriter(256);
+        }
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Growable byte array with the primitive encodings of the format.
+     */
+    private static final class Bytes {
+        private final int initialCapacity;
+        byte[] buf;
+        int size;
+
+        Bytes(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            this.buf = new byte[initialCapacity];
+        }
+
+        void write(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buf, size, length);
+            size += length;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        /** Drops an oversized array once it is empty again. */
+        void trim() {
+            if (buf.length > MAX_RETAINED_BUFFER && size == 0) {
+                buf = new byte[initialCapacity];
+            }
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+/**
+ * Layout of the binary analytic record files written by {@link BinaryFileAnalyticSink} and
+ * read by {@link AnalyticBinaryDecoder}.
+ *
+ * <pre>
+ * file    = magic "ARB" version(1) frame*
+ * frame   = length:varint body           length of body in bytes
+ * body    = DEFINE string                assigns the next symbol id, starting at 1
+ *         | RECORD field*                fields run to the end of the body
+ * field   = key:symbolRef type value
+ * symbolRef = id:varint                  0 means an inline string follows
+ * value   = STRING string | SYMBOL symbolRef | LONG zigzag-varint | DOUBLE 8 bytes
+ *         | TRUE | FALSE | NULL | TIMESTAMP zigzag-varint | JSON string
+ * string  = length:varint UTF-8 bytes
+ * </pre>
+ *
+ * <p>Symbols are defined in the file just before the first record that uses them, so every
+ * file is self-contained. A TIMESTAMP is epoch milliseconds as a difference from the
+ * previous timestamp of the same record (0 for the first); JSON holds pre-rendered JSON,
+ * e.g. nested spans. A length that runs past the end of the file marks a torn last frame.
+ */
+final class BinaryRecordFormat {
+
+    static final byte[] MAGIC = {'A', 'R', 'B'};
+    static final byte VERSION = 1;
+
+    static final byte DEFINE = 1;
+    static final byte RECORD = 2;
+
+    static final byte STRING = 0;
+    static final byte SYMBOL = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte TRUE = 4;
+    static final byte FALSE = 5;
+    static final byte NULL = 6;
+    static final byte TIMESTAMP = 7;
+    static final byte JSON = 8;
+
+    private BinaryRecordFormat() {
+    }
+}
@@ -0,0 +1,37 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+/**
+ * Layout of the block-compressed files written by {@link CompressedFileAnalyticSink} and
+ * read by {@link AnalyticBlockReader}. All numbers are big-endian.
+ *
+ * <pre>
+ * file    = magic "ACB" version(1) block*
+ * block   = header data
+ * header  = compressedLength:int uncompressedLength:int records:int crc32:int
+ *           minStartTime:long maxStartTime:long
+ * data    = zlib stream of records, newline-delimited JSON
+ *
+ * index   = magic "ACI" version(1) entry*          file name plus ".idx"
+ * entry   = offset:long header                     offset of the block in the file
+ * </pre>
+ *
+ * <p>Every block is a complete zlib stream, so it can be inflated on its own. The start
+ * times are epoch milliseconds of the earliest and latest transaction start in the block,
+ * and the CRC-32 covers the uncompressed data. A block is written before its index entry;
+ * blocks after the last entry, e.g. after a crash, are found by walking the headers.
+ */
+final class CompressedBlockFormat {
+
+    static final byte[] MAGIC = {'A', 'C', 'B'};
+    static final byte[] INDEX_MAGIC = {'A', 'C', 'I'};
+    static final byte VERSION = 1;
+
+    static final int FILE_HEADER_SIZE = MAGIC.length + 1;
+    static final int BLOCK_HEADER_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = 8 + BLOCK_HEADER_SIZE;
+
+    static final String INDEX_SUFFIX = ".idx";
+
+    private CompressedBlockFormat() {
+    }
+}
@@ -0,0 +1,467 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static in.airtel.entertainment.platform.analytic.sink.CompressedBlockFormat.*;
+
+/**
+ * Writes newline-delimited JSON records compressed on the fly, in blocks that can each be
+ * inflated on their own. Read the files with {@link AnalyticBlockReader}.
+ *
+ * <p>A record is serialized on the calling thread and appended to the open block. Once the
+ * block holds {@code blockSize} bytes it is handed to the {@code analytic-compressor}
+ * thread, which deflates it at {@code compressionLevel} and appends it to the file, and its
+ * time range to the index next to the file (see {@link CompressedBlockFormat}). A block that
+ * is not full is written once it is older than {@code flushInterval}, on {@link #flush()}
+ * and on {@link #close()}. Larger blocks compress better and cost more memory and latency;
+ * lower levels cost less CPU. If the compressor falls behind by more than a few blocks, the
+ * writing thread compresses the next block itself rather than waiting or dropping records.
+ *
+ * <p>Files are named {@code <prefix>-<yyyyMMdd-HHmmss>-<n>.ndz} in UTC, with the index in
+ * {@code <file>.idx}. A new file is started when the next block would take the current one
+ * past {@code maxFileSize}, or when it is older than {@code rollInterval}.
+ */
+public class CompressedFileAnalyticSink implements AnalyticSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompressedFileAnalyticSink.class);
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private static final int MAX_PENDING_BLOCKS = 4;
+    private static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path directory;
+    private final String prefix;
+    private final int blockSize;
+    private final long maxFileSize;
+    private final long rollIntervalMillis;
+    private final long flushIntervalNanos;
+
+    private final ArrayBlockingQueue<Block> sealed = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS);
+    private final ArrayBlockingQueue<JsonWriter> spare = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS + 2);
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Thread compressor;
+    private volatile boolean running = true;
+
+    // Guarded by this
+    private Block open;
+    private boolean closed;
+
+    // Guarded by fileLock, which is taken before this when both are needed
+    private final Object fileLock = new Object();
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer header = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    private byte[] compressed = new byte[8192];
+    private FileChannel channel;
+    private FileChannel index;
+    private Path file;
+    private long fileSize;
+    private long fileDeadline;
+    private int sequence;
+    private long blocks;
+    private boolean filesClosed;
+
+    public CompressedFileAnalyticSink(Path directory, String prefix, int blockSize, int compressionLevel,
+                                      long maxFileSize, Duration rollInterval, Duration flushInterval) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize must be between 1 byte and 64 MB: " + blockSize);
+        }
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("compressionLevel must be between 0 and 9: " + compressionLevel);
+        }
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("maxFileSize must be positive: " + maxFileSize);
+        }
+        if (rollInterval.isNegative() || rollInterval.isZero()) {
+            throw new IllegalArgumentException("rollInterval must be positive: " + rollInterval);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+        this.maxFileSize = maxFileSize;
+        this.rollIntervalMillis = rollInterval.toMillis();
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.deflater = new Deflater(compressionLevel);
+
+        Thread thread = new Thread(this::compressLoop, "analytic-compressor");
+        thread.setDaemon(true);
+        this.compressor = thread;
+        thread.start();
+    }
+
+    @Override
+    public void write(AnalyticEvent event) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            try {
+                event.writeJson(writer);
+                writer.writeByte('\n');
+            } catch (RuntimeException e) {
+                failed.increment();
+                LOG.warn("Analytic record serialization failed: {}", e.getMessage());
+                return;
+            }
+            Block full = append(writer, event.getTransaction().getStartTime());
+            if (full != null) {
+                handOff(full);
+            }
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Appends each event to the open block; unlike the default, does not end the block, so
+     * batches from an {@link AsyncAnalyticSink} still fill whole blocks.
+     */
+    @Override
+    public void writeBatch(List<AnalyticEvent> events) {
+        for (AnalyticEvent event : events) {
+            write(event);
+        }
+    }
+
+    /**
+     * Compresses and writes the open block and any blocks waiting for the compressor.
+     */
+    @Override
+    public void flush() {
+        synchronized (fileLock) {
+            drainSealed();
+            Block partial = takeOpen(0L);
+            if (partial != null) {
+                compress(partial);
+            }
+        }
+    }
+
+    /**
+     * Stops the compressor, writes out every record written so far and closes the files.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        running = false;
+        LockSupport.unpark(compressor);
+        try {
+            compressor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (fileLock) {
+            flush();
+            filesClosed = true;
+            try {
+                closeFiles();
+            } catch (IOException e) {
+                LOG.warn("Analytic compressed file close failed for {}: {}", file, e.getMessage());
+            }
+            deflater.end();
+        }
+    }
+
+    public Path getCurrentFile() {
+        synchronized (fileLock) {
+            return file;
+        }
+    }
+
+    /**
+     * Blocks written to disk, over all files.
+     */
+    public long getBlockCount() {
+        synchronized (fileLock) {
+            return blocks;
+        }
+    }
+
+    /**
+     * Records written to disk, i.e. excluding those still in a block being filled.
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Copies a serialized record into the open block; returns the block if it is now full.
+     */
+    private synchronized Block append(JsonWriter record, long startTime) {
+        if (closed) {
+            failed.increment();
+            return null;
+        }
+        Block block = open;
+        if (block == null) {
+            JsonWriter data = spare.poll();
+            block = new Block(data != null ? data : new JsonWriter(Math.min(blockSize, 64 * 1024) + 1024));
+            open = block;
+        }
+        block.add(record, startTime);
+        if (block.data.size() < blockSize) {
+            return null;
+        }
+        open = null;
+        return block;
+    }
+
+    /**
+     * Takes the open block if it has at least one record and is at least {@code minAgeNanos}
+     * old.
+     */
+    private synchronized Block takeOpen(long minAgeNanos) {
+        Block block = open;
+        if (block == null || System.nanoTime() - block.openedAt < minAgeNanos) {
+            return null;
+        }
+        open = null;
+        return block;
+    }
+
+    private void handOff(Block block) {
+        if (sealed.offer(block)) {
+            LockSupport.unpark(compressor);
+            return;
+        }
+        // The compressor is behind; write the older blocks and this one here, in order
+        synchronized (fileLock) {
+            drainSealed();
+            compress(block);
+        }
+    }
+
+    private void compressLoop() {
+        long park = Math.min(flushIntervalNanos, MAX_IDLE_PARK_NANOS);
+        while (running) {
+            LockSupport.parkNanos(park);
+            try {
+                synchronized (fileLock) {
+                    drainSealed();
+                    Block stale = takeOpen(flushIntervalNanos);
+                    if (stale != null) {
+                        compress(stale);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Analytic compressor failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drainSealed() {
+        for (Block block; (block = sealed.poll()) != null; ) {
+            compress(block);
+        }
+    }
+
+    /**
+     * Deflates {@code block}, appends it to the current file and its entry to the index.
+     * Called with {@code fileLock} held.
+     */
+    private void compress(Block block) {
+        try {
+            if (filesClosed) {
+                failed.add(block.records);
+                return;
+            }
+            int length = block.data.size();
+            crc.reset();
+            crc.update(block.data.buffer(), 0, length);
+            int compressedLength = deflate(block.data.buffer(), length);
+
+            long now = System.currentTimeMillis();
+            if (channel == null || now >= fileDeadline
+                    || (fileSize > FILE_HEADER_SIZE
+                        && fileSize + BLOCK_HEADER_SIZE + compressedLength > maxFileSize)) {
+                roll(now);
+            }
+            header.clear();
+            header.putLong(fileSize)
+                    .putInt(compressedLength)
+                    .putInt(length)
+                    .putInt(block.records)
+                    .putInt((int) crc.getValue())
+                    .putLong(block.minStartTime)
+                    .putLong(block.maxStartTime)
+                    .flip();
+
+            ByteBuffer blockHeader = header.duplicate().position(8);
+            long indexSize = index.position();
+            try {
+                writeFully(channel, blockHeader, ByteBuffer.wrap(compressed, 0, compressedLength));
+                writeFully(index, header);
+            } catch (IOException e) {
+                abandonFiles(indexSize);
+                throw e;
+            }
+            fileSize += BLOCK_HEADER_SIZE + compressedLength;
+            blocks++;
+            written.add(block.records);
+        } catch (IOException e) {
+            failed.add(block.records);
+            LOG.warn("Analytic compressed write failed in {}: {}", directory, e.getMessage());
+        } finally {
+            // Reuse the buffer unless a huge record grew it well past the block size
+            if (block.data.buffer().length <= 2L * blockSize + 1024) {
+                spare.offer(block.data.reset());
+            }
+        }
+    }
+
+    private int deflate(byte[] input, int length) {
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == compressed.length) {
+                byte[] grown = new byte[compressed.length * 2];
+                System.arraycopy(compressed, 0, grown, 0, size);
+                compressed = grown;
+            }
+            size += deflater.deflate(compressed, size, compressed.length - size);
+        }
+        return size;
+    }
+
+    private void roll(long now) throws IOException {
+        closeFiles();
+        Files.createDirectories(directory);
+        String time = FILE_TIME.format(Instant.ofEpochMilli(now));
+        FileChannel opened = null;
+        Path path = null;
+        while (opened == null) {
+            path = directory.resolve(prefix + "-" + time + "-" + sequence++ + ".ndz");
+            try {
+                opened = open(path);
+            } catch (FileAlreadyExistsException e) {
+                // Same second as an earlier file or an earlier process; try the next index
+            }
+        }
+        try {
+            writeFully(opened, fileHeader(MAGIC));
+            index = FileChannel.open(path.resolveSibling(path.getFileName() + INDEX_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            writeFully(index, fileHeader(INDEX_MAGIC));
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+        file = path;
+        fileSize = FILE_HEADER_SIZE;
+        fileDeadline = now + rollIntervalMillis;
+    }
+
+    /**
+     * After a failed block write: cuts off whatever part of the block and its index entry
+     * reached the disk, so neither file holds offsets that do not match, and closes both so
+     * the next block starts a new file. Truncation is best effort; a torn block left at the
+     * end of a file is skipped by the reader.
+     */
+    private void abandonFiles(long indexSize) {
+        try {
+            channel.truncate(fileSize);
+            index.truncate(indexSize);
+        } catch (IOException e) {
+            LOG.warn("Analytic compressed file truncation failed for {}: {}", file, e.getMessage());
+        }
+        try {
+            closeFiles();
+        } catch (IOException e) {
+            LOG.warn("Analytic compressed file close failed for {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates and opens a new data file for writing.
+     */
+    FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void closeFiles() throws IOException {
+        try {
+            if (index != null) {
+                index.close();
+            }
+        } finally {
+            index = null;
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private static ByteBuffer fileHeader(byte[] magic) {
+        return ByteBuffer.allocate(FILE_HEADER_SIZE).put(magic).put(VERSION).flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    /**
+     * Records waiting to be compressed, with the range of their start times.
+     */
+    private static final class Block {
+        final JsonWriter data;
+        final long openedAt = System.nanoTime();
+        int records;
+        long minStartTime = Long.MAX_VALUE;
+        long maxStartTime = Long.MIN_VALUE;
+
+        Block(JsonWriter data) {
+            this.data = data;
+        }
+
+        void add(JsonWriter record, long startTime) {
+            data.writeBytes(record.buffer(), 0, record.size());
+            records++;
+            minStartTime = Math.min(minStartTime, startTime);
+            maxStartTime = Math.max(maxStartTime, startTime);
+        }
+    }
+}
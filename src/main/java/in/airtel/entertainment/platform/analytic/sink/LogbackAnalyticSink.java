@@ -0,0 +1,16 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.AnalyticJsonLogger;
+
+/**
+ * Default sink: logs every event through the {@code analyticLogger} SLF4J logger, so
+ * output is controlled by the application's Logback configuration.
+ */
+public class LogbackAnalyticSink implements AnalyticSink {
+
+    @Override
+    public void write(AnalyticEvent event) {
+        AnalyticJsonLogger.log(event);
+    }
+}
@@ -0,0 +1,187 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Appends newline-delimited JSON records into memory-mapped file segments, bypassing
+ * SLF4J and Logback entirely.
+ *
+ * <p>Each segment is a file of {@code segmentSize} bytes mapped read-write. A record is
+ * serialized into the calling thread's {@link JsonWriter} and copied once into the mapping;
+ * there is no output stream, encoder or {@code write(2)} call on the hot path, and the kernel
+ * writes dirty pages back on its own schedule. A new segment is started when the next record
+ * does not fit or when {@code rollInterval} has passed, by {@link TransactionData#getClock()},
+ * since the segment was opened. A rolled or closed segment is truncated to the bytes actually
+ * written.
+ *
+ * <p>Segments are named {@code <prefix>-<yyyyMMdd-HHmmss>-<n>.ndjson} in UTC. A segment
+ * left behind by a crash keeps its preallocated size, with zero bytes after the last record.
+ * Serialization runs outside this sink's monitor; only the roll check and the copy into the
+ * mapping hold it. Wrap the sink in an {@link AsyncAnalyticSink} to keep even that off the
+ * Reactor threads.
+ */
+public class MappedFileAnalyticSink implements AnalyticSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileAnalyticSink.class);
+
+    private static final DateTimeFormatter SEGMENT_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentSize;
+    private final long rollIntervalMillis;
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private Path segment;
+    private long segmentDeadline;
+    private int sequence;
+    private long written;
+    private long failed;
+    private boolean closed;
+
+    public MappedFileAnalyticSink(Path directory, String prefix, long segmentSize, Duration rollInterval) {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize must be between 1 and 2 GB: " + segmentSize);
+        }
+        if (rollInterval.isNegative() || rollInterval.isZero()) {
+            throw new IllegalArgumentException("rollInterval must be positive: " + rollInterval);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentSize = segmentSize;
+        this.rollIntervalMillis = rollInterval.toMillis();
+    }
+
+    @Override
+    public void write(AnalyticEvent event) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            event.writeJson(writer);
+            writer.writeByte('\n');
+            append(writer.buffer(), writer.size());
+        } finally {
+            writer.release();
+        }
+    }
+
+    @Override
+    public void writeBatch(List<AnalyticEvent> events) {
+        for (AnalyticEvent event : events) {
+            write(event);
+        }
+    }
+
+    /**
+     * Forces the current segment to disk. Not needed for visibility to other processes,
+     * which read the same page cache.
+     */
+    public synchronized void force() {
+        if (mapped != null) {
+            mapped.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            force();
+            closeSegment();
+        } catch (IOException e) {
+            LOG.warn("Analytic segment close failed for {}: {}", segment, e.getMessage());
+        }
+    }
+
+    public synchronized Path getCurrentSegment() {
+        return segment;
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    private synchronized void append(byte[] record, int length) {
+        if (closed) {
+            failed++;
+            return;
+        }
+        try {
+            long now = TransactionData.getClock().currentTimeMillis();
+            if (mapped == null || mapped.remaining() < length || now >= segmentDeadline) {
+                roll(now, length);
+            }
+            mapped.put(record, 0, length);
+            written++;
+        } catch (IOException e) {
+            failed++;
+            LOG.warn("Analytic segment write failed in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void roll(long now, int minimumSize) throws IOException {
+        closeSegment();
+        Files.createDirectories(directory);
+        String time = SEGMENT_TIME.format(Instant.ofEpochMilli(now));
+        FileChannel opened = null;
+        Path path = null;
+        while (opened == null) {
+            path = directory.resolve(prefix + "-" + time + "-" + sequence++ + ".ndjson");
+            try {
+                opened = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                // Same second as an earlier segment or an earlier process; try the next index
+            }
+        }
+        try {
+            mapped = opened.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, minimumSize));
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+        segment = path;
+        segmentDeadline = now + rollIntervalMillis;
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        // Drop the mapping before shrinking the file so nothing can touch pages past the new end
+        long size = mapped.position();
+        mapped = null;
+        try {
+            channel.truncate(size);
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+}
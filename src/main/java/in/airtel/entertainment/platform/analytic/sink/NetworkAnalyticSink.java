@@ -0,0 +1,512 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.JsonWriter;
+import io.netty.channel.ChannelOption;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.tcp.TcpClient;
+import reactor.netty.udp.UdpClient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships completed transactions as newline-delimited JSON over TCP or UDP, e.g. to a
+ * Logstash {@code tcp} or {@code udp} input with the {@code json_lines} codec, without a
+ * log file in between.
+ *
+ * <p>{@link #write} places the event in a bounded {@link MpscRingBuffer} and returns; when
+ * the buffer is full the event is dropped and counted. A single {@code analytic-shipper}
+ * thread serializes up to {@code batchSize} records at a time and sends them through one
+ * dedicated Reactor Netty connection with its own event loop, so the application's HTTP
+ * event loops never do this I/O. Batches go out every {@code flushInterval}, or sooner once
+ * a full batch is waiting. A UDP batch is split into datagrams of whole records.
+ *
+ * <p>When the endpoint cannot be reached, the shipper reconnects with exponential backoff
+ * from {@code minBackoff} to {@code maxBackoff}, with jitter. Meanwhile records stay in the
+ * buffer, or, with a spill file, are appended to it up to {@code maxSpillSize}. Once
+ * connected again the spill file is sent first and then emptied. A spill file left by an
+ * earlier process is sent the same way. Delivery is at least once for spilled records: a
+ * connection lost while sending the spill file makes the shipper send it again from the
+ * last acknowledged write.
+ *
+ * <p>{@link #close()} sends what is buffered if connected, spills it otherwise, and waits
+ * for the shipper for up to twice the {@code timeout}.
+ *
+ * <p>Like the other sinks, the buffer holds the event itself, which references its live
+ * transaction: a record is serialized as its transaction is when the shipper gets to it,
+ * so a write to a finished transaction before then is sent too. Events are not copied on
+ * {@link #write}; callers that need a fixed record can write {@link AnalyticEvent#snapshot()}.
+ */
+public class NetworkAnalyticSink implements AnalyticSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NetworkAnalyticSink.class);
+
+    static final int MAX_DATAGRAM_SIZE = 8192;
+    private static final int SPILL_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    private final NetworkProtocol protocol;
+    private final String host;
+    private final int port;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration timeout;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Path spillFile;
+    private final long maxSpillSize;
+
+    private final MpscRingBuffer<AnalyticEvent> buffer;
+    private final LoopResources loop;
+    private final Thread shipper;
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile boolean closed;
+    private volatile boolean connected;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Shipper thread only
+    private final JsonWriter record = new JsonWriter(1024);
+    private JsonWriter batch = new JsonWriter(64 * 1024);
+    private Connection connection;
+    private int attempt;
+    private long nextConnectAt;
+    private FileChannel spill;
+    private long spillSize;
+    private long replayPosition;
+    private int failedInBatch;
+
+    public NetworkAnalyticSink(NetworkProtocol protocol, String host, int port, int capacity, int batchSize,
+                               Duration flushInterval, Duration timeout, Duration minBackoff,
+                               Duration maxBackoff, Path spillFile, long maxSpillSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        if (minBackoff.isNegative() || minBackoff.isZero() || maxBackoff.compareTo(minBackoff) < 0) {
+            throw new IllegalArgumentException("backoff must be positive and min <= max: "
+                    + minBackoff + ", " + maxBackoff);
+        }
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.timeout = timeout;
+        this.minBackoffNanos = minBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.spillFile = spillFile;
+        this.maxSpillSize = maxSpillSize;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.loop = LoopResources.create("analytic-shipper-io", 1, true);
+
+        Thread thread = new Thread(this::shipLoop, "analytic-shipper");
+        thread.setDaemon(true);
+        this.shipper = thread;
+        thread.start();
+    }
+
+    @Override
+    public void write(AnalyticEvent event) {
+        if (closed) {
+            failed.increment();
+            return;
+        }
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        enqueued.increment();
+        if (buffer.size() >= batchSize && wakeRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(shipper);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        running = false;
+        LockSupport.unpark(shipper);
+        try {
+            shipper.join(timeout.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (shipper.isAlive()) {
+            LOG.warn("Analytic shipper did not finish within {}; {} records left unsent",
+                    timeout.multipliedBy(2), buffer.size());
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    /**
+     * Records lost because the buffer or the spill file was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    private void shipLoop() {
+        try {
+            openSpill();
+            while (running) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                wakeRequested.set(false);
+                try {
+                    ship();
+                } catch (RuntimeException e) {
+                    LOG.warn("Analytic shipper failed: {}", e.getMessage());
+                }
+            }
+            try {
+                ship();
+            } catch (RuntimeException e) {
+                LOG.warn("Analytic shipper failed: {}", e.getMessage());
+            }
+        } finally {
+            int left = buffer.size();
+            if (left > 0) {
+                failed.add(left);
+            }
+            disconnect();
+            closeSpill();
+            try {
+                loop.disposeLater(Duration.ZERO, timeout).block(timeout);
+            } catch (RuntimeException e) {
+                LOG.warn("Analytic shipper event loop did not shut down: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends the spill file and then the buffered records if connected, or spills the buffered
+     * records if not.
+     */
+    private void ship() {
+        if (!ensureConnected()) {
+            spillBuffered();
+            return;
+        }
+        if (!replaySpill()) {
+            return;
+        }
+        while (buffer.size() > 0) {
+            int records = serializeBatch();
+            if (records == 0) {
+                continue;
+            }
+            if (send(batch.buffer(), 0, batch.size())) {
+                sent.add(records);
+            } else {
+                spillOrFail(batch, records);
+                return;
+            }
+        }
+        if (batch.buffer().length > MAX_RETAINED_BUFFER) {
+            batch = new JsonWriter(64 * 1024);
+        }
+    }
+
+    private boolean ensureConnected() {
+        if (connection != null && !connection.isDisposed()) {
+            return true;
+        }
+        if (connection != null) {
+            LOG.warn("Analytic shipper lost its connection to {}:{}", host, port);
+            disconnect();
+        }
+        long now = System.nanoTime();
+        if (attempt > 0 && now - nextConnectAt < 0) {
+            return false;
+        }
+        try {
+            connection = connect().block(timeout);
+            connected = connection != null;
+        } catch (RuntimeException e) {
+            connection = null;
+        }
+        if (connected) {
+            if (attempt > 0) {
+                LOG.info("Analytic shipper connected to {}:{} after {} attempts", host, port, attempt);
+            }
+            attempt = 0;
+            return true;
+        }
+        long backoff = Math.min(maxBackoffNanos, minBackoffNanos << Math.min(attempt, 20));
+        nextConnectAt = now + backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        if (attempt++ == 0) {
+            LOG.warn("Analytic shipper cannot connect to {} {}:{}; retrying with backoff", protocol, host, port);
+        }
+        return false;
+    }
+
+    private Mono<? extends Connection> connect() {
+        if (protocol == NetworkProtocol.UDP) {
+            return UdpClient.create()
+                    .runOn(loop)
+                    .host(host)
+                    .port(port)
+                    .connect();
+        }
+        return TcpClient.newConnection()
+                .runOn(loop)
+                .host(host)
+                .port(port)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.min(Integer.MAX_VALUE, timeout.toMillis()))
+                .connect();
+    }
+
+    private void disconnect() {
+        connected = false;
+        if (connection != null) {
+            connection.dispose();
+            connection = null;
+        }
+    }
+
+    /**
+     * Serializes up to {@code batchSize} buffered records into {@link #batch}.
+     */
+    private int serializeBatch() {
+        batch.reset();
+        failedInBatch = 0;
+        return buffer.drain(this::append, batchSize) - failedInBatch;
+    }
+
+    private void append(AnalyticEvent event) {
+        try {
+            record.reset();
+            event.writeJson(record);
+            record.writeByte('\n');
+            batch.writeBytes(record.buffer(), 0, record.size());
+        } catch (RuntimeException e) {
+            failed.increment();
+            failedInBatch++;
+            LOG.warn("Analytic record serialization failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean send(byte[] data, int offset, int length) {
+        Publisher<byte[]> payload = protocol == NetworkProtocol.UDP
+                ? Flux.fromIterable(datagrams(data, offset, length))
+                : Mono.just(Arrays.copyOfRange(data, offset, offset + length));
+        try {
+            connection.outbound().sendByteArray(payload).then().block(timeout);
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("Analytic shipper send to {}:{} failed: {}", host, port, e.getMessage());
+            disconnect();
+            return false;
+        }
+    }
+
+    /**
+     * Splits newline-delimited records into datagrams of at most {@link #MAX_DATAGRAM_SIZE}
+     * bytes, never splitting a record; a larger record gets a datagram of its own.
+     */
+    static List<byte[]> datagrams(byte[] data, int offset, int length) {
+        List<byte[]> datagrams = new ArrayList<>();
+        int end = offset + length;
+        int start = offset;
+        int lastBreak = -1;
+        for (int i = offset; i < end; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            if (i + 1 - start > MAX_DATAGRAM_SIZE && lastBreak >= start) {
+                datagrams.add(Arrays.copyOfRange(data, start, lastBreak + 1));
+                start = lastBreak + 1;
+            }
+            lastBreak = i;
+        }
+        if (start < end) {
+            if (end - start > MAX_DATAGRAM_SIZE && lastBreak >= start && lastBreak + 1 < end) {
+                datagrams.add(Arrays.copyOfRange(data, start, lastBreak + 1));
+                start = lastBreak + 1;
+            }
+            datagrams.add(Arrays.copyOfRange(data, start, end));
+        }
+        return datagrams;
+    }
+
+    private void spillBuffered() {
+        if (spill == null) {
+            return;
+        }
+        while (buffer.size() > 0) {
+            int records = serializeBatch();
+            if (records > 0) {
+                spillOrFail(batch, records);
+            }
+        }
+    }
+
+    private void spillOrFail(JsonWriter data, int records) {
+        if (spill == null) {
+            failed.add(records);
+            return;
+        }
+        if (spillSize + data.size() > maxSpillSize) {
+            dropped.add(records);
+            return;
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(data.buffer(), 0, data.size());
+            while (bytes.hasRemaining()) {
+                spillSize += spill.write(bytes, spillSize);
+            }
+            spilled.add(records);
+        } catch (IOException e) {
+            failed.add(records);
+            LOG.warn("Analytic spill to {} failed: {}", spillFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the spill file from where the last replay stopped, then empties it.
+     *
+     * @return true once the spill file is empty
+     */
+    private boolean replaySpill() {
+        if (spill == null || spillSize == 0) {
+            return true;
+        }
+        try {
+            ByteBuffer chunk = ByteBuffer.allocate(SPILL_CHUNK_SIZE);
+            while (replayPosition < spillSize) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), spillSize - replayPosition));
+                readFully(chunk, replayPosition);
+                int length = lastNewline(chunk.array(), chunk.position()) + 1;
+                if (length == 0) {
+                    if (chunk.position() < chunk.capacity()) {
+                        // A torn record at the end of the file
+                        break;
+                    }
+                    chunk = ByteBuffer.allocate(chunk.capacity() * 2);
+                    continue;
+                }
+                if (!send(chunk.array(), 0, length)) {
+                    return false;
+                }
+                sent.add(count(chunk.array(), length));
+                replayPosition += length;
+            }
+            spill.truncate(0);
+            spillSize = 0;
+            replayPosition = 0;
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Analytic spill replay from {} failed: {}", spillFile, e.getMessage());
+            return false;
+        }
+    }
+
+    private void readFully(ByteBuffer chunk, long position) throws IOException {
+        while (chunk.hasRemaining()) {
+            if (spill.read(chunk, position + chunk.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    private void openSpill() {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Path parent = spillFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            spillSize = spill.size();
+        } catch (IOException e) {
+            LOG.warn("Analytic spill file {} cannot be opened; spilling disabled: {}", spillFile, e.getMessage());
+        }
+    }
+
+    private void closeSpill() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            LOG.warn("Analytic spill file close failed for {}: {}", spillFile, e.getMessage());
+        }
+        spill = null;
+    }
+
+    private static int lastNewline(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(byte[] data, int length) {
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
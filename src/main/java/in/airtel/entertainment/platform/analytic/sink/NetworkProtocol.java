@@ -0,0 +1,13 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+/**
+ * Transport used by {@link NetworkAnalyticSink}.
+ */
+public enum NetworkProtocol {
+
+    /** One long-lived connection; records are delivered in order while it stays up. */
+    TCP,
+
+    /** Datagrams of whole records; cheaper, but the network may drop or reorder them. */
+    UDP
+}
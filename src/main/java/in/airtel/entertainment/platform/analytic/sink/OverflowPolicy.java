@@ -0,0 +1,16 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+/**
+ * What a producer does when the asynchronous buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /** Discard the record being flushed. Never waits. */
+    DROP_NEWEST,
+
+    /** Evict the oldest queued record to make room for the new one. Never waits. */
+    DROP_OLDEST,
+
+    /** Retry for up to the configured block timeout, then discard the new record. */
+    BLOCK
+}
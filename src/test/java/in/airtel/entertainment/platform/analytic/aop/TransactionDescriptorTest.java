@@ -0,0 +1,67 @@
+package in.airtel.entertainment.platform.analytic.aop;
+
+import in.airtel.entertainment.platform.analytic.annotation.AnalyseTransaction;
+import in.airtel.entertainment.platform.analytic.aop.TransactionDescriptor.Kind;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.CorePublisher;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDescriptorTest {
+
+    @Test
+    void exactReactiveTypesShouldHaveTheirOwnKind() {
+        assertEquals(Kind.MONO, Kind.of(Mono.class));
+        assertEquals(Kind.FLUX, Kind.of(Flux.class));
+        assertEquals(Kind.PARALLEL_FLUX, Kind.of(ParallelFlux.class));
+        assertEquals(Kind.COMPLETION_STAGE, Kind.of(CompletableFuture.class));
+        assertEquals(Kind.COMPLETION_STAGE, Kind.of(CompletionStage.class));
+        assertEquals(Kind.PUBLISHER, Kind.of(Publisher.class));
+        assertEquals(Kind.PUBLISHER, Kind.of(CorePublisher.class));
+        assertEquals(Kind.DYNAMIC, Kind.of(Object.class));
+        assertEquals(Kind.NOT_TRACED, Kind.of(String.class));
+    }
+
+    @Test
+    void subtypesOfReactiveTypesShouldBeDispatchedOnTheValue() {
+        assertEquals(Kind.DYNAMIC, Kind.of(CustomMono.class));
+        assertEquals(Kind.DYNAMIC, Kind.of(CustomFuture.class));
+        assertEquals(Kind.DYNAMIC, Kind.of(CustomPublisher.class));
+    }
+
+    @Test
+    void valueNotAssignableAfterTracingShouldBeReturnedUntraced() throws NoSuchMethodException {
+        TransactionDescriptor descriptor = TransactionDescriptor.of(Service.class.getMethod("custom"));
+        CustomMono custom = new CustomMono();
+
+        assertSame(custom, descriptor.apply(custom));
+    }
+
+    static class Service {
+        @AnalyseTransaction(name = "custom")
+        public CustomMono custom() {
+            return new CustomMono();
+        }
+    }
+
+    static class CustomMono extends Mono<String> {
+        @Override
+        public void subscribe(CoreSubscriber<? super String> actual) {
+            Mono.just("custom").subscribe(actual);
+        }
+    }
+
+    static class CustomFuture extends CompletableFuture<String> {
+    }
+
+    interface CustomPublisher extends Publisher<String> {
+    }
+}
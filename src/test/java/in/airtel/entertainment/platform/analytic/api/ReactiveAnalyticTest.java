@@ -1,17 +1,39 @@
 package in.airtel.entertainment.platform.analytic.api;
 
 import in.airtel.entertainment.platform.analytic.core.AnalyticContextKeys;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import in.airtel.entertainment.platform.analytic.core.SpanMode;
 import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
 import in.airtel.entertainment.platform.analytic.core.TransactionStack;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.Fuseable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ReactiveAnalyticTest {
 
+    @AfterEach
+    void resetSamplingAndSink() {
+        TransactionSampler.reset();
+        AnalyticDispatcher.setSink(null);
+        TransactionData.setSpanMode(null);
+        TransactionStats.disable();
+    }
+
     @Test
     void traceShouldPushTransactionOntoContext() {
         // deferContextual is upstream of trace()'s contextWrite, so it sees the enriched context
@@ -127,4 +149,386 @@ class ReactiveAnalyticTest {
                 .expectNext("result")
                 .verifyComplete();
     }
+
+    @Test
+    void unsampledTransactionShouldSkipNestedTracesAndUpdates() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        TransactionSampler.configure(null, Map.of("parent", SamplingRule.rate(0)));
+
+        Mono<String> inner = Mono.deferContextual(ctx -> {
+            TransactionStack stack = ctx.get(AnalyticContextKeys.TRANSACTION_STACK_KEY);
+            assertTrue(stack.isUnsampled());
+            assertNull(ReactiveAnalytic.currentTransaction(ctx));
+            return Mono.just("inner");
+        })
+                .transform(ReactiveAnalytic.update("key", "value"))
+                .transform(ReactiveAnalytic.trace("child"));
+
+        StepVerifier.create(inner.transform(ReactiveAnalytic.trace("parent")))
+                .expectNext("inner")
+                .verifyComplete();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void unsampledTransactionsShouldStillBeCountedInStats() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        TransactionSampler.configure(null, Map.of("mono", SamplingRule.rate(0), "parallel", SamplingRule.rate(0)));
+
+        StepVerifier.create(Mono.just("a")
+                        .transform(ReactiveAnalytic.trace("child"))
+                        .transform(ReactiveAnalytic.trace("mono")))
+                .expectNext("a")
+                .verifyComplete();
+        StepVerifier.create(Mono.error(new IllegalStateException()).transform(ReactiveAnalytic.trace("mono")))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(Flux.range(1, 8)
+                        .parallel(4)
+                        .runOn(Schedulers.parallel())
+                        .transform(ReactiveAnalytic.traceParallel("parallel"))
+                        .sequential())
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertTrue(events.isEmpty());
+        Map<String, TransactionStats.Summary> summaries = TransactionStats.summaries();
+        assertEquals(0, summaries.get("mono").getInFlight());
+        assertEquals(2, summaries.get("mono").getWindow().getCount());
+        assertEquals(1, summaries.get("mono").getWindow().getErrorCount());
+        assertEquals(0, summaries.get("parallel").getInFlight());
+        assertEquals(1, summaries.get("parallel").getWindow().getCount());
+        assertNull(summaries.get("child"));
+    }
+
+    @Test
+    void configuredRuleShouldOverrideDeclaredRule() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Mono.just("a").transform(ReactiveAnalytic.trace("declared", SamplingRule.rate(0))))
+                .expectNext("a")
+                .verifyComplete();
+        assertTrue(events.isEmpty());
+
+        TransactionSampler.configure(null, Map.of("declared", SamplingRule.ALWAYS));
+        StepVerifier.create(Mono.just("a").transform(ReactiveAnalytic.trace("declared", SamplingRule.rate(0))))
+                .expectNext("a")
+                .verifyComplete();
+        assertEquals(1, events.size());
+        assertEquals("declared", events.get(0).getTransactionName());
+    }
+
+    @Test
+    void sampledChildOfSampledParentShouldStillStack() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        TransactionSampler.configure(null, Map.of("child", SamplingRule.rate(0)));
+
+        Mono<String> inner = Mono.just("inner").transform(ReactiveAnalytic.trace("child"));
+        StepVerifier.create(inner.transform(ReactiveAnalytic.trace("parent")))
+                .expectNext("inner")
+                .verifyComplete();
+
+        assertEquals(1, events.size());
+        assertEquals("parent", events.get(0).getTransactionName());
+    }
+
+    @Test
+    void traceFluxShouldFlushOnceWhenCancelled() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Flux.range(0, 100).transform(ReactiveAnalytic.traceFlux("cancelled")).take(2))
+                .expectNext(0, 1)
+                .verifyComplete();
+
+        assertEquals(1, events.size());
+        assertEquals(true, events.get(0).getTransaction().get("cancelled"));
+    }
+
+    @Test
+    void monoCancelledAfterValueShouldFlushAsSuccess() throws Exception {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        assertEquals("v", Mono.just("v").transform(ReactiveAnalytic.trace("future")).toFuture().get());
+
+        assertEquals(1, events.size());
+        assertNull(events.get(0).getTransaction().get("cancelled"));
+    }
+
+    @Test
+    void traceFluxShouldKeepSyncFusion() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Flux<Integer> traced = Flux.range(0, 3).transform(ReactiveAnalytic.traceFlux("fused"));
+        assertTrue(traced instanceof Fuseable);
+
+        StepVerifier.create(traced)
+                .expectFusion(Fuseable.SYNC)
+                .expectNext(0, 1, 2)
+                .verifyComplete();
+
+        assertEquals(1, events.size());
+        assertEquals("fused", events.get(0).getTransactionName());
+        assertNull(events.get(0).getError());
+    }
+
+    @Test
+    void syncFusedTraceShouldFlushWhenPublishOnEndsOnIsEmpty() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        // publishOn fuses SYNC and, with exactly the requested count emitted, completes on isEmpty()
+        StepVerifier.create(Flux.range(0, 3)
+                        .transform(ReactiveAnalytic.traceFlux("fusedPublishOn"))
+                        .publishOn(Schedulers.single()), 3)
+                .expectNext(0, 1, 2)
+                .verifyComplete();
+
+        assertEquals(1, events.size());
+        assertEquals(3L, events.get(0).getTransaction().get("elementCount"));
+    }
+
+    @Test
+    void traceFluxShouldRefuseAsyncFusion() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Flux<Integer> traced = Flux.range(0, 100)
+                .publishOn(Schedulers.parallel())
+                .transform(ReactiveAnalytic.traceFlux("asyncSource"));
+        StepVerifier.create(traced)
+                .expectFusion(Fuseable.ANY, Fuseable.NONE)
+                .expectNextCount(100)
+                .verifyComplete();
+        StepVerifier.create(traced.publishOn(Schedulers.single()))
+                .expectNextCount(100)
+                .verifyComplete();
+
+        assertEquals(2, events.size());
+        assertEquals(100L, events.get(0).getTransaction().get("elementCount"));
+        assertEquals(100L, events.get(1).getTransaction().get("elementCount"));
+    }
+
+    @Test
+    void traceParallelShouldFlushOnceAfterAllRails() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Flux<Integer> flux = Flux.range(0, 8)
+                .parallel(4)
+                .runOn(Schedulers.parallel())
+                .doOnNext(i -> assertTrue(events.isEmpty()))
+                .transform(ReactiveAnalytic.traceParallel("parallel"))
+                .sequential();
+
+        StepVerifier.create(flux)
+                .expectNextCount(8)
+                .verifyComplete();
+
+        assertEquals(1, events.size());
+        assertEquals("parallel", events.get(0).getTransactionName());
+    }
+
+    @Test
+    void traceFluxShouldRecordStreamingCounters() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Flux.interval(Duration.ofMillis(20)).take(3)
+                        .transform(ReactiveAnalytic.traceFlux("streamed")))
+                .expectNextCount(3)
+                .verifyComplete();
+        StepVerifier.create(Flux.range(0, 3).transform(ReactiveAnalytic.traceFlux("fusedStream")))
+                .expectFusion(Fuseable.SYNC)
+                .expectNextCount(3)
+                .verifyComplete();
+        StepVerifier.create(Flux.empty().transform(ReactiveAnalytic.traceFlux("emptyStream")))
+                .verifyComplete();
+
+        TransactionData streamed = events.get(0).getTransaction();
+        assertEquals(3L, streamed.get("elementCount"));
+        assertTrue((Double) streamed.get("timeToFirstElement") >= 15);
+        assertTrue((Double) streamed.get("maxElementGap") >= 15);
+        assertEquals(3L, events.get(1).getTransaction().get("elementCount"));
+        assertEquals(0L, events.get(2).getTransaction().get("elementCount"));
+        assertNull(events.get(2).getTransaction().get("timeToFirstElement"));
+    }
+
+    @Test
+    void streamingCountersShouldNotBePromotedToParent() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Flux.range(0, 2).transform(ReactiveAnalytic.traceFlux("child"))
+                        .then()
+                        .transform(ReactiveAnalytic.trace("parent")))
+                .verifyComplete();
+
+        assertEquals(2, events.size());
+        assertEquals(2L, events.get(0).getTransaction().get("elementCount"));
+        assertNull(events.get(1).getTransaction().get("elementCount"));
+    }
+
+    @Test
+    void accumulatorsShouldBeWrittenOnceAtFlush() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Flux<String> pages = Flux.range(0, 3)
+                .flatMap(page -> Flux.just("a", "bb", "ccc")
+                        .transform(ReactiveAnalytic.count("items"))
+                        .transform(ReactiveAnalytic.sum("bytes", String::length))
+                        .subscribeOn(Schedulers.parallel()))
+                .transform(ReactiveAnalytic.max("longest", String::length))
+                .transform(ReactiveAnalytic.traceFlux("pages"));
+
+        StepVerifier.create(pages)
+                .expectNextCount(9)
+                .verifyComplete();
+
+        TransactionData transaction = events.get(0).getTransaction();
+        assertEquals(9L, transaction.get("items"));
+        assertEquals(18L, transaction.get("bytes"));
+        assertEquals(3L, transaction.get("longest"));
+    }
+
+    @Test
+    void accumulatorsShouldBeNoOpWithoutTransaction() {
+        StepVerifier.create(Flux.just(1, 2).transform(ReactiveAnalytic.count("items")))
+                .expectNext(1, 2)
+                .verifyComplete();
+    }
+
+    @Test
+    void emptyMaxShouldNotBeWritten() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Flux.<Integer>empty()
+                        .transform(ReactiveAnalytic.max("largest", Integer::longValue))
+                        .transform(ReactiveAnalytic.count("items"))
+                        .transform(ReactiveAnalytic.traceFlux("empty")))
+                .verifyComplete();
+
+        assertNull(events.get(0).getTransaction().get("largest"));
+        assertEquals(0L, events.get(0).getTransaction().get("items"));
+    }
+
+    @Test
+    void traceShouldRecordPhaseTimings() throws InterruptedException {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Mono<Long> traced = Mono.delay(Duration.ofMillis(30)).transform(ReactiveAnalytic.trace("phased"));
+        Thread.sleep(20);
+        StepVerifier.create(traced)
+                .expectNext(0L)
+                .verifyComplete();
+
+        AnalyticEvent event = events.get(0);
+        TransactionData transaction = event.getTransaction();
+        assertTrue((Double) transaction.get("assemblyToSubscribe") >= 15);
+        assertTrue((Double) transaction.get("subscribeToFirstSignal") >= 25);
+        assertTrue((Double) transaction.get("firstSignalToTerminal") < 25);
+        assertTrue(event.getTimeTakenNanos() >= 25_000_000L);
+        assertEquals(event.getTimeTakenNanos() / 1_000_000, event.getTimeTaken());
+        assertNull(transaction.get("elementCount"));
+    }
+
+    @Test
+    void resubscriptionsShouldNotRecordAssemblyToSubscribe() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Flux<String> traced = Flux.just("a").transform(ReactiveAnalytic.traceFlux("repeated"));
+        StepVerifier.create(traced.repeat(2))
+                .expectNext("a", "a", "a")
+                .verifyComplete();
+        StepVerifier.create(traced)
+                .expectNext("a")
+                .verifyComplete();
+
+        assertEquals(4, events.size());
+        assertNotNull(events.get(0).getTransaction().get("assemblyToSubscribe"));
+        for (AnalyticEvent event : events.subList(1, 4)) {
+            assertNull(event.getTransaction().get("assemblyToSubscribe"));
+            assertNotNull(event.getTransaction().get("subscribeToFirstSignal"));
+        }
+    }
+
+    @Test
+    void emptySequenceShouldTakeTerminalAsFirstSignal() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        StepVerifier.create(Mono.empty().transform(ReactiveAnalytic.trace("empty")))
+                .verifyComplete();
+
+        assertEquals(0.0, events.get(0).getTransaction().get("firstSignalToTerminal"));
+    }
+
+    @Test
+    void flattenShouldMergeDescendantSpansOverOwnValues() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Mono<String> grandchild = Mono.just("v")
+                .transform(ReactiveAnalytic.update("deep", 3))
+                .transform(ReactiveAnalytic.update("shared", "grandchild"))
+                .transform(ReactiveAnalytic.trace("grandchild"));
+        Mono<String> child = grandchild
+                .transform(ReactiveAnalytic.update("shared", "child"))
+                .transform(ReactiveAnalytic.update("childKey", true))
+                .transform(ReactiveAnalytic.trace("child"));
+        Mono<String> root = child
+                .transform(ReactiveAnalytic.update("shared", "root"))
+                .transform(ReactiveAnalytic.trace("root"));
+
+        StepVerifier.create(root).expectNext("v").verifyComplete();
+
+        assertEquals(List.of("grandchild", "child", "root"),
+                events.stream().map(AnalyticEvent::getTransactionName).toList());
+        TransactionData merged = events.get(2).getTransaction();
+        // Descendants overwrite, as when each child was copied into its parent on close
+        assertEquals("grandchild", merged.get("shared"));
+        assertEquals(true, merged.get("childKey"));
+        assertEquals(3, merged.get("deep"));
+        assertTrue(merged.getSpans().isEmpty());
+        // Intermediate records hold their subtree, as when each child was copied on close
+        TransactionData intermediate = events.get(1).getTransaction();
+        assertEquals(3, intermediate.get("deep"));
+        assertEquals("grandchild", intermediate.get("shared"));
+        assertEquals(true, intermediate.get("childKey"));
+        assertTrue(intermediate.getSpans().isEmpty());
+    }
+
+    @Test
+    void nestedModeShouldRenderSpans() {
+        TransactionData.setSpanMode(SpanMode.NESTED);
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+
+        Mono<String> child = Mono.just("v")
+                .transform(ReactiveAnalytic.update("childKey", "c"))
+                .transform(ReactiveAnalytic.trace("child"));
+        StepVerifier.create(child.transform(ReactiveAnalytic.trace("root")))
+                .expectNext("v")
+                .verifyComplete();
+
+        AnalyticEvent root = events.get(1);
+        assertNull(root.getTransaction().get("childKey"));
+        String json = root.toString();
+        assertTrue(json.contains("\"spans\":[{\"transactionName\":\"child\",\"offset\":"), json);
+        assertTrue(json.contains("\"childKey\":\"c\""), json);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) root.toMap().get("spans");
+        assertEquals("child", spans.get(0).get("transactionName"));
+        assertEquals("c", spans.get(0).get("childKey"));
+    }
 }
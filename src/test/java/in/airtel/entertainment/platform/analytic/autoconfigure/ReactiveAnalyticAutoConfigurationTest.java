@@ -0,0 +1,178 @@
+package in.airtel.entertainment.platform.analytic.autoconfigure;
+
+import in.airtel.entertainment.platform.analytic.core.AggregateReporter;
+import in.airtel.entertainment.platform.analytic.core.AggregationMode;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.SpanMode;
+import in.airtel.entertainment.platform.analytic.core.TransactionAggregator;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import in.airtel.entertainment.platform.analytic.endpoint.AnalyticStatsEndpoint;
+import in.airtel.entertainment.platform.analytic.sink.AnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.AsyncAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.BinaryFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.CompressedFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.LogbackAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.MappedFileAnalyticSink;
+import in.airtel.entertainment.platform.analytic.sink.NetworkAnalyticSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveAnalyticAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ReactiveAnalyticAutoConfiguration.class));
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void restoreDispatcher() {
+        AnalyticDispatcher.setSink(null);
+        TransactionSampler.reset();
+        TransactionAggregator.reset();
+        TransactionStats.disable();
+        TransactionData.setSpanMode(null);
+    }
+
+    @Test
+    void shouldInstallLogbackSinkByDefault() {
+        runner.run(context -> {
+            assertInstanceOf(LogbackAnalyticSink.class, context.getBean(AnalyticSink.class));
+            assertSame(context.getBean(AnalyticSink.class), AnalyticDispatcher.getSink());
+        });
+    }
+
+    @Test
+    void shouldSelectMappedFileSink() {
+        runner.withPropertyValues("reactive.analytic.sink.type=mapped-file",
+                        "reactive.analytic.sink.mapped-file.directory=" + directory,
+                        "reactive.analytic.sink.mapped-file.segment-size=1MB")
+                .run(context -> assertInstanceOf(MappedFileAnalyticSink.class, AnalyticDispatcher.getSink()));
+    }
+
+    @Test
+    void shouldSelectBinaryFileSink() {
+        runner.withPropertyValues("reactive.analytic.sink.type=binary-file",
+                        "reactive.analytic.sink.binary-file.directory=" + directory)
+                .run(context -> assertInstanceOf(BinaryFileAnalyticSink.class, AnalyticDispatcher.getSink()));
+    }
+
+    @Test
+    void shouldSelectCompressedFileSink() {
+        runner.withPropertyValues("reactive.analytic.sink.type=compressed-file",
+                        "reactive.analytic.sink.compressed-file.directory=" + directory,
+                        "reactive.analytic.sink.compressed-file.block-size=64KB",
+                        "reactive.analytic.sink.compressed-file.compression-level=1")
+                .run(context -> assertInstanceOf(CompressedFileAnalyticSink.class, AnalyticDispatcher.getSink()));
+    }
+
+    @Test
+    void shouldSelectNetworkSink() {
+        runner.withPropertyValues("reactive.analytic.sink.type=network",
+                        "reactive.analytic.sink.network.protocol=udp",
+                        "reactive.analytic.sink.network.port=5514")
+                .run(context -> {
+                    assertInstanceOf(NetworkAnalyticSink.class, AnalyticDispatcher.getSink());
+                    assertEquals(1, context.getBeansOfType(AnalyticSink.class).size());
+                });
+    }
+
+    @Test
+    void shouldWrapSinkWhenAsyncEnabledAndUninstallOnClose() {
+        runner.withPropertyValues("reactive.analytic.async.enabled=true",
+                        "reactive.analytic.async.overflow-policy=drop-oldest")
+                .run(context -> {
+                    AsyncAnalyticSink async = assertInstanceOf(AsyncAnalyticSink.class,
+                            AnalyticDispatcher.getSink());
+                    assertTrue(async.isRunning());
+                    assertInstanceOf(LogbackAnalyticSink.class, async.getDelegate());
+                });
+        assertInstanceOf(LogbackAnalyticSink.class, AnalyticDispatcher.getSink());
+    }
+
+    @Test
+    void shouldBackOffForUserSink() {
+        AnalyticSink custom = event -> { };
+        runner.withBean(AnalyticSink.class, () -> custom)
+                .run(context -> assertSame(custom, AnalyticDispatcher.getSink()));
+    }
+
+    @Test
+    void samplingRulesShouldBePublishedAndReloadedOnRebind() {
+        runner.withPropertyValues("reactive.analytic.sampling.default-rate=0.5",
+                        "reactive.analytic.sampling.rules.getRecommendation.rate=0",
+                        "reactive.analytic.sampling.rules[GET /api/v1].max-per-second=100")
+                .run(context -> {
+                    assertEquals(0.5, TransactionSampler.getDefaultRule().getRate());
+                    assertEquals(0, TransactionSampler.getRule("getRecommendation").getRate());
+                    assertEquals(100, TransactionSampler.getRule("GET /api/v1").getMaxPerSecond());
+
+                    Map<String, Object> refreshed = new HashMap<>();
+                    refreshed.put("reactive.analytic.sampling.rules.getRecommendation.rate", "0.25");
+                    context.getEnvironment().getPropertySources()
+                            .addFirst(new MapPropertySource("refreshed", refreshed));
+                    String beanName = context.getBeanNamesForType(ReactiveAnalyticSamplingProperties.class)[0];
+                    Object bean = context.getBean(beanName);
+                    context.getAutowireCapableBeanFactory().initializeBean(bean, beanName);
+
+                    assertEquals(0.25, TransactionSampler.getRule("getRecommendation").getRate());
+                });
+    }
+
+    @Test
+    void aggregateModesShouldBePublishedWhenEnabled() {
+        runner.withPropertyValues("reactive.analytic.aggregate.enabled=true",
+                        "reactive.analytic.aggregate.modes.getRecommendation=aggregate",
+                        "reactive.analytic.aggregate.modes[GET /api/v1]=both")
+                .run(context -> {
+                    assertNotNull(context.getBean(AggregateReporter.class));
+                    assertEquals(AggregationMode.AGGREGATE, TransactionAggregator.getMode("getRecommendation"));
+                    assertEquals(AggregationMode.BOTH, TransactionAggregator.getMode("GET /api/v1"));
+                    assertEquals(AggregationMode.EVENTS, TransactionAggregator.getMode("other"));
+                });
+        runner.run(context -> {
+            assertTrue(context.getBeansOfType(AggregateReporter.class).isEmpty());
+            assertEquals(AggregationMode.EVENTS, TransactionAggregator.getMode("getRecommendation"));
+        });
+    }
+
+    @Test
+    void statsEndpointShouldBeRoutedInReactiveWebApplications() {
+        ReactiveWebApplicationContextRunner webRunner = new ReactiveWebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ReactiveAnalyticAutoConfiguration.class));
+        webRunner.withPropertyValues("reactive.analytic.stats.enabled=true",
+                        "reactive.analytic.stats.path=/internal/stats")
+                .run(context -> {
+                    assertTrue(TransactionStats.isEnabled());
+                    WebTestClient.bindToRouterFunction(context.getBean("analyticStatsRoutes", RouterFunction.class))
+                            .build()
+                            .get().uri("/internal/stats")
+                            .exchange()
+                            .expectStatus().isOk();
+                });
+        assertFalse(TransactionStats.isEnabled());
+        runner.withPropertyValues("reactive.analytic.stats.enabled=true")
+                .run(context -> assertTrue(context.getBeansOfType(AnalyticStatsEndpoint.class).isEmpty()));
+    }
+
+    @Test
+    void spanModeShouldBePublished() {
+        runner.withPropertyValues("reactive.analytic.spans.mode=nested")
+                .run(context -> assertEquals(SpanMode.NESTED, TransactionData.getSpanMode()));
+    }
+}
@@ -0,0 +1,148 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeStoreTest {
+
+    @Test
+    void shouldKeepInsertionOrderAndOverwriteInPlace() {
+        AttributeStore store = new AttributeStore();
+        store.put("a", "1");
+        store.putLong("b", 2);
+        store.putDouble("c", 3.5);
+        store.put("a", "updated");
+
+        assertEquals(3, store.size());
+        assertEquals(List.of("a", "b", "c"), List.copyOf(store.toMap().keySet()));
+        assertEquals("updated", store.get("a"));
+        assertEquals(2L, store.get("b"));
+        assertEquals(3.5, store.get("c"));
+    }
+
+    @Test
+    void changingKindShouldReplaceValue() {
+        AttributeStore store = new AttributeStore();
+        store.putLong("k", 7);
+        store.put("k", "text");
+        assertEquals(AttributeStore.OBJECT, store.kindAt(0));
+        assertEquals("text", store.get("k"));
+
+        store.putDouble("k", 1.25);
+        assertEquals(AttributeStore.DOUBLE, store.kindAt(0));
+        assertEquals(1.25, store.get("k"));
+    }
+
+    @Test
+    void overwritingANumberShouldReleaseItsPosition() {
+        AttributeStore store = new AttributeStore();
+        for (int i = 0; i < 200; i++) {
+            store.putLong("k" + (i % 2), i);
+            store.put("k" + (i % 2), "text");
+        }
+        for (int i = 0; i < 64; i++) {
+            store.putLong("n" + i, i);
+        }
+
+        assertEquals("text", store.get("k0"));
+        for (int i = 0; i < 64; i++) {
+            assertEquals(AttributeStore.LONG, store.kindAt(store.indexOf("n" + i)));
+            assertEquals((long) i, store.get("n" + i));
+        }
+    }
+
+    @Test
+    void shouldFindKeysBeyondLinearScanLimitAndNumberSlots() {
+        AttributeStore store = new AttributeStore();
+        for (int i = 0; i < 80; i++) {
+            store.putLong("key" + i, i);
+        }
+        for (int i = 0; i < 80; i++) {
+            if (i % 2 == 0) {
+                store.put(new String("key" + i), i * 10L);
+            } else {
+                store.putLong(new String("key" + i), i * 10L);
+            }
+        }
+
+        assertEquals(80, store.size());
+        for (int i = 0; i < 80; i++) {
+            assertEquals(i * 10L, store.get("key" + i));
+            assertEquals("key" + i, store.keyAt(i));
+        }
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void objectPutsShouldSurviveGrowth() {
+        AttributeStore store = new AttributeStore();
+        for (int i = 0; i < 30; i++) {
+            store.put("object" + i, "value" + i);
+        }
+        for (int i = 0; i < 30; i++) {
+            assertEquals("value" + i, store.get("object" + i));
+        }
+    }
+
+    @Test
+    void equalKeysShouldShareOneInstance() {
+        AttributeStore first = new AttributeStore();
+        AttributeStore second = new AttributeStore();
+        first.put(new String("dynamicKey"), "a");
+        second.put(new String("dynamicKey"), "b");
+
+        assertSame(first.keyAt(0), second.keyAt(0));
+    }
+
+    @Test
+    void copyToShouldKeepNumericKinds() {
+        AttributeStore source = new AttributeStore();
+        source.putLong("count", 3);
+        source.putDouble("ratio", 0.5);
+        source.put("name", "x");
+        AttributeStore target = new AttributeStore();
+        target.put("count", "stale");
+
+        source.copyTo(target);
+
+        assertEquals(Map.of("count", 3L, "ratio", 0.5, "name", "x"), target.toMap());
+        assertEquals(AttributeStore.LONG, target.kindAt(target.indexOf("count")));
+    }
+
+    @Test
+    void concurrentPutsShouldNotLoseKeys() throws InterruptedException {
+        AttributeStore store = new AttributeStore();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 100;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    store.putLong("k" + (base + i), base + i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400, store.size());
+        for (int i = 0; i < 400; i++) {
+            assertEquals((long) i, store.get("k" + i));
+        }
+    }
+}
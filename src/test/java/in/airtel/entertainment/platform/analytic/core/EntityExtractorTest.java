@@ -33,6 +33,33 @@ class EntityExtractorTest {
         private String privateField = "hidden";
     }
 
+    static class StaticMembersBean {
+        public static final int LIMIT = 5;
+
+        public String mode = "fast";
+    }
+
+    static class BaseBean {
+        @Analysed
+        protected long inheritedCount = 7;
+    }
+
+    static class NumericBean extends BaseBean {
+        @Analysed
+        private int version = 231;
+
+        @Analysed
+        private float ratio = 1.1f;
+
+        @Analysed
+        private Integer boxedMissing;
+
+        @Analysed
+        private boolean isActive() {
+            return true;
+        }
+    }
+
     @Test
     void shouldExtractAnnotatedFields() {
         Map<String, Object> result = EntityExtractor.extract(new AnnotatedBean());
@@ -57,4 +84,77 @@ class EntityExtractorTest {
         Map<String, Object> result = EntityExtractor.extract(null);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void extractIntoShouldWriteNumbersUnboxed() {
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(new NumericBean(), transaction);
+
+        AttributeStore attributes = transaction.attributes();
+        assertEquals(AttributeStore.LONG, attributes.kindAt(attributes.indexOf("version")));
+        // Boxed, so it renders as 1.1 rather than the widened 1.100000023841858
+        assertEquals(AttributeStore.OBJECT, attributes.kindAt(attributes.indexOf("ratio")));
+        assertEquals(231L, transaction.get("version"));
+        assertEquals(1.1f, transaction.get("ratio"));
+        assertTrue(transaction.toEvent(null).toString().contains("\"ratio\":1.1,"));
+        assertEquals(7L, transaction.get("inheritedCount"));
+        assertEquals(true, transaction.get("active"));
+        assertNull(transaction.get("boxedMissing"));
+    }
+
+    @Test
+    void extractIntoShouldMatchExtract() {
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(new AnnotatedBean(), transaction);
+
+        assertEquals(EntityExtractor.extract(new AnnotatedBean()).keySet(), transaction.getData().keySet());
+        assertEquals("user-123", transaction.get("userId"));
+        assertEquals(42L, transaction.get("itemCount"));
+    }
+
+    @Test
+    void extractIntoShouldIgnoreNulls() {
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(null, transaction);
+        EntityExtractor.extractInto(new AnnotatedBean(), null);
+        assertTrue(transaction.getData().isEmpty());
+    }
+
+    @Test
+    void shouldReadStaticFields() {
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(new StaticMembersBean(), transaction);
+
+        assertEquals(5L, transaction.get("LIMIT"));
+        assertEquals("fast", transaction.get("mode"));
+        assertEquals(5, EntityExtractor.extract(new StaticMembersBean()).get("LIMIT"));
+    }
+
+    @Test
+    void shouldPreferGeneratedExtractor() throws ReflectiveOperationException {
+        Class<?> generated = Class.forName(EntityExtractor.generatedClassName(GeneratedExtractorBean.class));
+        @SuppressWarnings("unchecked")
+        AnalyticEntityExtractor<GeneratedExtractorBean> extractor =
+                (AnalyticEntityExtractor<GeneratedExtractorBean>) generated.getDeclaredConstructor().newInstance();
+        Map<String, Object> expected = Map.of("count", 3, "scale", 1.1f, "tenant", "wynk", "active", true);
+
+        Map<String, Object> direct = new java.util.HashMap<>();
+        extractor.extract(new GeneratedExtractorBean(), direct);
+        TransactionData transaction = new TransactionData("entity");
+        EntityExtractor.extractInto(new GeneratedExtractorBean(), transaction);
+
+        assertEquals(expected, direct);
+        assertEquals(expected, EntityExtractor.extract(new GeneratedExtractorBean()));
+        assertEquals(3L, transaction.get("count"));
+        assertEquals("wynk", transaction.get("tenant"));
+        assertTrue(transaction.toEvent(null).toString().contains("\"scale\":1.1,"));
+    }
+
+    @Test
+    void generatedClassNameShouldFlattenNesting() {
+        assertEquals("in.airtel.entertainment.platform.analytic.core.EntityExtractorTest_AnnotatedBean_AnalyticExtractor",
+                EntityExtractor.generatedClassName(AnnotatedBean.class));
+        assertEquals("in.airtel.entertainment.platform.analytic.core.TransactionData_AnalyticExtractor",
+                EntityExtractor.generatedClassName(TransactionData.class));
+    }
 }
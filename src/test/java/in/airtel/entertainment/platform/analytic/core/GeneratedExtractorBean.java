@@ -0,0 +1,26 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import in.airtel.entertainment.platform.analytic.annotation.Analysed;
+import in.airtel.entertainment.platform.analytic.annotation.AnalysedEntity;
+
+/**
+ * The only test source compiled with the annotation processor, so {@link EntityExtractorTest}
+ * runs against the extractor it really generates.
+ */
+@AnalysedEntity
+class GeneratedExtractorBean {
+
+    @Analysed
+    int count = 3;
+
+    @Analysed
+    float scale = 1.1f;
+
+    @Analysed(name = "tenant")
+    private String tenantId = "wynk";
+
+    @Analysed
+    boolean isActive() {
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonWriterTest {
+
+    @Test
+    void shouldWriteNestedMapsAndIterables() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("a", 1);
+        inner.put("b", List.of("x", "y"));
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("nested", inner);
+        data.put("empty", List.of());
+        data.put("ratio", 0.5);
+
+        assertEquals("{\"nested\":{\"a\":1,\"b\":[\"x\",\"y\"]},\"empty\":[],\"ratio\":0.5}",
+                AnalyticJsonLogger.toJson(data));
+    }
+
+    @Test
+    void nestedNullKeysShouldBeWrittenAsNull() {
+        Map<Object, Object> inner = new LinkedHashMap<>();
+        inner.put(null, "x");
+        inner.put(7, "y");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(null, inner);
+
+        // As the old serializer: String.valueOf in nested maps, "" for a top-level null key
+        assertEquals("{\"\":{\"null\":\"x\",\"7\":\"y\"}}", AnalyticJsonLogger.toJson(data));
+    }
+
+    @Test
+    void shouldWriteArrays() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("ints", new int[]{1, -2, 3});
+        data.put("longs", new long[]{Long.MIN_VALUE, Long.MAX_VALUE});
+        data.put("objects", new Object[]{"a", null, true});
+
+        assertEquals("{\"ints\":[1,-2,3],"
+                        + "\"longs\":[-9223372036854775808,9223372036854775807],"
+                        + "\"objects\":[\"a\",null,true]}",
+                AnalyticJsonLogger.toJson(data));
+    }
+
+    @Test
+    void shouldMatchLegacyEscaping() {
+        String text = "back\\slash \"quoted\" line1\nline2\r\ttab";
+        JsonWriter writer = new JsonWriter();
+        writer.writeString(text);
+
+        String legacy = "\"" + text.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t") + "\"";
+        assertEquals(legacy, writer.toString());
+    }
+
+    @Test
+    void shouldEscapeOtherControlCharacters() {
+        JsonWriter writer = new JsonWriter();
+        writer.writeString("a\u0000b\u001fc\bd");
+
+        assertEquals("\"a\\u0000b\\u001fc\\u0008d\"", writer.toString());
+    }
+
+    @Test
+    void shouldEncodeNonAsciiAsUtf8() {
+        String text = "héllo → 😀 \ud800";
+        JsonWriter writer = new JsonWriter(16);
+        writer.writeEscaped(text);
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+    }
+
+    @Test
+    void shouldWriteLongsWithoutAllocation() {
+        JsonWriter writer = new JsonWriter();
+        for (long value : new long[]{0, 7, -7, 10, 999_999, 1_000_000, Long.MAX_VALUE}) {
+            writer.reset().writeLong(value);
+            assertEquals(Long.toString(value), writer.toString());
+        }
+    }
+
+    @Test
+    void acquireShouldReturnFreshWriterWhenReentered() throws Exception {
+        JsonWriter outer = JsonWriter.acquire();
+        try {
+            outer.writeAscii("outer");
+            JsonWriter inner = JsonWriter.acquire();
+            assertNotSame(outer, inner);
+            inner.writeAscii("inner");
+            inner.release();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outer.writeTo(out);
+            assertEquals("outer", out.toString(StandardCharsets.UTF_8));
+        } finally {
+            outer.release();
+        }
+        assertSame(outer, JsonWriter.acquire());
+        outer.release();
+    }
+
+    @Test
+    void shouldGrowBeyondInitialCapacity() {
+        char[] chars = new char[10_000];
+        Arrays.fill(chars, 'é');
+        String text = new String(chars);
+        JsonWriter writer = new JsonWriter(16);
+        writer.writeString(text);
+
+        assertEquals("\"" + text + "\"", writer.toString());
+    }
+
+    @Test
+    void writeDoubleShouldMatchBoxedDouble() {
+        double[] values = {0.0, -0.0, 1.0, -12.0, 0.5, 1.0 / 3, 9_999_999.0, 1e7, 1e-4, 123.456,
+                Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN};
+        for (double value : values) {
+            JsonWriter primitive = new JsonWriter();
+            JsonWriter boxed = new JsonWriter();
+            primitive.writeDouble(value);
+            boxed.writeValue(value);
+            assertEquals(boxed.toString(), primitive.toString(), "value " + value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsShouldBeContiguousAndBounded() {
+        long previousUpper = -1;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertEquals(i, LatencyHistogram.bucketIndex(previousUpper + 1));
+            assertEquals(i, LatencyHistogram.bucketIndex(upper));
+            assertTrue(upper - previousUpper <= Math.max(1, upper / 16 + 1));
+            previousUpper = upper;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesShouldBeWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, i % 100 == 0);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(10, snapshot.getErrorCount());
+        assertEquals(0.01, snapshot.getErrorRate(), 1e-9);
+        assertEquals(500.5, snapshot.getMean(), 1e-9);
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500, snapshot.getValueAtPercentile(50), 500 / 16.0);
+        assertEquals(990, snapshot.getValueAtPercentile(99), 990 / 16.0);
+        assertEquals(1000, snapshot.getValueAtPercentile(99.9), 1000 / 16.0);
+        assertTrue(snapshot.getValueAtPercentile(50) >= 500);
+    }
+
+    @Test
+    void snapshotAndResetShouldStartOver() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(7, false);
+        histogram.record(-3, true);
+
+        LatencyHistogram.Snapshot first = histogram.snapshotAndReset();
+        assertEquals(2, first.getCount());
+        assertEquals(0, first.getValueAtPercentile(50));
+        assertEquals(7, first.getMax());
+
+        LatencyHistogram.Snapshot second = histogram.snapshotAndReset();
+        assertEquals(0, second.getCount());
+        assertEquals(0, second.getValueAtPercentile(99));
+    }
+
+    @Test
+    void concurrentRecordingShouldNotLoseCounts() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 200, false);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.snapshot().getCount());
+    }
+}
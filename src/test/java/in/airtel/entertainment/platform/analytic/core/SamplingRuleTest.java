@@ -0,0 +1,96 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingRuleTest {
+
+    @Test
+    void fullRateWithoutLimitShouldBeAlways() {
+        assertSame(SamplingRule.ALWAYS, SamplingRule.of(1.0, SamplingRule.UNLIMITED));
+        assertTrue(SamplingRule.ALWAYS.sample());
+    }
+
+    @Test
+    void zeroRateShouldNeverSample() {
+        SamplingRule rule = SamplingRule.rate(0);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(rule.sample());
+        }
+    }
+
+    @Test
+    void rateShouldSampleRoughlyThatFraction() {
+        SamplingRule rule = SamplingRule.rate(0.25);
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (rule.sample()) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 23_000 && sampled < 27_000, "sampled " + sampled);
+    }
+
+    @Test
+    void budgetShouldResetEverySecond() {
+        SamplingRule rule = SamplingRule.perSecond(3);
+        assertTrue(rule.tryAcquire(100));
+        assertTrue(rule.tryAcquire(100));
+        assertTrue(rule.tryAcquire(100));
+        assertFalse(rule.tryAcquire(100));
+        assertTrue(rule.tryAcquire(101));
+        assertFalse(SamplingRule.perSecond(0).tryAcquire(100));
+    }
+
+    @Test
+    void budgetShouldHoldUnderContention() throws InterruptedException {
+        SamplingRule rule = SamplingRule.perSecond(500);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (rule.tryAcquire(42)) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, acquired.get());
+    }
+
+    @Test
+    void invalidSettingsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SamplingRule.rate(1.5));
+        assertThrows(IllegalArgumentException.class, () -> SamplingRule.rate(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> SamplingRule.of(0.5, 1L << 32));
+    }
+
+    @Test
+    void anyNegativeLimitShouldMeanUnlimited() {
+        assertSame(SamplingRule.ALWAYS, SamplingRule.of(1.0, -2));
+        assertEquals(SamplingRule.UNLIMITED, SamplingRule.of(0.5, Long.MIN_VALUE).getMaxPerSecond());
+        SamplingRule rule = SamplingRule.perSecond(-5);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(rule.sample());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampFormatterTest {
+
+    private static final long[] SAMPLES = {
+            0L, 999L, 1000L, 1771234200000L, 1771234200245L, 1771234200999L,
+            1771234201001L, 1771234200245L, 946684799999L, 4102444800000L
+    };
+
+    @Test
+    void transactionFormatShouldMatchSimpleDateFormat() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZZZZ");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        for (long millis : SAMPLES) {
+            assertEquals(sdf.format(new Date(millis)), TimestampFormatter.TRANSACTION.format(millis));
+        }
+    }
+
+    @Test
+    void isoFormatShouldMatchDateTimeFormatter() {
+        DateTimeFormatter formatter =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+        for (long millis : SAMPLES) {
+            assertEquals(formatter.format(Instant.ofEpochMilli(millis)), TimestampFormatter.ISO_UTC.format(millis));
+        }
+    }
+
+    @Test
+    void alternatingAndCollidingSecondsShouldFormatCorrectly() {
+        DateTimeFormatter formatter =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+        long base = 1771234200000L;
+        // Start/end pairs a second apart, and seconds 8 and 16 apart that share a cache slot
+        long[] offsets = {0, 1_000, 5, 1_245, 8_000, 16_000, 1, 8_999, 16_001, -1, -7_999};
+
+        for (int round = 0; round < 3; round++) {
+            for (long offset : offsets) {
+                long millis = base + offset;
+                assertEquals(formatter.format(Instant.ofEpochMilli(millis)), TimestampFormatter.ISO_UTC.format(millis));
+            }
+        }
+    }
+
+    @Test
+    void writeQuotedShouldWriteIntoBuffer() {
+        JsonWriter writer = new JsonWriter();
+        TimestampFormatter.ISO_UTC.writeQuoted(writer, 1771264800245L);
+
+        assertEquals("\"2026-02-16T18:00:00.245Z\"", writer.toString());
+    }
+
+    @Test
+    void cachedClockShouldBeInstalledAndRestored() throws Exception {
+        try (CachedClock clock = new CachedClock(Duration.ofMillis(1))) {
+            TransactionData.setClock(clock);
+            long now = System.currentTimeMillis();
+            assertTrue(Math.abs(clock.currentTimeMillis() - now) < 1000);
+            assertSame(clock, TransactionData.getClock());
+        }
+        assertSame(AnalyticClock.SYSTEM, TransactionData.getClock());
+    }
+}
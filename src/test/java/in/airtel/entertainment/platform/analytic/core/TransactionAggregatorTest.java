@@ -0,0 +1,69 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionAggregatorTest {
+
+    @AfterEach
+    void reset() {
+        TransactionAggregator.reset();
+        AnalyticDispatcher.setSink(null);
+    }
+
+    @Test
+    void modesShouldDecideWhetherEventsAreWritten() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        TransactionAggregator.configure(null,
+                Map.of("aggregated", AggregationMode.AGGREGATE, "both", AggregationMode.BOTH), 10);
+
+        AnalyticDispatcher.dispatch(new TransactionData("aggregated").toEvent(null));
+        AnalyticDispatcher.dispatch(new TransactionData("both").toEvent(new IllegalStateException()));
+        AnalyticDispatcher.dispatch(new TransactionData("plain").toEvent(null));
+
+        assertEquals(List.of("both", "plain"), events.stream().map(AnalyticEvent::getTransactionName).toList());
+        assertEquals(1, TransactionAggregator.histograms().get("aggregated").snapshot().getCount());
+        assertEquals(1, TransactionAggregator.histograms().get("both").snapshot().getErrorCount());
+        assertNull(TransactionAggregator.histograms().get("plain"));
+    }
+
+    @Test
+    void namesBeyondTheLimitShouldFallBackToEvents() {
+        TransactionAggregator.configure(AggregationMode.AGGREGATE, null, 1);
+
+        assertFalse(TransactionAggregator.record(new TransactionData("first").toEvent(null)));
+        assertTrue(TransactionAggregator.record(new TransactionData("second").toEvent(null)));
+        assertEquals(1, TransactionAggregator.histograms().size());
+    }
+
+    @Test
+    void reporterShouldLogOneRecordPerActiveName() {
+        List<AggregateRecord> records = new CopyOnWriteArrayList<>();
+        TransactionAggregator.configure(AggregationMode.AGGREGATE, null, 10);
+        try (AggregateReporter reporter = new AggregateReporter(Duration.ofHours(1), records::add)) {
+            TransactionAggregator.record(new TransactionData("busy").toEvent(null));
+            TransactionAggregator.record(new TransactionData("busy").toEvent(null));
+            TransactionAggregator.record(new TransactionData("idle").toEvent(null));
+            reporter.report();
+            TransactionAggregator.record(new TransactionData("busy").toEvent(null));
+            reporter.report();
+        }
+
+        assertEquals(3, records.size());
+        AggregateRecord busy = records.stream()
+                .filter(r -> r.getTransactionName().equals("busy")).findFirst().orElseThrow();
+        assertEquals(2, busy.getSnapshot().getCount());
+        assertEquals(1, records.get(2).getSnapshot().getCount());
+        String json = busy.toString();
+        assertTrue(json.startsWith("{\"transactionName\":\"busy\",\"recordType\":\"aggregate\","), json);
+        assertTrue(json.contains("\"count\":2,\"errorCount\":0,\"errorRate\":0.0"), json);
+    }
+}
@@ -2,6 +2,7 @@ package in.airtel.entertainment.platform.analytic.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,4 +72,84 @@ class TransactionDataTest {
         Map<String, Object> data = td.getData();
         assertThrows(UnsupportedOperationException.class, () -> data.put("x", "y"));
     }
+
+    @Test
+    void toEventShouldSerializeLikeEndMap() {
+        TransactionData td = new TransactionData("testTx");
+        td.put("collectionId", "banner_xstream");
+        td.put("timeTaken", "overridden");
+        td.put("exceptionMessage", "stale");
+
+        AnalyticEvent event = td.toEvent(new IllegalArgumentException("boom"));
+
+        assertEquals(AnalyticJsonLogger.toJson(event.toMap()), event.toString());
+        assertEquals("overridden", event.toMap().get("timeTaken"));
+        assertEquals("boom", event.toMap().get("exceptionMessage"));
+    }
+
+    @Test
+    void snapshotShouldNotSeeLaterWrites() {
+        TransactionData parent = new TransactionData("parent");
+        TransactionData child = new TransactionData("child");
+        child.putLong("items", 2);
+        parent.addSpan(child.toEvent(null));
+        parent.put("state", "closed");
+        AnalyticEvent event = parent.toEvent(null);
+
+        AnalyticEvent snapshot = event.snapshot();
+        parent.put("state", "late");
+        child.putLong("items", 3);
+
+        assertEquals("closed", snapshot.getTransaction().get("state"));
+        assertEquals(2L, snapshot.getTransaction().getSpans().get(0).getTransaction().get("items"));
+        assertEquals(event.getTimeTakenNanos(), snapshot.getTimeTakenNanos());
+        assertEquals("late", event.getTransaction().get("state"));
+    }
+
+    @Test
+    void numericAttributesShouldSerializeWithoutBoxing() {
+        TransactionData td = new TransactionData("testTx");
+        td.put("collectionId", "banner_xstream");
+        td.putLong("contentCount", 12);
+        td.putDouble("score", 0.75);
+        td.putLong("timeTaken", 5);
+
+        AnalyticEvent event = td.toEvent(null);
+
+        assertEquals(AnalyticJsonLogger.toJson(event.toMap()), event.toString());
+        assertEquals(12L, td.get("contentCount"));
+        assertEquals(0.75, td.get("score"));
+        assertTrue(event.toString().contains("\"timeTaken\":5,"));
+    }
+
+    @Test
+    void putAllFromTransactionShouldKeepOrderAndOverwrite() {
+        TransactionData parent = new TransactionData("parent");
+        parent.put("a", "parent");
+        parent.putLong("b", 1);
+        TransactionData child = new TransactionData("child");
+        child.putLong("a", 2);
+        child.put("c", "child");
+
+        parent.putAll(child);
+
+        assertEquals(Map.of("a", 2L, "b", 1L, "c", "child"), parent.getData());
+        assertEquals(List.of("a", "b", "c"), List.copyOf(parent.getData().keySet()));
+    }
+
+    @Test
+    void accumulatorsShouldBeSharedByKeyAndWrittenOnClose() {
+        TransactionData td = new TransactionData("tx");
+        td.accumulator("items", Accumulator.Kind.COUNT).increment();
+        td.accumulator("items", Accumulator.Kind.COUNT).add(2);
+        td.accumulator("largest", Accumulator.Kind.MAX).add(-5);
+
+        assertThrows(IllegalArgumentException.class, () -> td.accumulator("items", Accumulator.Kind.SUM));
+        assertNull(td.get("items"));
+
+        td.toEvent(null);
+
+        assertEquals(3L, td.get("items"));
+        assertEquals(-5L, td.get("largest"));
+    }
 }
@@ -0,0 +1,53 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSamplerTest {
+
+    @AfterEach
+    void reset() {
+        TransactionSampler.reset();
+    }
+
+    @Test
+    void shouldSampleEverythingByDefault() {
+        assertTrue(TransactionSampler.isSampled("anything"));
+        assertSame(SamplingRule.ALWAYS, TransactionSampler.getDefaultRule());
+    }
+
+    @Test
+    void configuredRuleShouldWinOverDeclaredAndDefault() {
+        TransactionSampler.configure(SamplingRule.rate(0), Map.of("kept", SamplingRule.ALWAYS));
+
+        assertTrue(TransactionSampler.isSampled("kept", SamplingRule.rate(0)));
+        assertTrue(TransactionSampler.isSampled("other", SamplingRule.ALWAYS));
+        assertFalse(TransactionSampler.isSampled("other"));
+    }
+
+    @Test
+    void reconfiguringWithSameSettingsShouldKeepBudget() {
+        TransactionSampler.configure(null, Map.of("limited", SamplingRule.perSecond(10)));
+        SamplingRule before = TransactionSampler.getRule("limited");
+
+        TransactionSampler.configure(null, Map.of("limited", SamplingRule.perSecond(10)));
+        assertSame(before, TransactionSampler.getRule("limited"));
+
+        TransactionSampler.configure(null, Map.of("limited", SamplingRule.perSecond(20)));
+        assertNotSame(before, TransactionSampler.getRule("limited"));
+        assertEquals(20, TransactionSampler.getRule("limited").getMaxPerSecond());
+    }
+
+    @Test
+    void resetShouldRemoveRules() {
+        TransactionSampler.configure(SamplingRule.rate(0), Map.of("x", SamplingRule.rate(0)));
+        TransactionSampler.reset();
+
+        assertNull(TransactionSampler.getRule("x"));
+        assertTrue(TransactionSampler.isSampled("x"));
+    }
+}
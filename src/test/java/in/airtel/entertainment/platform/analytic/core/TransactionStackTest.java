@@ -64,4 +64,50 @@ class TransactionStackTest {
 
         assertNull(stack.getParent());
     }
+
+    @Test
+    void popShouldReturnStackBelowWithoutCopying() {
+        TransactionStack base = TransactionStack.empty().push(new TransactionData("root"));
+        TransactionStack pushed = base.push(new TransactionData("child"));
+
+        assertSame(base, pushed.pop());
+    }
+
+    @Test
+    void branchesFromSameStackShouldBeIndependent() {
+        TransactionStack base = TransactionStack.empty().push(new TransactionData("root"));
+        TransactionStack left = base.push(new TransactionData("left"));
+        TransactionStack right = base.push(new TransactionData("right"));
+
+        assertEquals("left", left.peek().getTransactionName());
+        assertEquals("right", right.peek().getTransactionName());
+        assertEquals("root", left.getParent().getTransactionName());
+        assertEquals("root", right.getParent().getTransactionName());
+        assertEquals(1, base.size());
+    }
+
+    @Test
+    void deepStackShouldTrackSizeAndOrder() {
+        TransactionStack stack = TransactionStack.empty();
+        for (int i = 0; i < 16; i++) {
+            stack = stack.push(new TransactionData("tx" + i));
+        }
+        assertEquals(16, stack.size());
+        for (int i = 15; i >= 0; i--) {
+            assertEquals("tx" + i, stack.peek().getTransactionName());
+            stack = stack.pop();
+        }
+        assertTrue(stack.isEmpty());
+        assertSame(TransactionStack.empty(), stack);
+    }
+
+    @Test
+    void unsampledStackShouldBeEmptyAndDistinct() {
+        TransactionStack unsampled = TransactionStack.unsampled();
+        assertTrue(unsampled.isEmpty());
+        assertTrue(unsampled.isUnsampled());
+        assertFalse(TransactionStack.empty().isUnsampled());
+        assertNull(unsampled.peek());
+        assertNull(unsampled.getParent());
+    }
 }
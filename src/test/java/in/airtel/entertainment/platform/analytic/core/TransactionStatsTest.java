@@ -0,0 +1,77 @@
+package in.airtel.entertainment.platform.analytic.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStatsTest {
+
+    @AfterEach
+    void disable() {
+        TransactionStats.disable();
+    }
+
+    @Test
+    void shouldTrackInFlightAndCompletedTransactions() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+
+        TransactionStats.started("a");
+        TransactionStats.started("a");
+        TransactionStats.completed(new TransactionData("a").toEvent(null));
+        TransactionStats.started("b");
+        TransactionStats.completed(new TransactionData("b").toEvent(new IllegalStateException()));
+
+        Map<String, TransactionStats.Summary> summaries = TransactionStats.summaries();
+        assertEquals(1, summaries.get("a").getInFlight());
+        assertEquals(1, summaries.get("a").getWindow().getCount());
+        assertEquals(0, summaries.get("b").getInFlight());
+        assertEquals(1, summaries.get("b").getWindow().getErrorCount());
+        assertTrue(summaries.get("a").getThroughput() > 0);
+    }
+
+    @Test
+    void dispatchShouldCompleteTransactions() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+        TransactionStats.started("dispatched");
+
+        AnalyticDispatcher.setSink(event -> { });
+        try {
+            AnalyticDispatcher.dispatch(new TransactionData("dispatched").toEvent(null));
+        } finally {
+            AnalyticDispatcher.setSink(null);
+        }
+
+        TransactionStats.Summary summary = TransactionStats.summaries().get("dispatched");
+        assertEquals(0, summary.getInFlight());
+        assertEquals(1, summary.getWindow().getCount());
+    }
+
+    @Test
+    void namesBeyondTheLimitShouldNotBeTracked() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 1);
+
+        TransactionStats.started("first");
+        TransactionStats.started("second");
+
+        assertEquals(1, TransactionStats.summaries().get("first").getInFlight());
+        assertEquals(1, TransactionStats.summaries().size());
+    }
+
+    @Test
+    void disabledStatsShouldRecordNothing() {
+        TransactionStats.started("ignored");
+        TransactionStats.completed(new TransactionData("ignored").toEvent(null));
+
+        assertFalse(TransactionStats.isEnabled());
+        assertTrue(TransactionStats.summaries().isEmpty());
+    }
+
+    @Test
+    void windowShouldNeedAMillisecondPerSlot() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionStats.enable(Duration.ofMillis(3), 6, 1));
+    }
+}
@@ -0,0 +1,76 @@
+package in.airtel.entertainment.platform.analytic.encoder;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticJsonEncoderTest {
+
+    private static final String LINE_SEP = System.lineSeparator();
+
+    private final AnalyticJsonEncoder encoder = new AnalyticJsonEncoder();
+
+    @Test
+    void structuredEventShouldEncodeLikeStringMessage() {
+        TransactionData td = new TransactionData("getRecommendation");
+        td.put("collectionId", "banner_xstream");
+        td.put("contentCount", 12);
+        AnalyticEvent event = td.toEvent(new IllegalStateException("bad \"state\""));
+
+        byte[] structured = encoder.encode(loggingEvent("{}", event));
+        byte[] legacy = encoder.encode(loggingEvent(event.toString()));
+
+        assertEquals(new String(legacy, StandardCharsets.UTF_8), new String(structured, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldEmbedJsonStringMessageAsTransaction() {
+        String json = new String(encoder.encode(loggingEvent("{\"transactionName\":\"tx\"}")),
+                StandardCharsets.UTF_8);
+
+        assertEquals("{\"@timestamp\":\"2026-02-16T18:00:00.245Z\",\"level\":\"INFO\","
+                + "\"log_type\":\"LOGSTASH\",\"loggerName\":\"analyticLogger\","
+                + "\"correlationid\":\"abc-123\",\"transaction\":{\"transactionName\":\"tx\"}}"
+                + LINE_SEP, json);
+    }
+
+    @Test
+    void shouldEscapePlainMessage() {
+        String json = new String(encoder.encode(loggingEvent("plain \"text\"\n")), StandardCharsets.UTF_8);
+
+        assertTrue(json.endsWith(",\"message\":\"plain \\\"text\\\"\\n\"}" + LINE_SEP));
+    }
+
+    @Test
+    void encodeToShouldWriteSameBytesAsEncode() throws Exception {
+        TransactionData td = new TransactionData("tx");
+        td.put("key", "välue");
+        LoggingEvent event = loggingEvent("{}", td.toEvent(null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encodeTo(event, out);
+
+        assertArrayEquals(encoder.encode(event), out.toByteArray());
+    }
+
+    private static LoggingEvent loggingEvent(String message, Object... args) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName("analyticLogger");
+        event.setLevel(Level.INFO);
+        event.setTimeStamp(1771264800245L);
+        event.setMessage(message);
+        if (args.length > 0) {
+            event.setArgumentArray(args);
+        }
+        event.setMDCPropertyMap(Map.of("correlationid", "abc-123"));
+        return event;
+    }
+}
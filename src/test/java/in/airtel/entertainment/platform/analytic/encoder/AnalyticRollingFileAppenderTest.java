@@ -0,0 +1,125 @@
+package in.airtel.entertainment.platform.analytic.encoder;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.TriggeringPolicyBase;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticRollingFileAppenderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteStructuredAndPlainEvents() throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        AnalyticRollingFileAppender appender = startAppender(context, dir.resolve("analytic.log"));
+        Logger logger = context.getLogger("analyticRollingFileAppenderTest");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        TransactionData td = new TransactionData("fileTx");
+        td.put("collectionId", "banner_xstream");
+        logger.info("{}", td.toEvent(null));
+        logger.info("{\"legacy\":true}");
+        logger.detachAppender(appender);
+        appender.stop();
+
+        List<String> lines = Files.readAllLines(dir.resolve("analytic.log"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains(",\"transaction\":{\"transactionName\":\"fileTx\","));
+        assertTrue(lines.get(0).endsWith(",\"collectionId\":\"banner_xstream\"}}"));
+        assertTrue(lines.get(1).endsWith(",\"transaction\":{\"legacy\":true}}"));
+    }
+
+    @Test
+    void structuredAndPlainEventsShouldNotCheckTheTriggerConcurrently() throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        AnalyticRollingFileAppender appender = startAppender(context, dir.resolve("analytic.log"));
+        OverlapDetectingPolicy trigger = new OverlapDetectingPolicy();
+        trigger.setContext(context);
+        trigger.start();
+        appender.setTriggeringPolicy(trigger);
+        Logger logger = context.getLogger("analyticRollingFileAppenderTest.mixed");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        Thread structured = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                logger.info("{}", new TransactionData("tx" + i).toEvent(null));
+            }
+        });
+        Thread plain = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                logger.info("{\"plain\":" + i + "}");
+            }
+        });
+        structured.start();
+        plain.start();
+        structured.join();
+        plain.join();
+        logger.detachAppender(appender);
+        appender.stop();
+
+        assertEquals(100, trigger.checks.get());
+        assertFalse(trigger.overlapped, "triggering policy was evaluated concurrently");
+        assertEquals(100, Files.readAllLines(dir.resolve("analytic.log")).size());
+    }
+
+    /**
+     * Never triggers; notes whether two threads were ever inside {@code isTriggeringEvent}.
+     */
+    private static final class OverlapDetectingPolicy extends TriggeringPolicyBase<ILoggingEvent> {
+        final AtomicInteger checks = new AtomicInteger();
+        private final AtomicInteger inside = new AtomicInteger();
+        volatile boolean overlapped;
+
+        @Override
+        public boolean isTriggeringEvent(File activeFile, ILoggingEvent event) {
+            checks.incrementAndGet();
+            if (inside.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            LockSupport.parkNanos(200_000);
+            inside.decrementAndGet();
+            return false;
+        }
+    }
+
+    private static AnalyticRollingFileAppender startAppender(LoggerContext context, Path file) {
+        AnalyticJsonEncoder encoder = new AnalyticJsonEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        AnalyticRollingFileAppender appender = new AnalyticRollingFileAppender();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setFile(file.toString());
+
+        TimeBasedRollingPolicy<ILoggingEvent> policy = new TimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setFileNamePattern(file.getParent().resolve("analytic.%d{yyyy-MM-dd}.log").toString());
+        policy.start();
+        appender.setRollingPolicy(policy);
+        appender.start();
+        return appender;
+    }
+}
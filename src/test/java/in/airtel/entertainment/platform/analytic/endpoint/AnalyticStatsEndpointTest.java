@@ -0,0 +1,54 @@
+package in.airtel.entertainment.platform.analytic.endpoint;
+
+import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticStatsEndpointTest {
+
+    private final AnalyticStatsEndpoint endpoint = new AnalyticStatsEndpoint(Duration.ofMinutes(1), 6, 100);
+
+    @AfterEach
+    void close() {
+        endpoint.close();
+        AnalyticDispatcher.setSink(null);
+    }
+
+    @Test
+    void shouldServeTracedTransactions() {
+        AnalyticDispatcher.setSink(event -> { });
+        StepVerifier.create(Mono.just(1).transform(ReactiveAnalytic.trace("statsWork")))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(Mono.error(new IllegalStateException()).transform(ReactiveAnalytic.trace("statsWork")))
+                .verifyError(IllegalStateException.class);
+
+        WebTestClient.bindToRouterFunction(endpoint.routes("/analytic/stats")).build()
+                .get().uri("/analytic/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.windowSeconds").isEqualTo(60)
+                .jsonPath("$.transactions.statsWork.inFlight").isEqualTo(0)
+                .jsonPath("$.transactions.statsWork.count").isEqualTo(2)
+                .jsonPath("$.transactions.statsWork.errorCount").isEqualTo(1)
+                .jsonPath("$.transactions.statsWork.errorRate").isEqualTo(0.5)
+                .jsonPath("$.transactions.statsWork.p99").exists();
+    }
+
+    @Test
+    void closeShouldDisableCollection() {
+        assertTrue(TransactionStats.isEnabled());
+        endpoint.close();
+        assertFalse(TransactionStats.isEnabled());
+    }
+}
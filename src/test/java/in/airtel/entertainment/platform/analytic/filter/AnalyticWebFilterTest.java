@@ -0,0 +1,293 @@
+package in.airtel.entertainment.platform.analytic.filter;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.SamplingRule;
+import in.airtel.entertainment.platform.analytic.core.TransactionSampler;
+import in.airtel.entertainment.platform.analytic.core.TransactionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticWebFilterTest {
+
+    private final List<AnalyticEvent> written = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void installSink() {
+        AnalyticDispatcher.setSink(written::add);
+    }
+
+    @AfterEach
+    void restore() {
+        AnalyticDispatcher.setSink(null);
+        TransactionStats.disable();
+        TransactionSampler.reset();
+    }
+
+    @Test
+    void controllerRequestsShouldBeNamedByMatchedPattern() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/content/123").exchange().expectStatus().isOk();
+        client.get().uri("/content/abc").exchange().expectStatus().isOk();
+
+        assertEquals(List.of("GET /content/{contentId}", "GET /content/{contentId}"), names());
+        assertEquals("/content/abc", written.get(1).getTransaction().get("requestPath"));
+    }
+
+    @Test
+    void routerFunctionRequestsShouldBeNamedByMatchedPattern() {
+        WebTestClient client = WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .GET("/rails/{railId}/items", request -> ServerResponse.ok().build())
+                        .build())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/rails/7/items").exchange().expectStatus().isOk();
+
+        assertEquals(List.of("GET /rails/{railId}/items"), names());
+    }
+
+    @Test
+    void unmatchedRequestsShouldUseTheNormalizedPath() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/missing/42").exchange().expectStatus().isNotFound();
+        client.get().uri("/missing/43").exchange().expectStatus().isNotFound();
+
+        assertEquals(List.of("GET /missing/{id}", "GET /missing/{id}"), names());
+    }
+
+    @Test
+    void namesBeyondTheLimitShouldGoToTheOverflowName() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter(PathNormalizer.NONE, 2, "other"))
+                .build();
+
+        client.get().uri("/missing/a").exchange();
+        client.get().uri("/missing/b").exchange();
+        client.get().uri("/missing/c").exchange();
+        client.get().uri("/missing/a").exchange();
+
+        assertEquals(List.of("GET /missing/a", "GET /missing/b", "other", "GET /missing/a"), names());
+    }
+
+    @Test
+    void routedRequestsShouldNotUseUpNamesWithTheirPaths() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter(PathNormalizer.NONE, 2, "other"))
+                .build();
+
+        client.get().uri("/content/a").exchange().expectStatus().isOk();
+        client.get().uri("/content/b").exchange().expectStatus().isOk();
+        client.get().uri("/content/c").exchange().expectStatus().isOk();
+        client.post().uri("/echo").bodyValue("x").exchange().expectStatus().isOk();
+
+        assertEquals(List.of("GET /content/{contentId}", "GET /content/{contentId}", "GET /content/{contentId}",
+                "POST /echo"), names());
+    }
+
+    @Test
+    void renameShouldMoveTheInFlightCount() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/content/123").exchange().expectStatus().isOk();
+
+        assertEquals(0, TransactionStats.summaries().get("GET /content/{id}").getInFlight());
+        TransactionStats.Summary summary = TransactionStats.summaries().get("GET /content/{contentId}");
+        assertEquals(0, summary.getInFlight());
+        assertEquals(1, summary.getWindow().getCount());
+    }
+
+    @Test
+    void unsampledRequestsShouldStillBeCountedUnderTheirRoute() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+        TransactionSampler.configure(null, Map.of("GET /content/{id}", SamplingRule.rate(0)));
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/content/123").exchange().expectStatus().isOk();
+
+        assertTrue(written.isEmpty());
+        assertEquals(0, TransactionStats.summaries().get("GET /content/{id}").getInFlight());
+        TransactionStats.Summary summary = TransactionStats.summaries().get("GET /content/{contentId}");
+        assertEquals(0, summary.getInFlight());
+        assertEquals(1, summary.getWindow().getCount());
+    }
+
+    @Test
+    void shouldRecordStatusBytesAndTimeToFirstByte() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.post().uri("/echo").bodyValue("x".repeat(1000)).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("x".repeat(1000));
+        client.get().uri("/missing").exchange().expectStatus().isNotFound();
+
+        Map<String, Object> echo = written.get(0).getTransaction().getData();
+        assertEquals(200L, echo.get("httpStatus"));
+        assertEquals(1000L, echo.get("requestBytes"));
+        assertEquals(1000L, echo.get("responseBytes"));
+        double timeToFirstByte = (Double) echo.get("timeToFirstByte");
+        double timeTaken = written.get(0).getTimeTakenNanos() / 1_000_000.0;
+        assertTrue(timeToFirstByte >= 0 && timeToFirstByte <= timeTaken, timeToFirstByte + " vs " + timeTaken);
+
+        assertEquals(404L, written.get(1).getTransaction().getData().get("httpStatus"));
+    }
+
+    @Test
+    void handlerErrorsShouldRecordTheStatusTheServerAnswersWith() {
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/failing").exchange().expectStatus().isEqualTo(500);
+        client.get().uri("/conflict").exchange().expectStatus().isEqualTo(409);
+
+        assertEquals(500L, written.get(0).getTransaction().get("httpStatus"));
+        assertEquals("ON_ERROR", written.get(0).getTransaction().get("signalType"));
+        assertEquals(409L, written.get(1).getTransaction().get("httpStatus"));
+    }
+
+    @Test
+    void failedSampledRequestsShouldBeCountedAsErrors() {
+        TransactionStats.enable(Duration.ofMinutes(1), 6, 10);
+        WebTestClient client = WebTestClient.bindToController(new ContentController())
+                .webFilter(new AnalyticWebFilter())
+                .build();
+
+        client.get().uri("/failing").exchange().expectStatus().isEqualTo(500);
+
+        assertNotNull(written.get(0).getError());
+        assertTrue(written.get(0).toMap().containsKey("exceptionClass"));
+        TransactionStats.Summary summary = TransactionStats.summaries().get("GET /failing");
+        assertEquals(1, summary.getWindow().getCount());
+        assertEquals(1, summary.getWindow().getErrorCount());
+    }
+
+    @Test
+    void errorsShouldRecordTheirStatusBeforeAnExceptionHandlerWritesIt() {
+        AnalyticWebFilter filter = new AnalyticWebFilter();
+
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/failing")),
+                        exchange -> Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/conflict")),
+                        exchange -> Mono.error(new ResponseStatusException(HttpStatus.CONFLICT))))
+                .verifyError(ResponseStatusException.class);
+
+        assertEquals(500L, written.get(0).getTransaction().get("httpStatus"));
+        assertNull(written.get(0).getTransaction().get("timeToFirstByte"));
+        assertEquals(409L, written.get(1).getTransaction().get("httpStatus"));
+    }
+
+    @Test
+    void streamedResponseShouldBeCountedWhenWrittenToTheConnection() throws InterruptedException {
+        HttpHandler handler = RouterFunctions.toHttpHandler(RouterFunctions.route()
+                        .GET("/chunks", request -> ServerResponse.status(201)
+                                .body(Flux.just("first", "-", "second", "!!!"), String.class))
+                        .build(),
+                HandlerStrategies.builder().webFilter(new AnalyticWebFilter()).build());
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        try {
+            WebTestClient.bindToServer().baseUrl("http://127.0.0.1:" + server.port()).build()
+                    .get().uri("/chunks").exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(String.class).isEqualTo("first-second!!!");
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (written.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Map<String, Object> chunks = written.get(0).getTransaction().getData();
+            assertEquals(201L, chunks.get("httpStatus"));
+            assertEquals(0L, chunks.get("requestBytes"));
+            assertEquals(15L, chunks.get("responseBytes"));
+            assertNotNull(chunks.get("timeToFirstByte"));
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void idNormalizerShouldReplaceIdentifierSegments() {
+        PathNormalizer ids = PathNormalizer.IDS;
+        assertEquals("/content/{id}/episodes/{id}", ids.normalize("/content/123/episodes/9"));
+        assertEquals("/users/{id}", ids.normalize("/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+        assertEquals("/session/{id}/", ids.normalize("/session/5f1c9a7be02d4a11/"));
+        assertEquals("/content/deadbeefdeadbeef", ids.normalize("/content/deadbeefdeadbeef"));
+        assertEquals("/v2/home", ids.normalize("/v2/home"));
+        String unchanged = "/content/latest";
+        assertSame(unchanged, ids.normalize(unchanged));
+    }
+
+    private List<String> names() {
+        return written.stream().map(AnalyticEvent::getTransactionName).toList();
+    }
+
+    @RestController
+    static class ContentController {
+
+        @GetMapping("/content/{contentId}")
+        Mono<String> content(@PathVariable("contentId") String contentId) {
+            return Mono.just(contentId);
+        }
+
+        @GetMapping("/failing")
+        Mono<String> failing() {
+            return Mono.error(new IllegalStateException("boom"));
+        }
+
+        @GetMapping("/conflict")
+        Mono<String> conflict() {
+            throw new ResponseStatusException(HttpStatus.CONFLICT);
+        }
+
+        @PostMapping("/echo")
+        Mono<String> echo(@RequestBody String body) {
+            return Mono.just(body);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import in.airtel.entertainment.platform.analytic.annotation.AnalyseTransaction;
 import in.airtel.entertainment.platform.analytic.aop.AnalyseTransactionAspect;
 import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
 import in.airtel.entertainment.platform.analytic.autoconfigure.ReactiveAnalyticAutoConfiguration;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,9 +15,16 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(classes = {
@@ -50,6 +60,46 @@ class AutoConfigurationIntegrationTest {
                 .verifyComplete();
     }
 
+    @Test
+    void annotationSampleRateShouldSkipTransaction() {
+        StepVerifier.create(sampleService.unsampledWork())
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void aopShouldTraceEveryReactiveReturnType() throws Exception {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        try {
+            StepVerifier.create(sampleService.fluxWork()).expectNext(1, 2).verifyComplete();
+            assertEquals("done", sampleService.futureWork().get());
+            StepVerifier.create(Flux.from(sampleService.publisherWork())).expectNext("p").verifyComplete();
+            StepVerifier.create(sampleService.parallelWork().sequential()).expectNextCount(4).verifyComplete();
+            assertEquals("plain", sampleService.plainWork());
+
+            assertEquals(List.of("fluxWork", "futureWork", "publisherWork", "parallelWork"),
+                    events.stream().map(AnalyticEvent::getTransactionName).toList());
+            assertEquals(true, events.get(0).getTransaction().get("inFlux"));
+        } finally {
+            AnalyticDispatcher.setSink(null);
+        }
+    }
+
+    @Test
+    void aopShouldReturnSubtypeDeclaredValuesUntraced() {
+        List<AnalyticEvent> events = new CopyOnWriteArrayList<>();
+        AnalyticDispatcher.setSink(events::add);
+        try {
+            // Declared as a Mono subclass: a traced Mono could not be returned in its place
+            CustomMono custom = sampleService.customMonoWork();
+            StepVerifier.create(custom).expectNext("custom").verifyComplete();
+            assertTrue(events.isEmpty());
+        } finally {
+            AnalyticDispatcher.setSink(null);
+        }
+    }
+
     @Configuration
     @EnableAspectJAutoProxy
     static class TestConfig {
@@ -65,5 +115,57 @@ class AutoConfigurationIntegrationTest {
             return Mono.just("done")
                     .transform(ReactiveAnalytic.update("status", "completed"));
         }
+
+        @AnalyseTransaction(name = "neverSampled", sampleRate = 0)
+        public Mono<Boolean> unsampledWork() {
+            return Mono.deferContextual(ctx -> Mono.just(ReactiveAnalytic.currentTransaction(ctx) == null));
+        }
+
+        @AnalyseTransaction(name = "fluxWork")
+        public Flux<Integer> fluxWork() {
+            return Flux.just(1, 2).doOnEach(signal -> {
+                if (signal.isOnNext()) {
+                    ReactiveAnalytic.updateFromSignal(signal, "inFlux", true);
+                }
+            });
+        }
+
+        @AnalyseTransaction(name = "futureWork")
+        public CompletableFuture<String> futureWork() {
+            return CompletableFuture.completedFuture("done");
+        }
+
+        @AnalyseTransaction(name = "publisherWork")
+        public Publisher<String> publisherWork() {
+            return subscriber -> Flux.just("p").subscribe(subscriber);
+        }
+
+        @AnalyseTransaction(name = "parallelWork")
+        public ParallelFlux<Integer> parallelWork() {
+            return Flux.range(0, 4).parallel(2);
+        }
+
+        @AnalyseTransaction(name = "customMonoWork")
+        public CustomMono customMonoWork() {
+            return new CustomMono("custom");
+        }
+
+        @AnalyseTransaction(name = "plainWork")
+        public String plainWork() {
+            return "plain";
+        }
+    }
+
+    static class CustomMono extends Mono<String> {
+        private final String value;
+
+        CustomMono(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void subscribe(CoreSubscriber<? super String> actual) {
+            Mono.just(value).subscribe(actual);
+        }
     }
 }
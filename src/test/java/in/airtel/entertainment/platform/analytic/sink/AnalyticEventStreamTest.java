@@ -0,0 +1,122 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.api.ReactiveAnalytic;
+import in.airtel.entertainment.platform.analytic.core.AnalyticDispatcher;
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticEventStreamTest {
+
+    private final List<AnalyticEvent> written = new ArrayList<>();
+
+    @BeforeEach
+    void installSink() {
+        AnalyticDispatcher.setSink(written::add);
+    }
+
+    @AfterEach
+    void restoreSink() {
+        AnalyticDispatcher.setSink(null);
+    }
+
+    @Test
+    void withoutSubscribersNothingIsPublished() {
+        long published = AnalyticEventStream.getPublishedCount();
+
+        AnalyticDispatcher.dispatch(event("tx"));
+
+        assertEquals(0, AnalyticEventStream.getSubscriberCount());
+        assertEquals(published, AnalyticEventStream.getPublishedCount());
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void subscribersShouldReceiveTracedTransactions() {
+        StepVerifier.create(ReactiveAnalytic.events().map(event -> event.getTransaction().getTransactionName()))
+                .then(() -> Mono.just("value").transform(ReactiveAnalytic.trace("first")).block())
+                .then(() -> Mono.just("value").transform(ReactiveAnalytic.trace("second")).block())
+                .expectNext("first", "second")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(0, AnalyticEventStream.getSubscriberCount());
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    void bufferedEventsShouldNotSeeLateWrites() {
+        TransactionData transaction = new TransactionData("tx");
+        transaction.put("state", "closed");
+
+        StepVerifier.create(ReactiveAnalytic.events(), 0)
+                .then(() -> {
+                    AnalyticDispatcher.dispatch(transaction.toEvent(null));
+                    transaction.put("state", "late");
+                })
+                .thenRequest(1)
+                .assertNext(event -> assertEquals("closed", event.getTransaction().get("state")))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void fullBufferShouldDropForThatSubscriberOnly() {
+        List<AnalyticEvent> dropped = new ArrayList<>();
+        List<String> eager = new ArrayList<>();
+        Disposable other = ReactiveAnalytic.events()
+                .subscribe(event -> eager.add(event.getTransaction().getTransactionName()));
+        long droppedBefore = AnalyticEventStream.getDroppedCount();
+
+        StepVerifier.create(ReactiveAnalytic.events(4, dropped::add)
+                        .map(event -> event.getTransaction().getTransactionName()), 0)
+                .then(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        AnalyticDispatcher.dispatch(event("tx" + i));
+                    }
+                })
+                .thenRequest(2)
+                .expectNext("tx0", "tx1")
+                .then(() -> AnalyticDispatcher.dispatch(event("tx10")))
+                .thenRequest(10)
+                .expectNext("tx2", "tx3", "tx10")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        other.dispose();
+
+        assertEquals(6, dropped.size());
+        assertEquals("tx4", dropped.get(0).getTransaction().getTransactionName());
+        assertEquals(6, AnalyticEventStream.getDroppedCount() - droppedBefore);
+        assertEquals(11, eager.size());
+        assertEquals(0, AnalyticEventStream.getSubscriberCount());
+    }
+
+    @Test
+    void failingSubscriberShouldBeCancelled() {
+        StepVerifier.create(ReactiveAnalytic.events()
+                        .map(event -> {
+                            throw new IllegalStateException("boom");
+                        }))
+                .then(() -> AnalyticDispatcher.dispatch(event("tx")))
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(0, AnalyticEventStream.getSubscriberCount());
+        assertEquals(1, written.size());
+    }
+
+    private static AnalyticEvent event(String name) {
+        return new TransactionData(name).toEvent(null);
+    }
+}
@@ -0,0 +1,218 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAnalyticSinkTest {
+
+    @Test
+    void shouldWriteOnDrainerThread() throws InterruptedException {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch written = new CountDownLatch(3);
+        AsyncAnalyticSink async = sink(event -> {
+            threads.add(Thread.currentThread().getName());
+            written.countDown();
+        }, 16, OverflowPolicy.DROP_NEWEST);
+
+        async.start();
+        for (int i = 0; i < 3; i++) {
+            async.write(event("tx" + i));
+        }
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertTrue(threads.stream().allMatch("analytic-async-drainer"::equals));
+        async.close();
+        assertEquals(3, async.getWrittenCount());
+        assertFalse(async.isRunning());
+    }
+
+    @Test
+    void closeShouldDrainQueuedEventsAndCloseDelegate() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> names = new CopyOnWriteArrayList<>();
+        AtomicBoolean delegateClosed = new AtomicBoolean();
+        AsyncAnalyticSink async = sink(new AnalyticSink() {
+            @Override
+            public void write(AnalyticEvent event) {
+                await(release);
+                names.add(event.getTransactionName());
+            }
+
+            @Override
+            public void close() {
+                delegateClosed.set(true);
+            }
+        }, 64, OverflowPolicy.DROP_NEWEST);
+
+        async.start();
+        for (int i = 0; i < 20; i++) {
+            async.write(event("tx" + i));
+        }
+        release.countDown();
+        async.close();
+
+        assertTrue(delegateClosed.get());
+        assertEquals(20, names.size());
+        assertEquals("tx0", names.get(0));
+        assertEquals("tx19", names.get(19));
+        assertEquals(0, async.getQueueSize());
+    }
+
+    @Test
+    void closeShouldCountWhatTheDrainerLeftAndStillCloseTheDelegate() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean delegateClosed = new AtomicBoolean();
+        AsyncAnalyticSink async = new AsyncAnalyticSink(new AnalyticSink() {
+            @Override
+            public void write(AnalyticEvent event) {
+                blocked.countDown();
+                await(release);
+            }
+
+            @Override
+            public void close() {
+                delegateClosed.set(true);
+            }
+        }, 16, 1, OverflowPolicy.DROP_NEWEST, Duration.ofMillis(1), Duration.ofMillis(50));
+
+        async.start();
+        async.write(event("stuck"));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            async.write(event("tx" + i));
+        }
+        async.close();
+        release.countDown();
+
+        assertTrue(delegateClosed.get());
+        assertEquals(5, async.getFailedCount());
+        assertEquals(0, async.getQueueSize());
+    }
+
+    @Test
+    void dropNewestShouldCountRejectedEvents() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> names = new CopyOnWriteArrayList<>();
+        AsyncAnalyticSink async = sink(event -> {
+            await(release);
+            names.add(event.getTransactionName());
+        }, 4, OverflowPolicy.DROP_NEWEST);
+
+        async.start();
+        // First event may already be held by the blocked drainer
+        for (int i = 0; i < 10; i++) {
+            async.write(event("tx" + i));
+        }
+        assertTrue(async.getDroppedCount() >= 5);
+        release.countDown();
+        async.close();
+
+        assertEquals(10, names.size() + async.getDroppedCount());
+        assertEquals("tx0", names.get(0));
+        assertFalse(names.contains("tx9"));
+    }
+
+    @Test
+    void dropOldestShouldKeepLatestEvents() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> names = new CopyOnWriteArrayList<>();
+        AsyncAnalyticSink async = sink(event -> {
+            await(release);
+            names.add(event.getTransactionName());
+        }, 4, OverflowPolicy.DROP_OLDEST);
+
+        async.start();
+        for (int i = 0; i < 10; i++) {
+            async.write(event("tx" + i));
+        }
+        release.countDown();
+        async.close();
+
+        assertEquals(10, names.size() + async.getDroppedCount());
+        assertTrue(names.containsAll(List.of("tx6", "tx7", "tx8", "tx9")));
+    }
+
+    @Test
+    void blockShouldWaitForRoomThenDrop() {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncAnalyticSink async = new AsyncAnalyticSink(event -> await(release), 2, 1,
+                OverflowPolicy.BLOCK, Duration.ofMillis(20), Duration.ofSeconds(5));
+
+        async.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            async.write(event("tx" + i));
+        }
+        long elapsed = System.nanoTime() - start;
+        release.countDown();
+        async.close();
+
+        assertTrue(async.getDroppedCount() >= 1);
+        assertTrue(elapsed >= Duration.ofMillis(20).toNanos());
+        assertEquals(4, async.getWrittenCount() + async.getDroppedCount());
+    }
+
+    @Test
+    void shouldWriteSynchronouslyWhenNotRunning() {
+        List<String> names = new CopyOnWriteArrayList<>();
+        AsyncAnalyticSink async = sink(event -> names.add(event.getTransactionName()),
+                4, OverflowPolicy.DROP_NEWEST);
+
+        async.write(event("before"));
+        assertEquals(List.of("before"), names);
+        assertEquals(0, async.getEnqueuedCount());
+    }
+
+    @Test
+    void failingDelegateShouldNotStopDrainer() throws InterruptedException {
+        List<String> names = new CopyOnWriteArrayList<>();
+        AsyncAnalyticSink async = sink(event -> {
+            if (event.getTransactionName().equals("bad")) {
+                throw new IllegalStateException("disk full");
+            }
+            names.add(event.getTransactionName());
+        }, 16, OverflowPolicy.DROP_NEWEST);
+
+        async.start();
+        async.write(event("bad"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (async.getFailedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        async.write(event("good"));
+        async.close();
+
+        assertEquals(List.of("good"), names);
+        assertEquals(1, async.getFailedCount());
+    }
+
+    private static AsyncAnalyticSink sink(AnalyticSink delegate, int capacity,
+                                                OverflowPolicy policy) {
+        // Batch size 1 so a blocked drainer holds at most one event outside the buffer
+        return new AsyncAnalyticSink(delegate, capacity, 1, policy, Duration.ofMillis(1),
+                Duration.ofSeconds(5));
+    }
+
+    private static AnalyticEvent event(String name) {
+        return new TransactionData(name).toEvent(null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
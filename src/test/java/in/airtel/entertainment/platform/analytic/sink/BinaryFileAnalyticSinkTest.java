@@ -0,0 +1,209 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.SpanMode;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFileAnalyticSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void resetSpanMode() {
+        TransactionData.setSpanMode(null);
+    }
+
+    @Test
+    void decoderShouldReproduceTheJsonRecords() throws IOException {
+        List<AnalyticEvent> events = new ArrayList<>();
+        TransactionData plain = new TransactionData("getRecommendation");
+        plain.put("collectionId", "banner_xstream");
+        plain.putLong("contentCount", -12);
+        plain.putDouble("score", 0.75);
+        plain.putDouble("whole", 3.0);
+        plain.put("cached", true);
+        plain.put("boxed", 42);
+        plain.put("boxedDouble", 1.5e-9);
+        plain.put("ratio", 0.5f);
+        plain.put("unicode", "café \"quoted\"\n€");
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("ids", List.of(1, 2));
+        plain.put("nested", nested);
+        events.add(plain.toEvent(null));
+
+        TransactionData failed = new TransactionData("getRecommendation");
+        failed.put("timeTaken", "shadowed");
+        failed.put("exceptionClass", "placeholder");
+        events.add(failed.toEvent(new IllegalStateException()));
+
+        TransactionData.setSpanMode(SpanMode.NESTED);
+        TransactionData parent = new TransactionData("parent");
+        TransactionData child = new TransactionData("child");
+        child.put("childKey", "c");
+        parent.addSpan(child.toEvent(null));
+        events.add(parent.toEvent(null));
+
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofHours(1));
+        sink.writeBatch(events);
+        Path file = sink.getCurrentFile();
+        sink.close();
+
+        assertEquals(events.stream().map(AnalyticEvent::toString).toList(), decode(file));
+        assertEquals(3, sink.getWrittenCount());
+        assertTrue(file.getFileName().toString().matches("analytic-\\d{8}-\\d{6}-0\\.arb"));
+    }
+
+    @Test
+    void repeatedKeysAndNamesShouldBeWrittenOnce() throws IOException {
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofHours(1));
+        long jsonBytes = 0;
+        for (int i = 0; i < 100; i++) {
+            AnalyticEvent event = event("getRecommendation", "banner_xstream");
+            jsonBytes += event.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+            sink.write(event);
+        }
+        Path file = sink.getCurrentFile();
+        sink.close();
+
+        assertEquals(100, decode(file).size());
+        assertTrue(Files.size(file) * 3 < jsonBytes, Files.size(file) + " vs " + jsonBytes);
+        String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertEquals(content.indexOf("getRecommendation"), content.lastIndexOf("getRecommendation"));
+    }
+
+    @Test
+    void shouldRollWithAFreshDictionary() throws IOException {
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 256,
+                Duration.ofHours(1));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AnalyticEvent event = event("tx" + (i % 3), "value" + i);
+            expected.add(event.toString());
+            sink.write(event);
+        }
+        sink.close();
+
+        List<Path> files = files();
+        assertTrue(files.size() > 1);
+        List<String> decoded = new ArrayList<>();
+        for (Path file : files) {
+            decoded.addAll(decode(file));
+        }
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    void tornLastFrameShouldEndTheFile() throws IOException {
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofHours(1));
+        AnalyticEvent first = event("first", "a");
+        sink.write(first);
+        sink.write(event("second", "b"));
+        Path file = sink.getCurrentFile();
+        sink.close();
+
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] torn = Arrays.copyOf(bytes, bytes.length - 3);
+        try (AnalyticBinaryDecoder decoder = new AnalyticBinaryDecoder(new ByteArrayInputStream(torn))) {
+            assertEquals(first.toString(), decoder.next());
+            assertNull(decoder.next());
+        }
+    }
+
+    @Test
+    void failedWriteShouldAbandonTheFileAndStartANewDictionary() throws IOException {
+        List<FailingFileChannel> channels = new ArrayList<>();
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofHours(1)) {
+            @Override
+            FileChannel open(Path path) throws IOException {
+                FailingFileChannel channel = new FailingFileChannel(super.open(path));
+                channels.add(channel);
+                return channel;
+            }
+        };
+        AnalyticEvent before = event("before", "a");
+        sink.write(before);
+        channels.get(0).failNextWrite = true;
+        // Defines new symbols, which the failed write loses
+        sink.write(event("lost", "b"));
+        AnalyticEvent after = event("lost", "b");
+        sink.write(after);
+        sink.close();
+
+        assertEquals(2, sink.getWrittenCount());
+        assertEquals(1, sink.getFailedCount());
+        List<Path> files = files();
+        assertEquals(2, files.size());
+        assertEquals(List.of(before.toString()), decode(files.get(0)));
+        assertEquals(List.of(after.toString()), decode(files.get(1)));
+    }
+
+    @Test
+    void decoderShouldRejectOtherFiles() {
+        byte[] json = "{\"transactionName\":\"x\"}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> new AnalyticBinaryDecoder(new ByteArrayInputStream(json)));
+    }
+
+    @Test
+    void writeAfterCloseShouldBeCountedAsFailed() {
+        BinaryFileAnalyticSink sink = new BinaryFileAnalyticSink(directory, "analytic", 1024,
+                Duration.ofHours(1));
+        sink.close();
+        sink.close();
+        sink.write(event("late", "a"));
+
+        assertEquals(0, sink.getWrittenCount());
+        assertEquals(1, sink.getFailedCount());
+    }
+
+    private static List<String> decode(Path file) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (AnalyticBinaryDecoder decoder = new AnalyticBinaryDecoder(Files.newInputStream(file))) {
+            for (String json; (json = decoder.next()) != null; ) {
+                records.add(json);
+            }
+        }
+        return records;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted((a, b) -> Integer.compare(index(a), index(b))).toList();
+        }
+    }
+
+    private static int index(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.indexOf(".arb")));
+    }
+
+    private static AnalyticEvent event(String name, String value) {
+        TransactionData transaction = new TransactionData(name);
+        transaction.put("key", value);
+        transaction.putLong("contentCount", 12);
+        return transaction.toEvent(null);
+    }
+}
@@ -0,0 +1,213 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedFileAnalyticSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void resetClock() {
+        TransactionData.setClock(null);
+    }
+
+    @Test
+    void readerShouldReturnTheJsonRecordsInBlocks() throws IOException {
+        CompressedFileAnalyticSink sink = sink(2048, Duration.ofHours(1));
+        List<String> expected = new ArrayList<>();
+        long jsonBytes = 0;
+        for (int i = 0; i < 300; i++) {
+            AnalyticEvent event = event("getRecommendation", "banner_" + (i % 7));
+            expected.add(event.toString());
+            jsonBytes += event.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+            sink.write(event);
+        }
+        sink.close();
+        Path file = sink.getCurrentFile();
+
+        List<String> records = new ArrayList<>();
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(file)) {
+            assertTrue(reader.getBlocks().size() > 1);
+            assertEquals(sink.getBlockCount(), reader.getBlocks().size());
+            reader.readAll(records::add);
+        }
+        assertEquals(expected, records);
+        assertEquals(300, sink.getWrittenCount());
+        assertTrue(Files.size(file) * 3 < jsonBytes, Files.size(file) + " vs " + jsonBytes);
+        assertTrue(file.getFileName().toString().matches("analytic-\\d{8}-\\d{6}-0\\.ndz"));
+        assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".idx")));
+    }
+
+    @Test
+    void timeRangeShouldInflateOnlyOverlappingBlocks() throws IOException {
+        CompressedFileAnalyticSink sink = sink(1024 * 1024, Duration.ofHours(1));
+        for (long time : new long[]{1_000, 2_000, 3_000}) {
+            TransactionData.setClock(() -> time);
+            for (int i = 0; i < 5; i++) {
+                sink.write(event("tx" + time, "value" + i));
+            }
+            sink.flush();
+        }
+        sink.close();
+
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(sink.getCurrentFile())) {
+            assertEquals(3, reader.getBlocks().size());
+            List<AnalyticBlockReader.BlockInfo> selected = reader.getBlocks(1_500, 2_500);
+            assertEquals(1, selected.size());
+            assertEquals(2_000, selected.get(0).getMinStartTime());
+            assertEquals(5, selected.get(0).getRecordCount());
+
+            List<String> records = new ArrayList<>();
+            reader.read(1_500, 2_500, records::add);
+            assertEquals(5, records.size());
+            assertTrue(records.stream().allMatch(json -> json.contains("\"tx2000\"")));
+            assertEquals(2, reader.getBlocks(2_000, 3_000).size());
+        }
+    }
+
+    @Test
+    void blocksMissingFromTheIndexShouldBeFoundAndATornBlockIgnored() throws IOException {
+        CompressedFileAnalyticSink sink = sink(1024 * 1024, Duration.ofHours(1));
+        for (int i = 0; i < 3; i++) {
+            sink.write(event("tx" + i, "value"));
+            sink.flush();
+        }
+        sink.close();
+        Path file = sink.getCurrentFile();
+        Path index = file.resolveSibling(file.getFileName() + ".idx");
+
+        // Index lost its last entry, and the file ends in the middle of a fourth block
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 40);
+        }
+        Files.write(file, ByteBuffer.allocate(40).putInt(1000).putInt(4000).array(), StandardOpenOption.APPEND);
+
+        List<String> records = new ArrayList<>();
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(file)) {
+            assertEquals(3, reader.getBlocks().size());
+            reader.readAll(records::add);
+        }
+        assertEquals(3, records.size());
+
+        Files.delete(index);
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(file)) {
+            assertEquals(3, reader.getBlocks().size());
+        }
+    }
+
+    @Test
+    void partialBlockShouldBeWrittenAfterFlushInterval() throws InterruptedException {
+        CompressedFileAnalyticSink sink = new CompressedFileAnalyticSink(directory, "analytic", 1024 * 1024, 1,
+                64 * 1024 * 1024, Duration.ofHours(1), Duration.ofMillis(20));
+        sink.write(event("quiet", "a"));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (sink.getWrittenCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, sink.getWrittenCount());
+        assertEquals(1, sink.getBlockCount());
+        sink.close();
+    }
+
+    @Test
+    void shouldRollOnSize() throws IOException {
+        CompressedFileAnalyticSink sink = new CompressedFileAnalyticSink(directory, "analytic", 256, 0,
+                1024, Duration.ofHours(1), Duration.ofHours(1));
+        for (int i = 0; i < 20; i++) {
+            sink.write(event("tx", "value" + i));
+        }
+        sink.close();
+
+        try (var files = Files.list(directory)) {
+            assertTrue(files.filter(path -> path.toString().endsWith(".ndz")).count() > 1);
+        }
+        assertEquals(20, sink.getWrittenCount());
+    }
+
+    @Test
+    void failedBlockWriteShouldBeCutOffAndStartANewFile() throws IOException {
+        List<FailingFileChannel> channels = new ArrayList<>();
+        CompressedFileAnalyticSink sink = new CompressedFileAnalyticSink(directory, "analytic", 1024 * 1024, 6,
+                64 * 1024 * 1024, Duration.ofHours(1), Duration.ofHours(1)) {
+            @Override
+            FileChannel open(Path path) throws IOException {
+                FailingFileChannel channel = new FailingFileChannel(super.open(path));
+                channels.add(channel);
+                return channel;
+            }
+        };
+        AnalyticEvent first = event("first", "a");
+        sink.write(first);
+        sink.flush();
+        Path firstFile = sink.getCurrentFile();
+        long firstSize = Files.size(firstFile);
+        channels.get(0).failNextWrite = true;
+        sink.write(event("lost", "b"));
+        sink.flush();
+        AnalyticEvent third = event("third", "c");
+        sink.write(third);
+        sink.close();
+
+        assertEquals(2, sink.getWrittenCount());
+        assertEquals(1, sink.getFailedCount());
+        assertEquals(firstSize, Files.size(firstFile));
+        List<String> records = new ArrayList<>();
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(firstFile)) {
+            assertEquals(1, reader.getBlocks().size());
+            reader.readAll(records::add);
+        }
+        assertNotEquals(firstFile, sink.getCurrentFile());
+        try (AnalyticBlockReader reader = new AnalyticBlockReader(sink.getCurrentFile())) {
+            reader.readAll(records::add);
+        }
+        assertEquals(List.of(first.toString(), third.toString()), records);
+    }
+
+    @Test
+    void writeAfterCloseShouldBeCountedAsFailed() {
+        CompressedFileAnalyticSink sink = sink(1024, Duration.ofHours(1));
+        sink.close();
+        sink.close();
+        sink.write(event("late", "a"));
+
+        assertEquals(0, sink.getWrittenCount());
+        assertEquals(1, sink.getFailedCount());
+        assertNull(sink.getCurrentFile());
+    }
+
+    @Test
+    void shouldRejectInvalidCompressionLevel() {
+        assertThrows(IllegalArgumentException.class, () -> new CompressedFileAnalyticSink(directory, "analytic",
+                1024, 10, 1024, Duration.ofHours(1), Duration.ofSeconds(1)));
+    }
+
+    private CompressedFileAnalyticSink sink(int blockSize, Duration flushInterval) {
+        return new CompressedFileAnalyticSink(directory, "analytic", blockSize, 6, 64 * 1024 * 1024,
+                Duration.ofHours(1), flushInterval);
+    }
+
+    private static AnalyticEvent event(String name, String value) {
+        TransactionData transaction = new TransactionData(name);
+        transaction.put("key", value);
+        transaction.putLong("contentCount", 12);
+        return transaction.toEvent(null);
+    }
+}
@@ -0,0 +1,157 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileAnalyticSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void resetClock() {
+        TransactionData.setClock(null);
+    }
+
+    @Test
+    void shouldAppendNewlineDelimitedJsonAndTruncateOnClose() throws IOException {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofHours(1));
+        AnalyticEvent first = event("first", "a");
+        AnalyticEvent second = event("second", "b");
+        sink.write(first);
+        sink.write(second);
+        Path segment = sink.getCurrentSegment();
+        sink.close();
+
+        String content = Files.readString(segment, StandardCharsets.UTF_8);
+        assertEquals(first + "\n" + second + "\n", content);
+        assertEquals(content.getBytes(StandardCharsets.UTF_8).length, Files.size(segment));
+        assertEquals(2, sink.getWrittenCount());
+        assertTrue(segment.getFileName().toString().matches("analytic-\\d{8}-\\d{6}-0\\.ndjson"));
+    }
+
+    @Test
+    void shouldRollWhenSegmentIsFull() throws IOException {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 256,
+                Duration.ofHours(1));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AnalyticEvent event = event("tx" + i, "value" + i);
+            expected.add(event.toString());
+            sink.write(event);
+        }
+        sink.close();
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1);
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= 256);
+            lines.addAll(Files.readAllLines(segment, StandardCharsets.UTF_8));
+        }
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    void shouldRollWhenIntervalElapses() throws Exception {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 1024 * 1024,
+                Duration.ofSeconds(20));
+        TransactionData.setClock(() -> 1_000_000);
+        sink.write(event("first", "a"));
+        Path firstSegment = sink.getCurrentSegment();
+        TransactionData.setClock(() -> 1_019_999);
+        sink.write(event("second", "a"));
+        assertEquals(firstSegment, sink.getCurrentSegment());
+        TransactionData.setClock(() -> 1_020_000);
+        sink.write(event("third", "b"));
+        Path secondSegment = sink.getCurrentSegment();
+        sink.close();
+
+        assertNotEquals(firstSegment, secondSegment);
+        assertEquals(2, Files.readAllLines(firstSegment).size());
+        assertEquals(1, Files.readAllLines(secondSegment).size());
+    }
+
+    @Test
+    void concurrentWritersShouldNotInterleaveRecords() throws Exception {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 4096,
+                Duration.ofHours(1));
+        List<String> expected = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            List<AnalyticEvent> events = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                events.add(event("writer" + t, "value" + i));
+            }
+            events.forEach(event -> expected.add(event.toString()));
+            threads.add(new Thread(() -> events.forEach(sink::write)));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sink.close();
+
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments()) {
+            lines.addAll(Files.readAllLines(segment));
+        }
+        assertEquals(800, sink.getWrittenCount());
+        assertEquals(expected.stream().sorted().toList(), lines.stream().sorted().toList());
+    }
+
+    @Test
+    void recordLargerThanSegmentShouldGetItsOwnSegment() throws IOException {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 64,
+                Duration.ofHours(1));
+        AnalyticEvent large = event("large", "x".repeat(500));
+        sink.write(large);
+        sink.close();
+
+        assertEquals(List.of(large.toString()), Files.readAllLines(sink.getCurrentSegment()));
+    }
+
+    @Test
+    void writeAfterCloseShouldBeCountedAsFailed() {
+        MappedFileAnalyticSink sink = new MappedFileAnalyticSink(directory, "analytic", 1024,
+                Duration.ofHours(1));
+        sink.close();
+        sink.close();
+        sink.write(event("late", "a"));
+
+        assertEquals(0, sink.getWrittenCount());
+        assertEquals(1, sink.getFailedCount());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted((a, b) -> Integer.compare(index(a), index(b))).toList();
+        }
+    }
+
+    private static int index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.indexOf(".ndjson")));
+    }
+
+    private static AnalyticEvent event(String name, String value) {
+        TransactionData transaction = new TransactionData(name);
+        transaction.put("key", value);
+        return transaction.toEvent(null);
+    }
+}
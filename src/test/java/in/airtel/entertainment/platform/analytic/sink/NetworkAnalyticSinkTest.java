@@ -0,0 +1,259 @@
+package in.airtel.entertainment.platform.analytic.sink;
+
+import in.airtel.entertainment.platform.analytic.core.AnalyticEvent;
+import in.airtel.entertainment.platform.analytic.core.TransactionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkAnalyticSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void closeResources() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    void shouldShipNewlineDelimitedJsonOverTcp() throws Exception {
+        LineServer server = tcpServer(0);
+        NetworkAnalyticSink sink = sink(NetworkProtocol.TCP, server.port(), 1024, null);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            AnalyticEvent event = event("tx", "value" + i);
+            expected.add(event.toString());
+            sink.write(event);
+        }
+
+        assertEquals(expected, server.take(50));
+        await(() -> sink.getSentCount() == 50);
+        assertTrue(sink.isConnected());
+        sink.close();
+        assertEquals(0, sink.getFailedCount());
+    }
+
+    @Test
+    void shouldShipDatagramsOfWholeRecordsOverUdp() throws Exception {
+        DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        socket.setSoTimeout(5000);
+        resources.add(socket);
+        NetworkAnalyticSink sink = sink(NetworkProtocol.UDP, socket.getLocalPort(), 1024, null);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AnalyticEvent event = event("tx", "value" + i);
+            expected.add(event.toString());
+            sink.write(event);
+        }
+
+        List<String> received = new ArrayList<>();
+        byte[] data = new byte[65536];
+        while (received.size() < expected.size()) {
+            DatagramPacket packet = new DatagramPacket(data, data.length);
+            socket.receive(packet);
+            String text = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+            assertTrue(text.endsWith("\n"));
+            received.addAll(List.of(text.split("\n")));
+        }
+        assertEquals(expected, received);
+        sink.close();
+    }
+
+    @Test
+    void shouldSpillWhileDownAndReplayAfterReconnect() throws Exception {
+        int port = freePort();
+        Path spillFile = directory.resolve("spill/analytic.ndjson");
+        NetworkAnalyticSink sink = sink(NetworkProtocol.TCP, port, 1024, spillFile);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AnalyticEvent event = event("offline", "value" + i);
+            expected.add(event.toString());
+            sink.write(event);
+        }
+        await(() -> sink.getSpilledCount() == 10);
+        assertFalse(sink.isConnected());
+        assertEquals(expected, Files.readAllLines(spillFile));
+
+        LineServer server = tcpServer(port);
+        AnalyticEvent online = event("online", "value");
+        expected.add(online.toString());
+        sink.write(online);
+
+        assertEquals(expected, server.take(11));
+        await(() -> sink.getSentCount() == 11);
+        assertEquals(0, Files.size(spillFile));
+        sink.close();
+    }
+
+    @Test
+    void shouldReplaySpillFileLeftByEarlierProcess() throws Exception {
+        Path spillFile = directory.resolve("analytic.ndjson");
+        AnalyticEvent earlier = event("earlier", "value");
+        Files.writeString(spillFile, earlier + "\n{\"torn\":");
+        LineServer server = tcpServer(0);
+
+        NetworkAnalyticSink sink = sink(NetworkProtocol.TCP, server.port(), 1024, spillFile);
+
+        assertEquals(List.of(earlier.toString()), server.take(1));
+        await(() -> sink.getSentCount() == 1);
+        sink.close();
+        assertEquals(0, Files.size(spillFile));
+    }
+
+    @Test
+    void bufferShouldBeBoundedWhileDownWithoutSpillFile() throws Exception {
+        NetworkAnalyticSink sink = sink(NetworkProtocol.TCP, freePort(), 8, null);
+        for (int i = 0; i < 12; i++) {
+            sink.write(event("tx", "value" + i));
+        }
+
+        assertEquals(8, sink.getEnqueuedCount());
+        assertEquals(4, sink.getDroppedCount());
+        assertEquals(8, sink.getQueueSize());
+        sink.close();
+        assertEquals(8, sink.getFailedCount());
+    }
+
+    @Test
+    void datagramsShouldNotSplitRecords() {
+        byte[] line = ("x".repeat(3000) + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] big = ("y".repeat(NetworkAnalyticSink.MAX_DATAGRAM_SIZE + 10) + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[line.length * 3 + big.length];
+        System.arraycopy(line, 0, data, 0, line.length);
+        System.arraycopy(line, 0, data, line.length, line.length);
+        System.arraycopy(big, 0, data, line.length * 2, big.length);
+        System.arraycopy(line, 0, data, line.length * 2 + big.length, line.length);
+
+        List<byte[]> datagrams = NetworkAnalyticSink.datagrams(data, 0, data.length);
+
+        assertEquals(List.of(line.length * 2, big.length, line.length),
+                datagrams.stream().map(datagram -> datagram.length).toList());
+    }
+
+    private NetworkAnalyticSink sink(NetworkProtocol protocol, int port, int capacity, Path spillFile) {
+        NetworkAnalyticSink sink = new NetworkAnalyticSink(protocol, "127.0.0.1", port, capacity, 16,
+                Duration.ofMillis(20), Duration.ofSeconds(2), Duration.ofMillis(20), Duration.ofMillis(100),
+                spillFile, 1024 * 1024);
+        resources.add(sink::close);
+        return sink;
+    }
+
+    private LineServer tcpServer(int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        LineServer server = new LineServer(socket);
+        resources.add(server);
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static AnalyticEvent event(String name, String value) {
+        TransactionData transaction = new TransactionData(name);
+        transaction.put("key", value);
+        transaction.putLong("contentCount", 12);
+        return transaction.toEvent(null);
+    }
+
+    /**
+     * Stand-in for a Logstash tcp input: accepts connections and collects lines.
+     */
+    private static final class LineServer implements AutoCloseable {
+        private final ServerSocket socket;
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private final Thread acceptor;
+
+        LineServer(ServerSocket socket) {
+            this.socket = socket;
+            this.acceptor = new Thread(this::accept, "line-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        List<String> take(int count) throws InterruptedException {
+            List<String> taken = new ArrayList<>();
+            while (taken.size() < count) {
+                String line = lines.poll(5, TimeUnit.SECONDS);
+                assertNotNull(line, "received only " + taken);
+                taken.add(line);
+            }
+            return taken;
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket client = socket.accept();
+                    Thread reader = new Thread(() -> read(client), "line-server-reader");
+                    reader.setDaemon(true);
+                    reader.start();
+                }
+            } catch (SocketException e) {
+                // Closed
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void read(Socket client) {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                // Connection closed
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}